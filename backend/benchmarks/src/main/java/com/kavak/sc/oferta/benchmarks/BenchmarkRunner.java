@@ -0,0 +1,187 @@
+package com.kavak.sc.oferta.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Punto de entrada de {@code benchmarks.jar}.
+ * <pre>
+ * java -jar target/benchmarks.jar [jmh-opts]                          corre y deja target/jmh-result.json
+ * java -jar target/benchmarks.jar --save-baseline [jmh-opts]          corre y guarda el resultado como baseline
+ * java -jar target/benchmarks.jar --compare [jmh-opts]                corre y compara contra el baseline
+ * java -jar target/benchmarks.jar --compare-only result.json          compara un resultado existente
+ * </pre>
+ * Opciones propias: {@code --baseline <archivo>} (default {@code baseline.json}) y
+ * {@code --threshold <porcentaje>} (default 10). El resto se pasa tal cual a JMH, por
+ * ejemplo un regex de benchmarks o {@code -f 1 -wi 1 -i 3}.
+ * <p>
+ * El baseline es el JSON de resultados de JMH sin modificar. En modo comparación el
+ * proceso termina con código 1 si algún benchmark empeoró más que el umbral y la
+ * diferencia supera la suma de los errores de ambas mediciones.
+ */
+public final class BenchmarkRunner {
+    
+    private static final Path RESULT = Path.of("target", "jmh-result.json");
+    
+    private BenchmarkRunner() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Path baseline = Path.of("baseline.json");
+        double threshold = 10.0;
+        boolean save = false;
+        boolean compare = false;
+        Path compareOnly = null;
+        
+        List<String> jmhArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--save-baseline" -> save = true;
+                case "--compare" -> compare = true;
+                case "--compare-only" -> compareOnly = Path.of(requireValue(args, ++i, "--compare-only"));
+                case "--baseline" -> baseline = Path.of(requireValue(args, ++i, "--baseline"));
+                case "--threshold" -> threshold = Double.parseDouble(requireValue(args, ++i, "--threshold"));
+                default -> jmhArgs.add(args[i]);
+            }
+        }
+        
+        if (compareOnly != null) {
+            System.exit(compare(baseline, compareOnly, threshold) ? 0 : 1);
+        }
+        
+        Files.createDirectories(RESULT.getParent());
+        CommandLineOptions cli = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+        new Runner(new OptionsBuilder()
+                .parent(cli)
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULT.toString())
+                .build()).run();
+        
+        if (save) {
+            Files.copy(RESULT, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline saved to " + baseline.toAbsolutePath());
+        }
+        if (compare) {
+            System.exit(compare(baseline, RESULT, threshold) ? 0 : 1);
+        }
+    }
+    
+    /**
+     * @return {@code false} si hay al menos una regresión
+     */
+    static boolean compare(Path baselinePath, Path currentPath, double thresholdPercent) throws IOException {
+        if (!Files.exists(baselinePath)) {
+            throw new IllegalArgumentException("Baseline not found: " + baselinePath.toAbsolutePath());
+        }
+        Map<String, Score> baseline = read(baselinePath);
+        Map<String, Score> current = read(currentPath);
+        
+        boolean ok = true;
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-66s %20s %20s %9s  %s%n", "Benchmark", "Baseline", "Current", "Change", "");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf(Locale.ROOT, "%-66s %20s %20s %9s  %s%n",
+                        entry.getKey(), "-", now.format(), "-", "NEW");
+                continue;
+            }
+            if (!before.unit.equals(now.unit) || !before.mode.equals(now.mode)) {
+                System.out.printf(Locale.ROOT, "%-66s %20s %20s %9s  %s%n",
+                        entry.getKey(), before.format(), now.format(), "-", "INCOMPARABLE");
+                continue;
+            }
+            
+            // En throughput más es mejor; en el resto de los modos (tiempos) menos es mejor
+            double change = (now.score - before.score) / before.score * 100;
+            double worsening = now.higherIsBetter() ? -change : change;
+            boolean significant = Math.abs(now.score - before.score) > before.error + now.error;
+            String verdict = "";
+            if (worsening > thresholdPercent && significant) {
+                verdict = "REGRESSION";
+                ok = false;
+            } else if (worsening < -thresholdPercent && significant) {
+                verdict = "IMPROVED";
+            }
+            System.out.printf(Locale.ROOT, "%-66s %20s %20s %+8.1f%%  %s%n",
+                    entry.getKey(), before.format(), now.format(), change, verdict);
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf(Locale.ROOT, "%-66s %20s %20s %9s  %s%n", missing, "", "-", "-", "NOT RUN");
+            }
+        }
+        System.out.println();
+        System.out.println(ok
+                ? "No regressions above " + thresholdPercent + "%"
+                : "Regressions above " + thresholdPercent + "% detected");
+        return ok;
+    }
+    
+    private static Map<String, Score> read(Path path) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(path.toFile());
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : root) {
+            JsonNode metric = result.get("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(key(result), new Score(
+                    result.get("mode").asText(),
+                    metric.get("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error,
+                    metric.get("scoreUnit").asText()));
+        }
+        return scores;
+    }
+    
+    private static String key(JsonNode result) {
+        String name = result.get("benchmark").asText();
+        name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+        JsonNode params = result.get("params");
+        if (params == null || params.isEmpty()) {
+            return name;
+        }
+        // Orden estable de parámetros para que la clave no dependa del JSON
+        Map<String, String> sorted = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            sorted.put(field.getKey(), field.getValue().asText());
+        }
+        return name + sorted;
+    }
+    
+    private static String requireValue(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(option + " requires a value");
+        }
+        return args[index];
+    }
+    
+    private record Score(String mode, double score, double error, String unit) {
+        
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+        
+        String format() {
+            return String.format(Locale.ROOT, "%.2f %s", score, unit);
+        }
+    }
+}
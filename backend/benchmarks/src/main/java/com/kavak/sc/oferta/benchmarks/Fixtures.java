@@ -0,0 +1,106 @@
+package com.kavak.sc.oferta.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kavak.sc.oferta.client.BeCleverClient;
+import com.kavak.sc.oferta.dto.FinancingOfferBatchRequest;
+import com.kavak.sc.oferta.dto.FinancingOfferRequest;
+import com.kavak.sc.oferta.entity.User;
+import com.kavak.sc.oferta.service.AmortizationEngine;
+import com.kavak.sc.oferta.service.BeCleverService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Datos de ejemplo y wiring manual de los componentes medidos. Los benchmarks no
+ * levantan un contexto de Spring: los campos {@code @Value} y los métodos
+ * {@code @PostConstruct} se completan por reflexión.
+ */
+final class Fixtures {
+    
+    static final String JWT_SECRET = "benchmark-secret-key-with-at-least-256-bits-for-hs256";
+    
+    private Fixtures() {
+    }
+    
+    static FinancingOfferRequest offerRequest() {
+        FinancingOfferRequest request = new FinancingOfferRequest();
+        request.setCliente(cliente("Juan", "Pérez", "30123456"));
+        request.setVehiculo(vehiculo());
+        request.setPorcentajeFinanciar(60);
+        request.setDealId("deal-123456");
+        request.setSubsidiary(1);
+        request.setCountry("AR");
+        return request;
+    }
+    
+    static FinancingOfferBatchRequest batchRequest(int escenarios) {
+        FinancingOfferBatchRequest request = new FinancingOfferBatchRequest();
+        request.setCliente(cliente("Juan", "Pérez", "30123456"));
+        request.setTitularesAdicionales(List.of(cliente("María", "Gómez", "31234567")));
+        request.setVehiculo(vehiculo());
+        List<FinancingOfferBatchRequest.Escenario> lista = new ArrayList<>(escenarios);
+        for (int i = 0; i < escenarios; i++) {
+            lista.add(new FinancingOfferBatchRequest.Escenario("e" + i, "Escenario " + i, 10 + i * 9));
+        }
+        request.setEscenarios(lista);
+        request.setDealId("deal-123456");
+        request.setCountry("AR");
+        return request;
+    }
+    
+    static BeCleverService beCleverService(boolean quoteCache) {
+        BeCleverService service = new BeCleverService(new AmortizationEngine(), new SimpleMeterRegistry(),
+                new BeCleverClient(new ObjectMapper(), new SimpleMeterRegistry()));
+        set(service, "quoteZone", ZoneId.of("America/Argentina/Buenos_Aires"));
+        set(service, "quoteCacheEnabled", quoteCache);
+        set(service, "quoteCacheMaxEntries", 10_000L);
+        set(service, "quoteCacheTtl", Duration.ofMinutes(10));
+        invoke(service, "init");
+        return service;
+    }
+    
+    static User user() {
+        User user = new User();
+        user.setId(UUID.fromString("6f1c2b9e-3f0a-4a8e-9a51-2d4b7c1e0f11"));
+        user.setUsername("vendedor.bench");
+        user.setRole(User.Role.COMERCIAL_KUNA);
+        user.setCountryCode("AR");
+        return user;
+    }
+    
+    static void set(Object target, String field, Object value) {
+        try {
+            Field f = target.getClass().getDeclaredField(field);
+            f.setAccessible(true);
+            f.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + field + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+    
+    static void invoke(Object target, String method) {
+        try {
+            Method m = target.getClass().getDeclaredMethod(method);
+            m.setAccessible(true);
+            m.invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot invoke " + method + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+    
+    private static FinancingOfferRequest.Cliente cliente(String nombre, String apellido, String dni) {
+        return new FinancingOfferRequest.Cliente(nombre, apellido, dni, new BigDecimal("18500000.00"));
+    }
+    
+    private static FinancingOfferRequest.Vehiculo vehiculo() {
+        return new FinancingOfferRequest.Vehiculo("Toyota", "Corolla", "2.0 XEI CVT", 2022, "TOY-COR-22-XEI");
+    }
+}
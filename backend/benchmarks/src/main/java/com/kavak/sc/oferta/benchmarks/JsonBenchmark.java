@@ -0,0 +1,72 @@
+package com.kavak.sc.oferta.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.kavak.sc.oferta.dto.FinancingOfferRequest;
+import com.kavak.sc.oferta.dto.SimulacionColumnarResponse;
+import com.kavak.sc.oferta.dto.SimulacionResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * (De)serialización en el borde HTTP: el body de {@code POST /api/financing-offer} y la
+ * respuesta con los 13 plazos, en JSON y en las codificaciones compactas (columnas con
+ * enteros, en JSON y en CBOR). Los {@link ObjectMapper} se arman con el mismo builder que
+ * usa Spring Boot para los converters de MVC.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+    
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private ObjectWriter columnarWriter;
+    private ObjectWriter cborWriter;
+    private byte[] requestJson;
+    private SimulacionResponse response;
+    
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        requestReader = objectMapper.readerFor(FinancingOfferRequest.class);
+        responseWriter = objectMapper.writerFor(SimulacionResponse.class);
+        columnarWriter = objectMapper.writerFor(SimulacionColumnarResponse.class);
+        cborWriter = Jackson2ObjectMapperBuilder.cbor().build()
+                .writerFor(SimulacionColumnarResponse.class);
+        requestJson = objectMapper.writeValueAsBytes(Fixtures.offerRequest());
+        
+        response = Fixtures.beCleverService(false).simularCredito("TOY-COR-22-001", "AR", new BigDecimal("15000000.00"), 60);
+    }
+    
+    @Benchmark
+    public FinancingOfferRequest deserializeRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+    
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+    
+    /**
+     * Incluye la conversión a columnas, como en el request real.
+     */
+    @Benchmark
+    public byte[] serializeResponseColumnar() throws IOException {
+        return columnarWriter.writeValueAsBytes(SimulacionColumnarResponse.from(response));
+    }
+    
+    @Benchmark
+    public byte[] serializeResponseCbor() throws IOException {
+        return cborWriter.writeValueAsBytes(SimulacionColumnarResponse.from(response));
+    }
+}
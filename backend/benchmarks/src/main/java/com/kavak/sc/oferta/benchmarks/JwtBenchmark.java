@@ -0,0 +1,65 @@
+package com.kavak.sc.oferta.benchmarks;
+
+import com.kavak.sc.oferta.entity.User;
+import com.kavak.sc.oferta.security.JwtUtil;
+import com.kavak.sc.oferta.security.VerifiedToken;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emisión y verificación de tokens. {@code verifyCached} es el camino habitual del
+ * filtro (mismo token en requests sucesivos); {@code verifyUncached} fuerza el parseo
+ * y el HMAC en cada llamada, como ocurre con el primer request de cada token.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtBenchmark {
+    
+    private JwtUtil cached;
+    private JwtUtil uncached;
+    private User user;
+    private String token;
+    
+    @Setup
+    public void setup() {
+        cached = jwtUtil(true);
+        uncached = jwtUtil(false);
+        user = Fixtures.user();
+        token = cached.generateToken(user);
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken(user);
+    }
+    
+    @Benchmark
+    public VerifiedToken verifyCached() {
+        return cached.verify(token);
+    }
+    
+    @Benchmark
+    public VerifiedToken verifyUncached() {
+        return uncached.verify(token);
+    }
+    
+    @Benchmark
+    public Boolean validateToken() {
+        return cached.validateToken(token, user);
+    }
+    
+    private static JwtUtil jwtUtil(boolean cacheEnabled) {
+        JwtUtil jwtUtil = new JwtUtil();
+        Fixtures.set(jwtUtil, "secret", Fixtures.JWT_SECRET);
+        Fixtures.set(jwtUtil, "expiration", 86_400_000L);
+        Fixtures.set(jwtUtil, "cacheEnabled", cacheEnabled);
+        Fixtures.set(jwtUtil, "cacheMaxEntries", 10_000L);
+        Fixtures.invoke(jwtUtil, "init");
+        return jwtUtil;
+    }
+}
@@ -0,0 +1,73 @@
+package com.kavak.sc.oferta.benchmarks;
+
+import com.kavak.sc.oferta.dto.SimulacionResponse;
+import com.kavak.sc.oferta.service.AmortizationEngine;
+import com.kavak.sc.oferta.service.BeCleverService;
+import com.kavak.sc.oferta.service.RateTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de una simulación completa: los 13 plazos de {@link AmortizationEngine#PLAZOS}.
+ * {@code cotizar} es el cálculo puro con armado de DTOs, {@code simularCreditoCached} la
+ * misma cotización repetida (hit del caché) y {@code calcularCuotas} sólo el motor sobre
+ * primitivos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulationBenchmark {
+    
+    private static final String SKU = "TOY-COR-22-001";
+    private static final String COUNTRY = "AR";
+    private static final int PORCENTAJE = 60;
+    
+    @Param({"2500000.00", "20000000.00"})
+    private String montoTotal;
+    
+    private BeCleverService uncached;
+    private BeCleverService cached;
+    private AmortizationEngine engine;
+    private RateTable rateTable;
+    private LocalDate fecha;
+    private BigDecimal monto;
+    private long montoCentavos;
+    private final int[] rates = new int[AmortizationEngine.PLAZOS.length];
+    private final long[] cuotas = new long[AmortizationEngine.PLAZOS.length];
+    
+    @Setup
+    public void setup() {
+        engine = new AmortizationEngine();
+        uncached = Fixtures.beCleverService(false);
+        cached = Fixtures.beCleverService(true);
+        rateTable = RateTable.mock();
+        fecha = LocalDate.now();
+        monto = new BigDecimal(montoTotal);
+        montoCentavos = AmortizationEngine.toCentavos(monto) * PORCENTAJE / 100;
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = (i * 157) % AmortizationEngine.RATE_COUNT;
+        }
+    }
+    
+    @Benchmark
+    public SimulacionResponse cotizar() {
+        return uncached.cotizar(rateTable, SKU, COUNTRY, fecha, monto, PORCENTAJE);
+    }
+    
+    @Benchmark
+    public SimulacionResponse simularCreditoCached() {
+        return cached.simularCredito(SKU, COUNTRY, monto, PORCENTAJE);
+    }
+    
+    @Benchmark
+    public long[] calcularCuotas() {
+        engine.calcularCuotas(montoCentavos, rates, cuotas);
+        return cuotas;
+    }
+}
@@ -0,0 +1,76 @@
+package com.kavak.sc.oferta.benchmarks;
+
+import com.kavak.sc.oferta.dto.FinancingOfferBatchRequest;
+import com.kavak.sc.oferta.dto.FinancingOfferRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de Bean Validation sobre los DTOs con {@code @Valid} anidados (cliente,
+ * vehículo y escenarios), tanto para un request válido como para uno con errores,
+ * donde se suma la interpolación de mensajes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+    
+    private ValidatorFactory factory;
+    private Validator validator;
+    private FinancingOfferRequest valid;
+    private FinancingOfferRequest invalid;
+    
+    @Setup
+    public void setup() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+        valid = Fixtures.offerRequest();
+        invalid = Fixtures.offerRequest();
+        invalid.getCliente().setDni("");
+        invalid.getVehiculo().setAnio(1980);
+        invalid.setPorcentajeFinanciar(120);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+    
+    @Benchmark
+    public Set<ConstraintViolation<FinancingOfferRequest>> validateOffer() {
+        return validator.validate(valid);
+    }
+    
+    @Benchmark
+    public Set<ConstraintViolation<FinancingOfferRequest>> validateOfferWithViolations() {
+        return validator.validate(invalid);
+    }
+    
+    @Benchmark
+    public Set<ConstraintViolation<FinancingOfferBatchRequest>> validateBatch(Batch batch) {
+        return validator.validate(batch.request);
+    }
+    
+    @State(Scope.Benchmark)
+    public static class Batch {
+        
+        @Param({"1", "10"})
+        private int escenarios;
+        
+        private FinancingOfferBatchRequest request;
+        
+        @Setup
+        public void setup() {
+            request = Fixtures.batchRequest(escenarios);
+        }
+    }
+}
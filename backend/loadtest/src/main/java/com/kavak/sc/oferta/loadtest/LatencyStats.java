@@ -0,0 +1,146 @@
+package com.kavak.sc.oferta.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias (en microsegundos) y errores por operación, registrados sin locks desde
+ * todos los usuarios virtuales. Sólo se acumula lo ocurrido entre
+ * {@link #startMeasuring()} y {@link #stopMeasuring()}; la rampa y el warmup quedan
+ * afuera. La latencia se registra únicamente para respuestas 2xx.
+ */
+final class LatencyStats {
+    
+    /** Estado usado cuando el request no llegó a tener respuesta (timeout, conexión) */
+    static final int NO_RESPONSE = -1;
+    
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, ConcurrentMap<Integer, LongAdder>> statuses = new EnumMap<>(Operation.class);
+    
+    // Contadores para el progreso en consola: cuentan desde el arranque, sin reset
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    
+    private volatile boolean measuring;
+    private long measureStart;
+    private long measureEnd;
+    
+    LatencyStats() {
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(3));
+            statuses.put(operation, new ConcurrentHashMap<>());
+        }
+    }
+    
+    void record(Operation operation, long elapsedNanos, int status) {
+        boolean ok = status >= 200 && status < 300;
+        completed.increment();
+        if (!ok) {
+            failed.increment();
+        }
+        if (!measuring) {
+            return;
+        }
+        if (ok) {
+            recorders.get(operation).recordValue(Math.max(1, elapsedNanos / 1000));
+        }
+        statuses.get(operation).computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+    
+    void startMeasuring() {
+        for (Operation operation : Operation.values()) {
+            recorders.get(operation).reset();
+            statuses.get(operation).clear();
+        }
+        measureStart = System.nanoTime();
+        measuring = true;
+    }
+    
+    void stopMeasuring() {
+        measuring = false;
+        measureEnd = System.nanoTime();
+    }
+    
+    long completed() {
+        return completed.sum();
+    }
+    
+    long failed() {
+        return failed.sum();
+    }
+    
+    /**
+     * Resultado por operación más el total ({@code null} como clave). Se llama una sola
+     * vez, después de {@link #stopMeasuring()}.
+     */
+    Map<Operation, Result> results() {
+        double seconds = (measureEnd - measureStart) / 1e9;
+        Map<Operation, Result> results = new TreeMap<>((a, b) ->
+                a == null ? (b == null ? 0 : 1) : b == null ? -1 : a.compareTo(b));
+        Histogram total = new Histogram(3);
+        Map<Integer, Long> totalStatuses = new TreeMap<>();
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.get(operation).forEach((status, count) -> counts.put(status, count.sum()));
+            if (histogram.getTotalCount() == 0 && counts.isEmpty()) {
+                continue;
+            }
+            total.add(histogram);
+            counts.forEach((status, count) -> totalStatuses.merge(status, count, Long::sum));
+            results.put(operation, new Result(histogram, counts, seconds));
+        }
+        results.put(null, new Result(total, totalStatuses, seconds));
+        return results;
+    }
+    
+    /**
+     * @param latencies latencias de las respuestas exitosas, en microsegundos
+     * @param statuses  cantidad de respuestas por código HTTP ({@link #NO_RESPONSE} sin respuesta)
+     */
+    record Result(Histogram latencies, Map<Integer, Long> statuses, double seconds) {
+        
+        long requests() {
+            return statuses.values().stream().mapToLong(Long::longValue).sum();
+        }
+        
+        long errors() {
+            return requests() - latencies.getTotalCount();
+        }
+        
+        double errorRate() {
+            long requests = requests();
+            return requests == 0 ? 0 : errors() * 100.0 / requests;
+        }
+        
+        double throughput() {
+            return latencies.getTotalCount() / seconds;
+        }
+        
+        /** Percentil en microsegundos; {@code 100} devuelve el máximo */
+        double percentile(double percentile) {
+            return percentile >= 100 ? latencies.getMaxValue() : latencies.getValueAtPercentile(percentile);
+        }
+        
+        /** Valor observado para una métrica de {@link Slo}, en sus mismas unidades */
+        double metric(String name) {
+            return switch (name) {
+                case "p50" -> percentile(50);
+                case "p90" -> percentile(90);
+                case "p99" -> percentile(99);
+                case "p999" -> percentile(99.9);
+                case "max" -> percentile(100);
+                case "errors" -> errorRate();
+                case "rps" -> throughput();
+                default -> throw new IllegalArgumentException("Unknown metric " + name);
+            };
+        }
+    }
+}
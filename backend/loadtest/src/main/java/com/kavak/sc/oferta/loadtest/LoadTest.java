@@ -0,0 +1,305 @@
+package com.kavak.sc.oferta.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.kavak.sc.oferta.OfertaApiApplication;
+import com.kavak.sc.oferta.entity.User;
+import com.kavak.sc.oferta.service.UserService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Harness de carga end-to-end: login → {@code POST /api/financing-offers} →
+ * {@code GET /api/settings}, pasando por toda la cadena de Spring Security.
+ * <p>
+ * Por defecto levanta un PostgreSQL embebido, aplica la migración de
+ * {@code employee_activity} (el resto del esquema lo crea Hibernate), arranca la API
+ * en este mismo proceso sobre un puerto libre y crea un usuario ADMIN por usuario
+ * virtual. Con {@code --jdbc-url} usa una base local en lugar de la embebida y con
+ * {@code --target} ataca una instancia ya levantada.
+ * <p>
+ * El resultado se imprime en consola y se guarda en {@code --report}
+ * ({@code summary.json} más un {@code .hgrm} por operación con la distribución de
+ * latencias). Si algún {@code --slo} no se cumple el proceso termina con código 1.
+ */
+public final class LoadTest {
+    
+    private static final String PASSWORD = "loadtest-password";
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(5);
+    
+    private LoadTest() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Files.createDirectories(options.report);
+        
+        EmbeddedPostgres postgres = null;
+        ConfigurableApplicationContext app = null;
+        int exitCode;
+        try {
+            String baseUrl;
+            List<String[]> credentials = new ArrayList<>();
+            if (options.target != null) {
+                baseUrl = options.target;
+                String[] login = options.login.split(":", 2);
+                for (int i = 0; i < options.users; i++) {
+                    credentials.add(login);
+                }
+            } else {
+                String jdbcUrl = options.jdbcUrl;
+                if (jdbcUrl == null) {
+                    postgres = EmbeddedPostgres.builder().start();
+                    jdbcUrl = postgres.getJdbcUrl(options.dbUser, "postgres");
+                    System.out.println("Embedded PostgreSQL started at " + jdbcUrl);
+                }
+                prepararEsquema(jdbcUrl, options);
+                app = arrancarApi(jdbcUrl, options);
+                baseUrl = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+                credentials = crearUsuarios(app, options.users);
+            }
+            
+            LatencyStats stats = new LatencyStats();
+            correr(baseUrl, credentials, options, stats);
+            exitCode = reportar(stats.results(), options) ? 0 : 1;
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+    
+    private static void prepararEsquema(String jdbcUrl, LoadTestOptions options) {
+        if (!Files.exists(options.activityMigration)) {
+            System.out.println("WARN: " + options.activityMigration + " not found, activity events will not be persisted");
+            return;
+        }
+        // Tabla particionada sin entidad JPA: Hibernate no la crea
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new FileSystemResource(options.activityMigration));
+        populator.execute(new DriverManagerDataSource(jdbcUrl, options.dbUser, options.dbPassword));
+    }
+    
+    private static ConfigurableApplicationContext arrancarApi(String jdbcUrl, LoadTestOptions options) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", jdbcUrl);
+        properties.put("spring.datasource.username", options.dbUser);
+        properties.put("spring.datasource.password", options.dbPassword);
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("server.port", "0");
+        properties.put("app.offers.write-behind.journal-path", options.report.resolve("ofertas-journal.log").toString());
+        // Todos los usuarios virtuales salen de la misma IP y sin pausa: con el rate limiting
+        // se mediría el límite y no la capacidad
+        properties.put("app.rate-limit.enabled", "false");
+        // El DEBUG de application.yml escribe varias líneas por request y tapa el progreso
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.kavak.sc", "WARN");
+        properties.put("logging.level.org.springframework.security", "WARN");
+        // Lo pasado por línea de comandos pisa los defaults del harness
+        for (String arg : options.appArgs) {
+            int eq = arg.indexOf('=');
+            properties.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        
+        List<String> args = new ArrayList<>();
+        properties.forEach((key, value) -> args.add("--" + key + "=" + value));
+        System.out.println("Starting oferta-api...");
+        return SpringApplication.run(OfertaApiApplication.class, args.toArray(new String[0]));
+    }
+    
+    private static List<String[]> crearUsuarios(ConfigurableApplicationContext app, int users) {
+        // ADMIN porque GET /api/settings lo exige
+        UserService userService = app.getBean(UserService.class);
+        List<String[]> credentials = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            String username = String.format(Locale.ROOT, "loadtest-%04d", i);
+            try {
+                userService.createUser(username, PASSWORD, User.Role.ADMIN);
+            } catch (RuntimeException e) {
+                // Ya existe de una corrida anterior contra la misma base
+            }
+            credentials.add(new String[]{username, PASSWORD});
+        }
+        return credentials;
+    }
+    
+    private static void correr(String baseUrl, List<String[]> credentials, LoadTestOptions options,
+                               LatencyStats stats) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.timeout)
+                .build();
+        ObjectMapper objectMapper = new ObjectMapper();
+        AtomicBoolean running = new AtomicBoolean(true);
+        
+        System.out.printf(Locale.ROOT, "Target %s: %d users, ramp %ds, warmup %ds, measure %ds, mix %s%n",
+                baseUrl, options.users, options.ramp.toSeconds(), options.warmup.toSeconds(),
+                options.duration.toSeconds(), options.mix);
+        
+        List<Thread> threads = new ArrayList<>(options.users);
+        for (int i = 0; i < options.users; i++) {
+            // Rampa lineal: el usuario i arranca en ramp * i / users
+            Duration delay = options.ramp.multipliedBy(i).dividedBy(options.users);
+            String[] login = credentials.get(i);
+            VirtualUser user = new VirtualUser(i, client, objectMapper, baseUrl, login[0], login[1],
+                    options, delay, stats, running);
+            Thread thread = new Thread(user, "vu-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        
+        long start = System.nanoTime();
+        long measureAt = start + options.warmup.toNanos();
+        long endAt = measureAt + options.duration.toNanos();
+        boolean measuring = false;
+        long lastCompleted = 0;
+        long lastFailed = 0;
+        long lastPrint = start;
+        long now;
+        while ((now = System.nanoTime()) < endAt) {
+            long wakeUp = Math.min(now + PROGRESS_INTERVAL.toNanos(), measuring ? endAt : measureAt);
+            Thread.sleep(Math.max(1, (wakeUp - now) / 1_000_000));
+            if (!measuring && System.nanoTime() >= measureAt) {
+                stats.startMeasuring();
+                measuring = true;
+                System.out.println("Warmup done, measuring...");
+            }
+            long completed = stats.completed();
+            long failed = stats.failed();
+            long printedAt = System.nanoTime();
+            System.out.printf(Locale.ROOT, "  t=%4ds  %8.1f req/s  errors %d%n",
+                    (printedAt - start) / 1_000_000_000,
+                    (completed - lastCompleted) / ((printedAt - lastPrint) / 1e9), failed - lastFailed);
+            lastCompleted = completed;
+            lastFailed = failed;
+            lastPrint = printedAt;
+        }
+        stats.stopMeasuring();
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join(options.timeout.toMillis() + 1000);
+        }
+    }
+    
+    /**
+     * @return {@code false} si algún SLO no se cumple
+     */
+    private static boolean reportar(Map<Operation, LatencyStats.Result> results, LoadTestOptions options)
+            throws Exception {
+        PrintStream out = System.out;
+        out.println();
+        out.printf(Locale.ROOT, "%-10s %9s %9s %7s %10s %10s %10s %10s %10s %10s%n",
+                "Operation", "Requests", "Errors", "Err%", "Req/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<Operation, LatencyStats.Result> entry : results.entrySet()) {
+            LatencyStats.Result r = entry.getValue();
+            out.printf(Locale.ROOT, "%-10s %9d %9d %6.2f%% %10.1f %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                    entry.getKey() != null ? entry.getKey().key() : "total",
+                    r.requests(), r.errors(), r.errorRate(), r.throughput(),
+                    r.percentile(50) / 1000, r.percentile(90) / 1000, r.percentile(99) / 1000,
+                    r.percentile(99.9) / 1000, r.percentile(100) / 1000);
+        }
+        for (Map.Entry<Operation, LatencyStats.Result> entry : results.entrySet()) {
+            Map<Integer, Long> statuses = entry.getValue().statuses();
+            if (statuses.keySet().stream().anyMatch(status -> status < 200 || status >= 300)) {
+                out.printf("%-10s status codes %s (-1 = no response)%n",
+                        entry.getKey() != null ? entry.getKey().key() : "total", statuses);
+            }
+        }
+        
+        boolean ok = true;
+        List<Map<String, Object>> sloResults = new ArrayList<>();
+        if (!options.slos.isEmpty()) {
+            out.println();
+        }
+        for (Slo slo : options.slos) {
+            LatencyStats.Result result = results.get(slo.operation());
+            double observed = result != null ? result.metric(slo.metric()) : Double.NaN;
+            boolean met = result != null && slo.isMet(observed);
+            ok &= met;
+            String shown = switch (slo.metric()) {
+                case "errors" -> String.format(Locale.ROOT, "%.2f%%", observed);
+                case "rps" -> String.format(Locale.ROOT, "%.1f req/s", observed);
+                default -> String.format(Locale.ROOT, "%.2f ms", observed / 1000);
+            };
+            out.printf("SLO %-28s observed %-14s %s%n", slo.describe(), shown, met ? "PASS" : "FAIL");
+            
+            Map<String, Object> sloResult = new LinkedHashMap<>();
+            sloResult.put("slo", slo.describe());
+            sloResult.put("observed", observed);
+            sloResult.put("met", met);
+            sloResults.add(sloResult);
+        }
+        
+        escribirReporte(results, sloResults, ok, options);
+        out.println();
+        out.println((ok ? "PASS" : "FAIL") + " - report written to " + options.report.toAbsolutePath());
+        return ok;
+    }
+    
+    private static void escribirReporte(Map<Operation, LatencyStats.Result> results, List<Map<String, Object>> slos,
+                                        boolean ok, LoadTestOptions options) throws Exception {
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (Map.Entry<Operation, LatencyStats.Result> entry : results.entrySet()) {
+            String name = entry.getKey() != null ? entry.getKey().key() : "total";
+            LatencyStats.Result r = entry.getValue();
+            
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", r.requests());
+            summary.put("errors", r.errors());
+            summary.put("errorRatePercent", r.errorRate());
+            summary.put("throughputPerSecond", r.throughput());
+            summary.put("p50Micros", r.percentile(50));
+            summary.put("p90Micros", r.percentile(90));
+            summary.put("p99Micros", r.percentile(99));
+            summary.put("p999Micros", r.percentile(99.9));
+            summary.put("maxMicros", r.percentile(100));
+            summary.put("statuses", r.statuses());
+            operations.put(name, summary);
+            
+            // Distribución completa en el formato estándar de HdrHistogram (valores en ms)
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(options.report.resolve(name + ".hgrm")))) {
+                r.latencies().outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+        
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("users", options.users);
+        config.put("rampSeconds", options.ramp.toSeconds());
+        config.put("warmupSeconds", options.warmup.toSeconds());
+        config.put("durationSeconds", options.duration.toSeconds());
+        config.put("thinkMillis", options.think.toMillis());
+        config.put("mix", options.mix);
+        config.put("target", options.target != null ? options.target : options.jdbcUrl != null ? "local" : "embedded");
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.put("operations", operations);
+        report.put("slos", slos);
+        report.put("passed", ok);
+        
+        Path summary = options.report.resolve("summary.json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(summary.toFile(), report);
+    }
+}
@@ -0,0 +1,108 @@
+package com.kavak.sc.oferta.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opciones de la corrida. Todas tienen la forma {@code --nombre=valor}; las que no
+ * reconoce el harness (por ejemplo {@code --spring.datasource.hikari.maximum-pool-size=10}
+ * o {@code --app.offers.write-behind.enabled=false}) se pasan tal cual a la aplicación.
+ */
+final class LoadTestOptions {
+    
+    int users = 20;
+    Duration ramp = Duration.ofSeconds(10);
+    Duration warmup = Duration.ofSeconds(15);
+    Duration duration = Duration.ofSeconds(60);
+    Duration think = Duration.ZERO;
+    Duration timeout = Duration.ofSeconds(10);
+    Map<Operation, Integer> mix = parseMix("login:1,offer:8,settings:1");
+    List<Slo> slos = new ArrayList<>();
+    Path report = Path.of("target", "loadtest");
+    
+    /** URL de una instancia ya levantada; si es null se levanta la app en este proceso */
+    String target;
+    /** Credenciales a usar contra {@link #target} (usuario:password) */
+    String login;
+    
+    /** Base externa (PostgreSQL local); si es null se usa el PostgreSQL embebido */
+    String jdbcUrl;
+    String dbUser = "postgres";
+    String dbPassword = "postgres";
+    Path activityMigration = Path.of("..", "..", "database", "migration_employee_activity.sql");
+    
+    String country = "AR";
+    String sku = "TOY-COR-22-001";
+    
+    final List<String> appArgs = new ArrayList<>();
+    
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Invalid argument '" + arg + "', expected --name=value");
+            }
+            String name = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (name) {
+                case "users" -> options.users = Integer.parseInt(value);
+                case "ramp" -> options.ramp = DurationStyle.detectAndParse(value);
+                case "warmup" -> options.warmup = DurationStyle.detectAndParse(value);
+                case "duration" -> options.duration = DurationStyle.detectAndParse(value);
+                case "think" -> options.think = DurationStyle.detectAndParse(value);
+                case "timeout" -> options.timeout = DurationStyle.detectAndParse(value);
+                case "mix" -> options.mix = parseMix(value);
+                case "slo" -> options.slos = Slo.parseAll(value);
+                case "report" -> options.report = Path.of(value);
+                case "target" -> options.target = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "login" -> options.login = value;
+                case "jdbc-url" -> options.jdbcUrl = value;
+                case "db-user" -> options.dbUser = value;
+                case "db-password" -> options.dbPassword = value;
+                case "activity-migration" -> options.activityMigration = Path.of(value);
+                case "country" -> options.country = value;
+                case "sku" -> options.sku = value;
+                default -> options.appArgs.add(arg);
+            }
+        }
+        if (options.users < 1) {
+            throw new IllegalArgumentException("--users must be at least 1");
+        }
+        if (options.ramp.compareTo(options.warmup) > 0) {
+            throw new IllegalArgumentException("--ramp cannot be longer than --warmup: the ramp is not measured");
+        }
+        if (options.target != null && options.login == null) {
+            throw new IllegalArgumentException("--target requires --login=username:password");
+        }
+        return options;
+    }
+    
+    /**
+     * Pesos relativos por operación, por ejemplo {@code login:1,offer:8,settings:1}.
+     */
+    static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String item : spec.split(",")) {
+            String[] parts = item.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry '" + item + "', expected operation:weight");
+            }
+            int weight = Integer.parseInt(parts[1]);
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in mix entry '" + item + "'");
+            }
+            mix.put(Operation.fromKey(parts[0]), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("The mix needs at least one operation with weight > 0");
+        }
+        return mix;
+    }
+}
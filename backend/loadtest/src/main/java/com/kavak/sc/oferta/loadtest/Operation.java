@@ -0,0 +1,35 @@
+package com.kavak.sc.oferta.loadtest;
+
+/**
+ * Pasos del flujo real de un vendedor, en el orden en que el frontend los llama.
+ */
+enum Operation {
+    
+    /** {@code POST /api/auth/login}: incluye el costo de BCrypt */
+    LOGIN("login"),
+    
+    /** {@code POST /api/financing-offers} */
+    OFFER("offer"),
+    
+    /** {@code GET /api/settings} */
+    SETTINGS("settings");
+    
+    private final String key;
+    
+    Operation(String key) {
+        this.key = key;
+    }
+    
+    String key() {
+        return key;
+    }
+    
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + key + " (expected login, offer or settings)");
+    }
+}
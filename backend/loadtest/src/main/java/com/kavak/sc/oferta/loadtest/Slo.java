@@ -0,0 +1,73 @@
+package com.kavak.sc.oferta.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Objetivo de nivel de servicio que hace fallar la corrida si no se cumple.
+ * <p>
+ * Formato: {@code [operacion.]metrica:umbral}, por ejemplo {@code p99:500ms},
+ * {@code offer.p999:2s}, {@code errors:1%} o {@code rps:100}. Sin operación, el
+ * objetivo aplica al total de requests.
+ *
+ * @param operation operación a la que aplica, o {@code null} para el total
+ * @param metric    p50, p90, p99, p999, max (latencia máxima), errors (% máximo) o rps (mínimo)
+ * @param threshold microsegundos para latencias, porcentaje para errors, requests/s para rps
+ */
+record Slo(Operation operation, String metric, double threshold) {
+    
+    static List<Slo> parseAll(String spec) {
+        List<Slo> slos = new ArrayList<>();
+        if (spec == null || spec.isBlank()) {
+            return slos;
+        }
+        for (String item : spec.split(",")) {
+            slos.add(parse(item.trim()));
+        }
+        return slos;
+    }
+    
+    static Slo parse(String item) {
+        int colon = item.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Invalid SLO '" + item + "', expected metric:threshold");
+        }
+        String target = item.substring(0, colon).toLowerCase(Locale.ROOT);
+        String value = item.substring(colon + 1);
+        
+        Operation operation = null;
+        int dot = target.indexOf('.');
+        if (dot >= 0) {
+            operation = Operation.fromKey(target.substring(0, dot));
+            target = target.substring(dot + 1);
+        }
+        
+        return switch (target) {
+            case "p50", "p90", "p99", "p999", "max" ->
+                    new Slo(operation, target, DurationStyle.detectAndParse(value).toNanos() / 1000.0);
+            case "errors" -> new Slo(operation, target, Double.parseDouble(value.replace("%", "")));
+            case "rps" -> new Slo(operation, target, Double.parseDouble(value));
+            default -> throw new IllegalArgumentException("Unknown SLO metric '" + target + "' in '" + item + "'");
+        };
+    }
+    
+    /**
+     * @param observed valor medido en las mismas unidades que {@link #threshold()}
+     */
+    boolean isMet(double observed) {
+        return "rps".equals(metric) ? observed >= threshold : observed <= threshold;
+    }
+    
+    String describe() {
+        String scope = operation != null ? operation.key() + "." : "";
+        String limit = switch (metric) {
+            case "errors" -> "<= " + threshold + "%";
+            case "rps" -> ">= " + threshold + " req/s";
+            default -> "<= " + String.format(Locale.ROOT, "%.1f ms", threshold / 1000);
+        };
+        return scope + metric + " " + limit;
+    }
+}
@@ -0,0 +1,160 @@
+package com.kavak.sc.oferta.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kavak.sc.oferta.dto.FinancingOfferRequest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Usuario virtual de modelo cerrado: hace login, y mientras dure la corrida elige la
+ * próxima operación según los pesos del mix, la ejecuta, registra la latencia y
+ * espera el think time.
+ */
+final class VirtualUser implements Runnable {
+    
+    private final int id;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final String username;
+    private final String password;
+    private final LoadTestOptions options;
+    private final Operation[] schedule;
+    private final Duration startDelay;
+    private final LatencyStats stats;
+    private final AtomicBoolean running;
+    
+    private String token;
+    private long sequence;
+    
+    VirtualUser(int id, HttpClient client, ObjectMapper objectMapper, String baseUrl, String username,
+                String password, LoadTestOptions options, Duration startDelay, LatencyStats stats,
+                AtomicBoolean running) {
+        this.id = id;
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.username = username;
+        this.password = password;
+        this.options = options;
+        this.schedule = schedule(options.mix);
+        this.startDelay = startDelay;
+        this.stats = stats;
+        this.running = running;
+    }
+    
+    @Override
+    public void run() {
+        try {
+            Thread.sleep(startDelay.toMillis());
+            while (running.get()) {
+                // Sin token válido no tiene sentido seguir con el mix
+                Operation operation = token == null ? Operation.LOGIN : next();
+                execute(operation);
+                if (!options.think.isZero()) {
+                    Thread.sleep(options.think.toMillis());
+                } else if (token == null) {
+                    Thread.sleep(100);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private Operation next() {
+        return schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+    }
+    
+    private void execute(Operation operation) throws InterruptedException {
+        HttpRequest request;
+        try {
+            request = switch (operation) {
+                case LOGIN -> post("/api/auth/login", Map.of("username", username, "password", password), false);
+                case OFFER -> post("/api/financing-offers", offerRequest(), true);
+                case SETTINGS -> authorized(HttpRequest.newBuilder(URI.create(baseUrl + "/api/settings")).GET());
+            };
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot serialize " + operation + " request", e);
+        }
+        
+        long start = System.nanoTime();
+        int status;
+        String body = null;
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+            body = response.body();
+        } catch (IOException e) {
+            status = LatencyStats.NO_RESPONSE;
+        }
+        stats.record(operation, System.nanoTime() - start, status);
+        
+        if (operation == Operation.LOGIN && status == 200) {
+            token = readToken(body);
+        } else if (status == 401) {
+            token = null;
+        }
+    }
+    
+    private HttpRequest post(String path, Object payload, boolean authorized) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(payload)));
+        return authorized ? authorized(builder) : builder.timeout(options.timeout).build();
+    }
+    
+    private HttpRequest authorized(HttpRequest.Builder builder) {
+        return builder.header("Authorization", "Bearer " + token)
+                .timeout(options.timeout)
+                .build();
+    }
+    
+    private FinancingOfferRequest offerRequest() {
+        // DNI y deal distintos en cada request: nada de la carga se resuelve por caché
+        long n = ++sequence;
+        FinancingOfferRequest request = new FinancingOfferRequest();
+        request.setCliente(new FinancingOfferRequest.Cliente(
+                "Carga", "Virtual " + id, String.valueOf(20_000_000 + id * 100_000L + n % 100_000),
+                BigDecimal.valueOf(12_000_000 + (n % 50) * 100_000)));
+        request.setVehiculo(new FinancingOfferRequest.Vehiculo("Toyota", "Corolla", "2.0 XEI", 2022, options.sku));
+        request.setPorcentajeFinanciar(10 + (int) (n % 41));
+        request.setDealId("loadtest-" + id + "-" + n);
+        request.setCountry(options.country);
+        return request;
+    }
+    
+    private String readToken(String body) {
+        try {
+            JsonNode node = objectMapper.readTree(body);
+            return node.path("token").asText(null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Expande los pesos en un arreglo para elegir la operación con un solo random.
+     */
+    private static Operation[] schedule(Map<Operation, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        Operation[] schedule = new Operation[total];
+        int i = 0;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            for (int w = 0; w < entry.getValue(); w++) {
+                schedule[i++] = entry.getKey();
+            }
+        }
+        return schedule;
+    }
+}
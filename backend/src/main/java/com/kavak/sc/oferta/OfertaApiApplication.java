@@ -2,8 +2,10 @@ package com.kavak.sc.oferta;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class OfertaApiApplication {
 
     public static void main(String[] args) {
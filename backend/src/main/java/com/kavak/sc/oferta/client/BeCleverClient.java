@@ -0,0 +1,442 @@
+package com.kavak.sc.oferta.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kavak.sc.oferta.dto.SimulacionResponse;
+import com.kavak.sc.oferta.service.RateTable;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cliente HTTP no bloqueante de la API de cotizaciones de BeClever.
+ * <p>
+ * Ninguna llamada bloquea un thread: los intentos van por el {@link HttpClient} del JDK
+ * (conexiones keep-alive reutilizadas; HTTP/2 multiplexado si la URL es https) y las
+ * esperas de backoff, hedge y deadline corren en un único timer. Cada llamada tiene:
+ * <ul>
+ *   <li>un deadline total que incluye reintentos, y un timeout por intento;</li>
+ *   <li>reintentos ante timeouts, errores de conexión, 5xx y 429, con backoff exponencial
+ *       y jitter completo, siempre que entren en el deadline;</li>
+ *   <li>un hedge opcional: si el intento no respondió en {@code hedge-after} se manda un
+ *       segundo igual y gana el primero que responde (las cotizaciones son idempotentes);</li>
+ *   <li>un circuit breaker compartido que, abierto, rechaza sin tocar la red;</li>
+ *   <li>un tope de llamadas en curso: al superarlo se rechaza de inmediato en lugar de
+ *       encolar.</li>
+ * </ul>
+ * Los rechazos y fallas se informan como {@link BeCleverException}; el fallback a la última
+ * tabla de tasas buena lo hace {@code BeCleverService}. Con deadline, tope y circuito, un
+ * proveedor lento no puede retener más threads de Tomcat que {@code max-in-flight}, y a
+ * cada uno por no más que el deadline.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BeCleverClient {
+    
+    static final String QUOTE_PATH = "/v1/quotes";
+    static final String RATE_TABLE_PATH = "/v1/rate-table";
+    
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.beclever.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.beclever.base-url:http://localhost:8091}")
+    private String baseUrl;
+    
+    @Value("${app.beclever.connect-timeout:500ms}")
+    private Duration connectTimeout;
+    
+    @Value("${app.beclever.deadline:800ms}")
+    private Duration deadline;
+    
+    @Value("${app.beclever.attempt-timeout:300ms}")
+    private Duration attemptTimeout;
+    
+    @Value("${app.beclever.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${app.beclever.retry-backoff:50ms}")
+    private Duration retryBackoff;
+    
+    // 0 deshabilita el hedge
+    @Value("${app.beclever.hedge-after:0ms}")
+    private Duration hedgeAfter;
+    
+    @Value("${app.beclever.max-in-flight:32}")
+    private int maxInFlight;
+    
+    @Value("${app.beclever.io-threads:4}")
+    private int ioThreads;
+    
+    @Value("${app.beclever.circuit.window-size:20}")
+    private int circuitWindowSize;
+    
+    @Value("${app.beclever.circuit.min-calls:10}")
+    private int circuitMinCalls;
+    
+    @Value("${app.beclever.circuit.failure-rate:50}")
+    private int circuitFailureRate;
+    
+    @Value("${app.beclever.circuit.open-duration:5s}")
+    private Duration circuitOpenDuration;
+    
+    @Value("${app.beclever.circuit.half-open-probes:3}")
+    private int circuitHalfOpenProbes;
+    
+    private HttpClient httpClient;
+    private ThreadPoolTaskExecutor ioExecutor;
+    private ScheduledThreadPoolExecutor timer;
+    private CircuitBreaker circuitBreaker;
+    private Semaphore inFlight;
+    private URI quoteUri;
+    private URI rateTableUri;
+    private Meter.MeterProvider<Timer> attemptTimer;
+    
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        quoteUri = URI.create(baseUrl + QUOTE_PATH);
+        rateTableUri = URI.create(baseUrl + RATE_TABLE_PATH);
+        
+        // Sólo completa futures y parsea respuestas: nunca bloquea, por eso alcanza con pocos threads
+        ioExecutor = new ThreadPoolTaskExecutor();
+        ioExecutor.setCorePoolSize(ioThreads);
+        ioExecutor.setMaxPoolSize(ioThreads);
+        ioExecutor.setThreadNamePrefix("beclever-io-");
+        ioExecutor.setDaemon(true);
+        ioExecutor.initialize();
+        
+        timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "beclever-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Los deadlines se cancelan casi siempre: que no se acumulen en la cola del timer
+        timer.setRemoveOnCancelPolicy(true);
+        
+        httpClient = HttpClient.newBuilder()
+                .version(quoteUri.getScheme().equals("https") ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .executor(ioExecutor)
+                .build();
+        circuitBreaker = new CircuitBreaker(circuitWindowSize, circuitMinCalls, circuitFailureRate,
+                circuitOpenDuration, circuitHalfOpenProbes);
+        inFlight = new Semaphore(maxInFlight);
+        
+        attemptTimer = Timer.builder("beclever.requests").withRegistry(meterRegistry);
+        Gauge.builder("beclever.circuit.state", circuitBreaker, b -> b.getState().ordinal())
+                .description("0 = closed, 1 = half-open, 2 = open")
+                .register(meterRegistry);
+        Gauge.builder("beclever.in_flight", inFlight, s -> maxInFlight - s.availablePermits())
+                .register(meterRegistry);
+        log.info("BeClever client enabled: {} (deadline={}, attempts={}, hedge-after={}, max-in-flight={})",
+                baseUrl, deadline, maxAttempts, hedgeAfter, maxInFlight);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+            ioExecutor.shutdown();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Simulación para los 13 plazos cotizada por BeClever.
+     */
+    public CompletableFuture<SimulacionResponse> cotizar(String sku, String country, BigDecimal montoTotal,
+                                                         int porcentajeFinanciar) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(new QuoteRequest(sku, country, montoTotal, porcentajeFinanciar));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        HttpRequest request = HttpRequest.newBuilder(quoteUri)
+                .timeout(attemptTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return call("quote", request, SimulacionResponse.class);
+    }
+    
+    /**
+     * Tabla de tasas vigente en BeClever. Una tabla inválida falla igual que un error HTTP.
+     */
+    public CompletableFuture<RateTable> fetchRateTable() {
+        HttpRequest request = HttpRequest.newBuilder(rateTableUri)
+                .timeout(attemptTimeout)
+                .GET()
+                .build();
+        return call("rate_table", request, RateTablePayload.class)
+                .thenApply(payload -> new RateTable(payload.version(), payload.tnaBps()));
+    }
+    
+    private <T> CompletableFuture<T> call(String operation, HttpRequest request, Class<T> type) {
+        if (!enabled) {
+            throw new IllegalStateException("BeClever client is disabled");
+        }
+        if (circuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+            return CompletableFuture.failedFuture(
+                    new BeCleverException(BeCleverException.Reason.CIRCUIT_OPEN, "BeClever circuit is open"));
+        }
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(new BeCleverException(BeCleverException.Reason.BULKHEAD_FULL,
+                    "Too many BeClever calls in flight (" + maxInFlight + ")"));
+        }
+        Call<T> call = new Call<>(operation, request, type);
+        call.start();
+        return call.result;
+    }
+    
+    /**
+     * Backoff exponencial con jitter completo: uniforme entre 0 y base * 2^(intento - 1).
+     */
+    private long backoffNanos(int attempt) {
+        long cap = retryBackoff.toNanos() << Math.min(attempt - 1, 16);
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+    
+    /**
+     * Una llamada lógica: rondas de reintento, cada una con su intento y un hedge opcional.
+     */
+    private final class Call<T> {
+        
+        private final String operation;
+        private final HttpRequest request;
+        private final Class<T> type;
+        private final long deadlineAt;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        // Intentos HTTP sin terminar, para cancelarlos en cuanto hay resultado
+        private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+        
+        Call(String operation, HttpRequest request, Class<T> type) {
+            this.operation = operation;
+            this.request = request;
+            this.type = type;
+            this.deadlineAt = System.nanoTime() + deadline.toNanos();
+        }
+        
+        void start() {
+            ScheduledFuture<?> deadlineTask = timer.schedule(() -> result.completeExceptionally(
+                    new BeCleverException(BeCleverException.Reason.DEADLINE,
+                            "BeClever " + operation + " exceeded its " + deadline.toMillis() + "ms deadline")),
+                    deadline.toNanos(), TimeUnit.NANOSECONDS);
+            result.whenComplete((value, error) -> {
+                deadlineTask.cancel(false);
+                pending.forEach(attempt -> attempt.cancel(true));
+                inFlight.release();
+            });
+            round(1);
+        }
+        
+        private void round(int attempt) {
+            Round round = new Round(attempt);
+            round.begin();
+            if (!send(round, attempt == 1 ? "primary" : "retry")) {
+                result.completeExceptionally(
+                        new BeCleverException(BeCleverException.Reason.CIRCUIT_OPEN, "BeClever circuit is open"));
+                return;
+            }
+            if (!hedgeAfter.isZero() && circuitBreaker.getState() == CircuitBreaker.State.CLOSED) {
+                timer.schedule(() -> hedge(round), hedgeAfter.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        
+        private void hedge(Round round) {
+            if (result.isDone() || !round.begin()) {
+                return;
+            }
+            if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED || !send(round, "hedge")) {
+                if (round.end(null)) {
+                    retry(round);
+                }
+            }
+        }
+        
+        /**
+         * @return {@code false} si el circuito no dio permiso y el intento no se mandó
+         */
+        private boolean send(Round round, String kind) {
+            if (!circuitBreaker.tryAcquire()) {
+                return false;
+            }
+            long start = System.nanoTime();
+            CompletableFuture<HttpResponse<byte[]>> attempt =
+                    httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+            pending.add(attempt);
+            attempt.whenComplete((response, error) -> {
+                pending.remove(attempt);
+                onAttempt(round, kind, start, response, error != null ? unwrap(error) : null);
+            });
+            return true;
+        }
+        
+        private void onAttempt(Round round, String kind, long start, HttpResponse<byte[]> response, Throwable error) {
+            if (error instanceof CancellationException) {
+                // Perdedor de un hedge: no dice nada del proveedor. Cortado por el deadline: sí
+                if (result.isCompletedExceptionally()) {
+                    circuitBreaker.onFailure();
+                } else {
+                    circuitBreaker.onIgnored();
+                }
+                record(kind, "cancelled", start);
+                return;
+            }
+            
+            BeCleverException failure = null;
+            T value = null;
+            boolean providerHealthy;
+            if (error != null) {
+                failure = new BeCleverException(BeCleverException.Reason.IO,
+                        "BeClever " + operation + " failed: " + error, error);
+                providerHealthy = false;
+            } else if (response.statusCode() == 429 || response.statusCode() >= 500) {
+                failure = new BeCleverException(BeCleverException.Reason.UNAVAILABLE,
+                        "BeClever " + operation + " returned " + response.statusCode());
+                providerHealthy = false;
+            } else if (response.statusCode() >= 300) {
+                // Un 4xx es un error nuestro: el proveedor está respondiendo bien
+                failure = new BeCleverException(BeCleverException.Reason.BAD_RESPONSE,
+                        "BeClever " + operation + " returned " + response.statusCode());
+                providerHealthy = true;
+            } else {
+                try {
+                    value = objectMapper.readValue(response.body(), type);
+                    providerHealthy = true;
+                } catch (IOException e) {
+                    failure = new BeCleverException(BeCleverException.Reason.BAD_RESPONSE,
+                            "Unreadable BeClever " + operation + " response", e);
+                    providerHealthy = false;
+                }
+            }
+            
+            if (providerHealthy) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onFailure();
+            }
+            record(kind, failure == null ? "success" : failure.getReason().name().toLowerCase(), start);
+            
+            if (failure == null) {
+                result.complete(value);
+            } else if (!failure.isRetryable()) {
+                result.completeExceptionally(failure);
+            } else if (round.end(failure)) {
+                retry(round);
+            }
+        }
+        
+        private void retry(Round round) {
+            if (result.isDone()) {
+                return;
+            }
+            if (round.attempt >= maxAttempts) {
+                result.completeExceptionally(round.lastError);
+                return;
+            }
+            long backoff = backoffNanos(round.attempt);
+            if (System.nanoTime() + backoff >= deadlineAt) {
+                // El próximo intento no llegaría a responder antes del deadline
+                result.completeExceptionally(round.lastError);
+                return;
+            }
+            timer.schedule(() -> {
+                if (!result.isDone()) {
+                    round(round.attempt + 1);
+                }
+            }, backoff, TimeUnit.NANOSECONDS);
+        }
+        
+        private void record(String kind, String outcome, long start) {
+            attemptTimer.withTags("operation", operation, "kind", kind, "outcome", outcome)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * Intentos en curso de una ronda. La ronda falla (y se reintenta) cuando termina el
+     * último sin que ninguno haya dado resultado.
+     */
+    private static final class Round {
+        
+        private final int attempt;
+        private int running;
+        private boolean finished;
+        private Throwable lastError;
+        
+        Round(int attempt) {
+            this.attempt = attempt;
+        }
+        
+        synchronized boolean begin() {
+            if (finished) {
+                return false;
+            }
+            running++;
+            return true;
+        }
+        
+        /**
+         * @param error falla del intento, o {@code null} si no llegó a mandarse
+         * @return {@code true} si era el último intento en curso de la ronda
+         */
+        synchronized boolean end(Throwable error) {
+            if (error != null || lastError == null) {
+                lastError = error != null ? error
+                        : new BeCleverException(BeCleverException.Reason.CIRCUIT_OPEN, "BeClever circuit is open");
+            }
+            if (--running == 0 && !finished) {
+                finished = true;
+                return true;
+            }
+            return false;
+        }
+    }
+    
+    public record QuoteRequest(String sku, String country, BigDecimal montoTotal, int porcentajeFinanciar) {
+    }
+    
+    public record RateTablePayload(String version, Map<String, int[]> tnaBps) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.kavak.sc.oferta.client;
+
+import lombok.Getter;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Falla de una llamada a BeClever. No llega al controller: {@code BeCleverService}
+ * la convierte en una cotización con la última tabla de tasas buena.
+ */
+@Getter
+public class BeCleverException extends RuntimeException {
+    
+    public enum Reason {
+        // Circuito abierto: no se intentó la llamada
+        CIRCUIT_OPEN(false),
+        // Demasiadas llamadas en curso: no se intentó la llamada
+        BULKHEAD_FULL(false),
+        // Se agotó el deadline de la llamada (incluye reintentos)
+        DEADLINE(false),
+        // Timeout de un intento o error de conexión
+        IO(true),
+        // 5xx o 429
+        UNAVAILABLE(true),
+        // 4xx o respuesta que no se puede leer: reintentar no cambia nada
+        BAD_RESPONSE(false);
+        
+        private final boolean retryable;
+        
+        Reason(boolean retryable) {
+            this.retryable = retryable;
+        }
+    }
+    
+    private final Reason reason;
+    
+    public BeCleverException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+    
+    public BeCleverException(Reason reason, String message, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+    }
+    
+    public boolean isRetryable() {
+        return reason.retryable;
+    }
+    
+    /**
+     * Motivo de la falla para métricas, también si llegó envuelta en una
+     * {@link CompletionException}.
+     */
+    public static Reason reasonOf(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof BeCleverException beClever) {
+                return beClever.reason;
+            }
+            if (t instanceof TimeoutException) {
+                return Reason.DEADLINE;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return Reason.IO;
+    }
+}
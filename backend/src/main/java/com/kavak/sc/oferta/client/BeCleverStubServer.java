@@ -0,0 +1,229 @@
+package com.kavak.sc.oferta.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kavak.sc.oferta.service.BeCleverService;
+import com.kavak.sc.oferta.service.RateTable;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Servidor local que imita la API de BeClever, para desarrollar y probar sin red.
+ * <p>
+ * Cotiza con la tabla mock y la misma función que el fallback, y permite inyectar
+ * latencia y fallas: una latencia base con jitter, una fracción de respuestas lentas
+ * (la cola larga), una fracción de 503 y una de conexiones cortadas sin respuesta. Las
+ * fallas se configuran con {@code app.beclever.stub.*} o en caliente:
+ * <pre>
+ * curl -X POST 'localhost:8091/faults?latency=50ms&amp;slow-rate=0.05&amp;slow-latency=2s&amp;error-rate=0.2'
+ * curl localhost:8091/faults
+ * </pre>
+ * Escucha sólo en loopback y no pasa por Spring Security.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.beclever.stub.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class BeCleverStubServer {
+    
+    private final BeCleverService beCleverService;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${app.beclever.stub.port:8091}")
+    private int port;
+    
+    @Value("${app.simulation.quote-zone:America/Argentina/Buenos_Aires}")
+    private ZoneId quoteZone;
+    
+    @Value("${app.beclever.stub.latency:20ms}")
+    private Duration latency;
+    
+    @Value("${app.beclever.stub.latency-jitter:20ms}")
+    private Duration latencyJitter;
+    
+    @Value("${app.beclever.stub.slow-rate:0}")
+    private double slowRate;
+    
+    @Value("${app.beclever.stub.slow-latency:2s}")
+    private Duration slowLatency;
+    
+    @Value("${app.beclever.stub.error-rate:0}")
+    private double errorRate;
+    
+    @Value("${app.beclever.stub.reset-rate:0}")
+    private double resetRate;
+    
+    private final RateTable rateTable = RateTable.mock();
+    private volatile Faults faults;
+    private HttpServer server;
+    private ExecutorService executor;
+    
+    @PostConstruct
+    void start() throws IOException {
+        faults = new Faults(latency, latencyJitter, slowRate, slowLatency, errorRate, resetRate);
+        // Las latencias se simulan con sleep: un thread por request en curso, como un proveedor real lento
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "beclever-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext(BeCleverClient.QUOTE_PATH, exchange -> handle(exchange, this::quote));
+        server.createContext(BeCleverClient.RATE_TABLE_PATH, exchange -> handle(exchange, this::rateTable));
+        server.createContext("/faults", this::faults);
+        server.start();
+        log.info("BeClever stub listening on {} with {}", server.getAddress(), faults);
+    }
+    
+    @PreDestroy
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+    
+    private Object quote(HttpExchange exchange) throws IOException {
+        BeCleverClient.QuoteRequest request =
+                objectMapper.readValue(exchange.getRequestBody(), BeCleverClient.QuoteRequest.class);
+        return beCleverService.cotizar(rateTable, request.sku(), request.country(),
+                LocalDate.now(quoteZone), request.montoTotal(), request.porcentajeFinanciar());
+    }
+    
+    private Object rateTable(HttpExchange exchange) {
+        return new BeCleverClient.RateTablePayload(rateTable.getVersion(), rateTable.tnaBps());
+    }
+    
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try (exchange) {
+            Faults current = faults;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            sleep(current.delay(random));
+            if (random.nextDouble() < current.resetRate()) {
+                // Cortar la conexión sin responder: el cliente ve un error de I/O
+                return;
+            }
+            if (random.nextDouble() < current.errorRate()) {
+                send(exchange, 503, Map.of("error", "Injected failure"));
+                return;
+            }
+            send(exchange, 200, handler.handle(exchange));
+        } catch (IOException | RuntimeException e) {
+            log.debug("BeClever stub request failed: {}", e.getMessage());
+        }
+    }
+    
+    private void faults(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if ("POST".equals(exchange.getRequestMethod())) {
+                Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+                faults = faults.with(params);
+                log.info("BeClever stub faults updated: {}", faults);
+            }
+            send(exchange, 200, faults);
+        } catch (RuntimeException e) {
+            send(exchange, 400, Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+    
+    private void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+    
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+    
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(HttpExchange exchange) throws IOException;
+    }
+    
+    /**
+     * Fallas inyectadas; las tasas son fracciones entre 0 y 1.
+     */
+    record Faults(Duration latency, Duration latencyJitter, double slowRate, Duration slowLatency,
+                  double errorRate, double resetRate) {
+        
+        long delay(ThreadLocalRandom random) {
+            if (random.nextDouble() < slowRate) {
+                return slowLatency.toMillis();
+            }
+            long jitter = latencyJitter.toMillis();
+            return latency.toMillis() + (jitter > 0 ? random.nextLong(jitter + 1) : 0);
+        }
+        
+        Faults with(Map<String, String> params) {
+            return new Faults(
+                    duration(params.get("latency"), latency),
+                    duration(params.get("latency-jitter"), latencyJitter),
+                    rate(params.get("slow-rate"), slowRate),
+                    duration(params.get("slow-latency"), slowLatency),
+                    rate(params.get("error-rate"), errorRate),
+                    rate(params.get("reset-rate"), resetRate));
+        }
+        
+        private static Duration duration(String value, Duration current) {
+            return value != null ? DurationStyle.detectAndParse(value) : current;
+        }
+        
+        private static double rate(String value, double current) {
+            if (value == null) {
+                return current;
+            }
+            double rate = Double.parseDouble(value);
+            if (rate < 0 || rate > 1) {
+                throw new IllegalArgumentException("Rate must be between 0 and 1: " + value);
+            }
+            return rate;
+        }
+    }
+}
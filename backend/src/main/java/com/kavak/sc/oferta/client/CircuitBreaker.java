@@ -0,0 +1,134 @@
+package com.kavak.sc.oferta.client;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker por cantidad de llamadas.
+ * <p>
+ * Cerrado, registra el resultado de los últimos {@code windowSize} intentos en un buffer
+ * circular y se abre cuando, con al menos {@code minCalls} registrados, la tasa de fallas
+ * llega a {@code failureRatePercent}. Abierto, rechaza todo durante {@code openDuration};
+ * después deja pasar {@code halfOpenProbes} intentos de prueba: si todos salen bien se
+ * cierra con la ventana vacía, y con la primera falla vuelve a abrirse.
+ * <p>
+ * Las secciones críticas son de unas pocas instrucciones, así que alcanza con
+ * {@code synchronized}.
+ */
+final class CircuitBreaker {
+    
+    enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+    
+    private final boolean[] window;
+    private final int minCalls;
+    private final int failureRatePercent;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    
+    private State state = State.CLOSED;
+    private int next;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private int probesInFlight;
+    private int probeSuccesses;
+    
+    CircuitBreaker(int windowSize, int minCalls, int failureRatePercent, Duration openDuration, int halfOpenProbes) {
+        this.window = new boolean[windowSize];
+        this.minCalls = Math.min(minCalls, windowSize);
+        this.failureRatePercent = failureRatePercent;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenProbes = halfOpenProbes;
+    }
+    
+    /**
+     * Pide permiso para un intento. Cada permiso concedido se cierra con exactamente una
+     * llamada a {@link #onSuccess()}, {@link #onFailure()} o {@link #onIgnored()}.
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probeSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight + probeSuccesses >= halfOpenProbes) {
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+    
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight--;
+            if (++probeSuccesses >= halfOpenProbes) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+    
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (calls >= minCalls && failures * 100 >= failureRatePercent * calls) {
+                open();
+            }
+        }
+    }
+    
+    /**
+     * El intento se canceló antes de terminar (por ejemplo, el perdedor de un hedge): no
+     * dice nada del proveedor.
+     */
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight--;
+        }
+    }
+    
+    synchronized State getState() {
+        // Un circuito abierto cuyo tiempo venció se informa como half-open aunque todavía
+        // no haya llegado el primer intento de prueba
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+    
+    private void record(boolean failure) {
+        if (calls == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+    
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+    
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+}
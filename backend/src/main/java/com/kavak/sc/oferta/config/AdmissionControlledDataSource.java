@@ -0,0 +1,65 @@
+package com.kavak.sc.oferta.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * DataSource que toma un permiso de {@link DbAdmissionController} antes de pedir una
+ * conexión al pool y lo devuelve al cerrarla.
+ */
+public class AdmissionControlledDataSource extends DelegatingDataSource {
+    
+    private final DbAdmissionController admissionController;
+    
+    public AdmissionControlledDataSource(DataSource target, DbAdmissionController admissionController) {
+        super(target);
+        this.admissionController = admissionController;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        DbAdmissionController.Permit permit = admissionController.acquire();
+        try {
+            return wrap(obtainTargetDataSource().getConnection(), permit);
+        } catch (SQLException | RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DbAdmissionController.Permit permit = admissionController.acquire();
+        try {
+            return wrap(obtainTargetDataSource().getConnection(username, password), permit);
+        } catch (SQLException | RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+    }
+    
+    private static Connection wrap(Connection target, DbAdmissionController.Permit permit) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        } finally {
+                            permit.release();
+                        }
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
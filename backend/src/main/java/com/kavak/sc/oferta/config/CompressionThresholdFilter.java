@@ -0,0 +1,144 @@
+package com.kavak.sc.oferta.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hace que {@code server.compression.min-response-size} se respete en las respuestas JSON.
+ * <p>
+ * Tomcat decide si comprimir al comprometer la respuesta, y si para entonces no conoce el
+ * largo comprime siempre. Los converters de Jackson hacen flush al terminar de escribir, así
+ * que hasta un error de 70 bytes salía en gzip. Este filtro ignora los flush mientras la
+ * respuesta no esté comprometida y su tipo sea comprimible: si el body entra en el buffer,
+ * Tomcat lo cierra con su largo y aplica el umbral; si no entra, se compromete al llenarse y
+ * sale comprimido. Los tipos de streaming (eventos, exportaciones) no son comprimibles y
+ * conservan sus flush.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@RequiredArgsConstructor
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+    
+    private final ServerProperties serverProperties;
+    
+    private boolean enabled;
+    private final List<MediaType> compressible = new ArrayList<>();
+    
+    @PostConstruct
+    void init() {
+        Compression compression = serverProperties.getCompression();
+        enabled = compression.getEnabled();
+        for (String mimeType : compression.getMimeTypes()) {
+            compressible.add(MediaType.parseMediaType(mimeType));
+        }
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(request, new DeferredFlushResponse(response));
+    }
+    
+    private boolean deferFlush(HttpServletResponse response) {
+        if (response.isCommitted() || response.getContentType() == null) {
+            return false;
+        }
+        MediaType contentType = MediaType.parseMediaType(response.getContentType());
+        for (MediaType mediaType : compressible) {
+            if (mediaType.equalsTypeAndSubtype(contentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private final class DeferredFlushResponse extends HttpServletResponseWrapper {
+        
+        private ServletOutputStream outputStream;
+        
+        DeferredFlushResponse(HttpServletResponse response) {
+            super(response);
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new DeferredFlushOutputStream(super.getOutputStream(), this);
+            }
+            return outputStream;
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            if (!deferFlush(this)) {
+                super.flushBuffer();
+            }
+        }
+    }
+    
+    private final class DeferredFlushOutputStream extends ServletOutputStream {
+        
+        private final ServletOutputStream delegate;
+        private final HttpServletResponse response;
+        
+        DeferredFlushOutputStream(ServletOutputStream delegate, HttpServletResponse response) {
+            this.delegate = delegate;
+            this.response = response;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            if (!deferFlush(response)) {
+                delegate.flush();
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+        
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+        
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -7,6 +7,9 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.concurrent.Executor;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -14,15 +17,33 @@ public class DataInitializer implements CommandLineRunner {
     
     private final JdbcTemplate jdbcTemplate;
     private final PasswordEncoder passwordEncoder;
+    private final Executor passwordHashExecutor;
     
     @Override
     public void run(String... args) {
+        // BCrypt en el pool dedicado: el arranque no espera el hash
+        passwordHashExecutor.execute(this::initializeAdminPassword);
+    }
+    
+    private void initializeAdminPassword() {
         try {
+            // La columna en Railway se llama 'password' no 'password_hash'
+            List<String> current = jdbcTemplate.queryForList(
+                "SELECT password FROM users WHERE username = 'admin'", String.class);
+            if (current.isEmpty()) {
+                log.warn("⚠️ Admin user not found in database");
+                return;
+            }
+            // Si el hash guardado ya corresponde a "admin123" no hace falta reescribirlo
+            if (current.get(0) != null && passwordEncoder.matches("admin123", current.get(0))) {
+                log.debug("Admin user password already initialized");
+                return;
+            }
+            
             // Generar hash para password "admin123"
             String adminPasswordHash = passwordEncoder.encode("admin123");
             
             // Actualizar password del usuario admin
-            // La columna en Railway se llama 'password' no 'password_hash'
             int rowsUpdated = jdbcTemplate.update(
                 "UPDATE users SET password = ? WHERE username = 'admin'",
                 adminPasswordHash
@@ -33,10 +54,9 @@ public class DataInitializer implements CommandLineRunner {
             } else {
                 log.warn("⚠️ Admin user not found in database");
             }
-            
+        
         } catch (Exception e) {
             log.error("❌ Error initializing admin password: {}", e.getMessage());
         }
     }
 }
-
@@ -0,0 +1,71 @@
+package com.kavak.sc.oferta.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Pools del primario y (opcional) de la réplica de lectura. El DataSource que usan JPA
+ * y JdbcTemplate rutea por transacción: {@code @Transactional(readOnly = true)} va a la
+ * réplica y el resto al primario.
+ */
+@Configuration
+public class DataSourceRoutingConfig {
+    
+    public static final String PRIMARY_DATA_SOURCE = "primaryDataSource";
+    public static final String REPLICA_DATA_SOURCE = "replicaDataSource";
+    
+    @Bean(PRIMARY_DATA_SOURCE)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    @Bean(REPLICA_DATA_SOURCE)
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties primaryProperties,
+            @Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(primaryProperties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier(PRIMARY_DATA_SOURCE) DataSource primary,
+                                 @Qualifier(REPLICA_DATA_SOURCE) ObjectProvider<DataSource> replica,
+                                 ReadYourWritesTracker readYourWrites,
+                                 @Value("${app.datasource.replica.retry-interval:30s}") Duration retryInterval) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                primary, replica.getIfAvailable(), readYourWrites, retryInterval);
+        // La conexión se toma con la primera sentencia, cuando ya se sabe si la
+        // transacción es de solo lectura (y una transacción que no toca la base no ocupa
+        // conexión ni permiso de admisión)
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,32 @@
+package com.kavak.sc.oferta.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DbAdmissionConfig {
+    
+    /**
+     * Envuelve el pool del primario para que toda conexión que llegue a él (JPA,
+     * JdbcTemplate, transacciones) pase por el control de admisión. La réplica tiene su
+     * propio pool y no consume permisos del primario.
+     */
+    @Bean
+    public static BeanPostProcessor admissionControlledDataSourcePostProcessor(
+            ObjectProvider<DbAdmissionController> admissionController) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (DataSourceRoutingConfig.PRIMARY_DATA_SOURCE.equals(beanName) && bean instanceof DataSource dataSource) {
+                    return new AdmissionControlledDataSource(dataSource, admissionController.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
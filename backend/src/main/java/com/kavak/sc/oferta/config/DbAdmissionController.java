@@ -0,0 +1,292 @@
+package com.kavak.sc.oferta.config;
+
+import com.kavak.sc.oferta.exception.DbOverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Control de admisión delante del pool de conexiones.
+ * <p>
+ * El pool de Hikari es chico (lo limita el pooler de Supabase) y su espera es larga; con
+ * una ráfaga los threads de Tomcat se acumulan 30s esperando conexión y fallan todos
+ * juntos. Acá cada pedido de conexión toma un permiso de un lane con prioridad: cuando se
+ * libera un permiso lo recibe primero el lane más prioritario, cada lane tiene una cola
+ * acotada y una espera máxima corta, y al superarlas se rechaza de inmediato con
+ * {@link DbOverloadedException} (503 + Retry-After) en lugar de esperar.
+ */
+@Component
+public class DbAdmissionController {
+    
+    /** En orden de mayor a menor prioridad */
+    public enum Lane {
+        // Login y creación de ofertas
+        HIGH,
+        NORMAL,
+        // Historial, exportaciones, métricas
+        LOW
+    }
+    
+    private static final ThreadLocal<Lane> CURRENT_LANE = new ThreadLocal<>();
+    // Permisos tomados por el thread actual: una conexión anidada no vuelve a esperar
+    private static final ThreadLocal<int[]> HELD = ThreadLocal.withInitial(() -> new int[1]);
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Lane, Condition> conditions = new EnumMap<>(Lane.class);
+    private final Map<Lane, LaneConfig> config = new EnumMap<>(Lane.class);
+    private final int[] waiting = new int[Lane.values().length];
+    private final int[] inUseByLane = new int[Lane.values().length];
+    private final LongAdder[] admitted = new LongAdder[Lane.values().length];
+    private final LongAdder[] rejected = new LongAdder[Lane.values().length];
+    private final Timer[] waitTimers = new Timer[Lane.values().length];
+    private final boolean enabled;
+    private final int capacity;
+    private int inUse;
+    // Promedio móvil del tiempo que se retiene un permiso, para estimar Retry-After
+    private volatile double avgHoldMillis = 50;
+    
+    public DbAdmissionController(
+            @Value("${app.db.admission.enabled:true}") boolean enabled,
+            @Value("${app.db.admission.max-concurrent:${spring.datasource.hikari.maximum-pool-size:3}}") int capacity,
+            @Value("${app.db.admission.high.max-wait:2s}") Duration highWait,
+            @Value("${app.db.admission.high.max-queue:64}") int highQueue,
+            @Value("${app.db.admission.normal.max-wait:1s}") Duration normalWait,
+            @Value("${app.db.admission.normal.max-queue:32}") int normalQueue,
+            @Value("${app.db.admission.low.max-wait:300ms}") Duration lowWait,
+            @Value("${app.db.admission.low.max-queue:8}") int lowQueue,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.capacity = capacity;
+        // El lane LOW nunca ocupa todos los permisos: siempre queda uno para los demás
+        config.put(Lane.HIGH, new LaneConfig(highWait, highQueue, capacity));
+        config.put(Lane.NORMAL, new LaneConfig(normalWait, normalQueue, capacity));
+        config.put(Lane.LOW, new LaneConfig(lowWait, lowQueue, Math.max(1, capacity - 1)));
+        for (Lane lane : Lane.values()) {
+            conditions.put(lane, lock.newCondition());
+            admitted[lane.ordinal()] = new LongAdder();
+            rejected[lane.ordinal()] = new LongAdder();
+            waitTimers[lane.ordinal()] = Timer.builder("db.admission.wait")
+                    .tag("lane", lane.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+    
+    private record LaneConfig(Duration maxWait, int maxQueue, int maxInUse) {
+    }
+    
+    /**
+     * Permiso de uso de una conexión; {@link #release()} es idempotente.
+     */
+    public final class Permit {
+        private final Lane lane;
+        private final int[] held;
+        private final long acquiredAt = System.nanoTime();
+        private boolean released;
+        
+        private Permit(Lane lane, int[] held) {
+            this.lane = lane;
+            this.held = held;
+        }
+        
+        public void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            held[0]--;
+            if (lane != null) {
+                DbAdmissionController.this.release(lane, System.nanoTime() - acquiredAt);
+            }
+        }
+    }
+    
+    public static Lane currentLane() {
+        Lane lane = CURRENT_LANE.get();
+        return lane != null ? lane : Lane.NORMAL;
+    }
+    
+    public static void setCurrentLane(Lane lane) {
+        if (lane == null) {
+            CURRENT_LANE.remove();
+        } else {
+            CURRENT_LANE.set(lane);
+        }
+    }
+    
+    /**
+     * Ejecuta {@code work} con el lane indicado en el thread actual y restaura el anterior.
+     */
+    public static <T> T inLane(Lane lane, Supplier<T> work) {
+        Lane previous = CURRENT_LANE.get();
+        setCurrentLane(lane);
+        try {
+            return work.get();
+        } finally {
+            setCurrentLane(previous);
+        }
+    }
+    
+    public Permit acquire() {
+        int[] held = HELD.get();
+        if (!enabled || held[0] > 0) {
+            // Reentrante: el thread ya tiene una conexión y no puede esperar por sí mismo
+            held[0]++;
+            return new Permit(null, held);
+        }
+        Lane lane = currentLane();
+        long start = System.nanoTime();
+        try {
+            acquire(lane);
+        } finally {
+            waitTimers[lane.ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        held[0]++;
+        return new Permit(lane, held);
+    }
+    
+    private void acquire(Lane lane) {
+        LaneConfig laneConfig = config.get(lane);
+        int l = lane.ordinal();
+        lock.lock();
+        try {
+            if (puedeEntrar(lane)) {
+                ocupar(lane);
+                return;
+            }
+            if (waiting[l] >= laneConfig.maxQueue()) {
+                throw rechazar(lane);
+            }
+            waiting[l]++;
+            try {
+                long remaining = laneConfig.maxWait().toNanos();
+                while (!puedeEntrar(lane)) {
+                    if (remaining <= 0) {
+                        throw rechazar(lane);
+                    }
+                    remaining = conditions.get(lane).awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw rechazar(lane);
+            } finally {
+                waiting[l]--;
+            }
+            ocupar(lane);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Un lane entra si hay permiso libre, no superó su tope y ningún lane más prioritario
+     * está esperando.
+     */
+    private boolean puedeEntrar(Lane lane) {
+        if (inUse >= capacity || inUseByLane[lane.ordinal()] >= config.get(lane).maxInUse()) {
+            return false;
+        }
+        for (int i = 0; i < lane.ordinal(); i++) {
+            if (waiting[i] > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void ocupar(Lane lane) {
+        inUse++;
+        inUseByLane[lane.ordinal()]++;
+        admitted[lane.ordinal()].increment();
+    }
+    
+    private void release(Lane lane, long heldNanos) {
+        avgHoldMillis = avgHoldMillis * 0.9 + (heldNanos / 1_000_000.0) * 0.1;
+        lock.lock();
+        try {
+            inUse--;
+            inUseByLane[lane.ordinal()]--;
+            // Despertar al lane más prioritario con espera
+            for (Lane candidate : Lane.values()) {
+                if (waiting[candidate.ordinal()] > 0) {
+                    conditions.get(candidate).signal();
+                    return;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private DbOverloadedException rechazar(Lane lane) {
+        rejected[lane.ordinal()].increment();
+        return new DbOverloadedException(retryAfterSeconds());
+    }
+    
+    /**
+     * Estimación del tiempo para vaciar la cola actual con la capacidad disponible.
+     */
+    private long retryAfterSeconds() {
+        int queued = 0;
+        for (int w : waiting) {
+            queued += w;
+        }
+        double millis = (queued + 1) * avgHoldMillis / capacity;
+        return Math.max(1, (long) Math.ceil(millis / TimeUnit.SECONDS.toMillis(1)));
+    }
+    
+    public int getQueueDepth(Lane lane) {
+        lock.lock();
+        try {
+            return waiting[lane.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getInUse() {
+        lock.lock();
+        try {
+            return inUse;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    public long getAdmitted(Lane lane) {
+        return admitted[lane.ordinal()].sum();
+    }
+    
+    public long getRejected(Lane lane) {
+        return rejected[lane.ordinal()].sum();
+    }
+    
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("capacity", capacity);
+        result.put("inUse", getInUse());
+        result.put("avgHoldMillis", Math.round(avgHoldMillis * 10) / 10.0);
+        for (Lane lane : Lane.values()) {
+            Map<String, Object> laneStats = new LinkedHashMap<>();
+            laneStats.put("queueDepth", getQueueDepth(lane));
+            laneStats.put("admitted", getAdmitted(lane));
+            laneStats.put("rejected", getRejected(lane));
+            result.put(lane.name().toLowerCase(), laneStats);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+package com.kavak.sc.oferta.config;
+
+import com.kavak.sc.oferta.exception.DbOverloadedException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Asigna a cada request el lane de admisión con el que pedirá conexiones a la base.
+ * Corre antes que la cadena de seguridad para cubrir también los accesos que hace.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class DbLaneFilter extends OncePerRequestFilter {
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        DbAdmissionController.setCurrentLane(laneFor(request.getMethod(), request.getRequestURI()));
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | RuntimeException e) {
+            // Rechazos que ocurren fuera de los controllers (p. ej. en un filtro)
+            DbOverloadedException overloaded = DbOverloadedException.find(e);
+            if (overloaded == null || response.isCommitted()) {
+                throw e;
+            }
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(overloaded.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"" + overloaded.getMessage() + "\"}");
+        } finally {
+            DbAdmissionController.setCurrentLane(null);
+        }
+    }
+    
+    static DbAdmissionController.Lane laneFor(String method, String path) {
+        if (path.startsWith("/api/auth/")
+                || ("POST".equals(method) && path.startsWith("/api/financing-offers"))) {
+            return DbAdmissionController.Lane.HIGH;
+        }
+        if (("GET".equals(method) && path.equals("/api/financing-offers"))
+                || path.startsWith("/api/admin/exports")
+                || path.startsWith("/api/admin/activity")
+                || path.startsWith("/api/metrics")) {
+            return DbAdmissionController.Lane.LOW;
+        }
+        return DbAdmissionController.Lane.NORMAL;
+    }
+}
@@ -0,0 +1,30 @@
+package com.kavak.sc.oferta.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExportExecutorConfig {
+    
+    @Value("${app.export.max-concurrent:2}")
+    private int maxConcurrentExports;
+    
+    /**
+     * Pool para las exportaciones en streaming. Acotado para que unas pocas exportaciones
+     * largas no acaparen conexiones de la base; el resto de las respuestas async (SSE,
+     * simulaciones) no pasa por acá.
+     */
+    @Bean
+    public AsyncTaskExecutor exportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentExports);
+        executor.setMaxPoolSize(maxConcurrentExports);
+        executor.setQueueCapacity(maxConcurrentExports * 4);
+        executor.setThreadNamePrefix("export-");
+        executor.initialize();
+        return executor;
+    }
+}
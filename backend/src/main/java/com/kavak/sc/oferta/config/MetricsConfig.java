@@ -0,0 +1,49 @@
+package com.kavak.sc.oferta.config;
+
+import com.kavak.sc.oferta.service.ActivityLogService;
+import com.kavak.sc.oferta.service.OfertaWriteBehindService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Métricas de estado de los componentes con colas o buffers internos. Los timers y
+ * contadores del camino caliente se registran en cada servicio.
+ */
+@Configuration
+public class MetricsConfig {
+    
+    @Bean
+    public MeterBinder dbAdmissionMetrics(DbAdmissionController admission) {
+        return registry -> {
+            Gauge.builder("db.admission.in_use", admission, DbAdmissionController::getInUse).register(registry);
+            Gauge.builder("db.admission.capacity", admission, DbAdmissionController::getCapacity).register(registry);
+            for (DbAdmissionController.Lane lane : DbAdmissionController.Lane.values()) {
+                String tag = lane.name().toLowerCase();
+                Gauge.builder("db.admission.queue", admission, a -> a.getQueueDepth(lane))
+                        .tag("lane", tag).register(registry);
+                FunctionCounter.builder("db.admission.rejected", admission, a -> a.getRejected(lane))
+                        .tag("lane", tag).register(registry);
+            }
+        };
+    }
+    
+    @Bean
+    public MeterBinder offerWriteBehindMetrics(OfertaWriteBehindService writeBehind) {
+        return registry -> Gauge.builder("offers.write_behind.queue", writeBehind,
+                OfertaWriteBehindService::getQueueDepth).register(registry);
+    }
+    
+    @Bean
+    public MeterBinder activityLogMetrics(ActivityLogService activityLog) {
+        return registry -> {
+            Gauge.builder("activity.buffer", activityLog, ActivityLogService::getBufferDepth).register(registry);
+            FunctionCounter.builder("activity.events", activityLog, ActivityLogService::getWritten)
+                    .tag("result", "written").register(registry);
+            FunctionCounter.builder("activity.events", activityLog, ActivityLogService::getDropped)
+                    .tag("result", "dropped").register(registry);
+        };
+    }
+}
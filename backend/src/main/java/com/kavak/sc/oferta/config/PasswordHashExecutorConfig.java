@@ -0,0 +1,35 @@
+package com.kavak.sc.oferta.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+public class PasswordHashExecutorConfig {
+    
+    @Value("${app.security.bcrypt.threads:2}")
+    private int threads;
+    
+    @Value("${app.security.bcrypt.queue-capacity:64}")
+    private int queueCapacity;
+    
+    /**
+     * Pool acotado para verificar y generar hashes BCrypt (login y alta de usuarios). Cada
+     * hash ocupa un core ~100 ms: con pocos threads una ola de logins no le quita CPU ni
+     * threads de Tomcat a las simulaciones. Si la cola se llena se rechaza con 503 en
+     * lugar de encolar sin límite.
+     */
+    @Bean
+    public Executor passwordHashExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("bcrypt-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,74 @@
+package com.kavak.sc.oferta.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Envía las transacciones de solo lectura a la réplica y todo lo demás al primario.
+ * <p>
+ * Debe usarse detrás de un {@code LazyConnectionDataSourceProxy}: así la conexión se pide
+ * recién con la primera sentencia, cuando el flag read-only de la transacción ya está
+ * publicado. Si la réplica no entrega conexión se lee del primario y la réplica se deja
+ * de usar durante {@code retryInterval}. Un usuario que acaba de escribir lee del primario
+ * (ver {@link ReadYourWritesTracker}).
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+    
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReadYourWritesTracker readYourWrites;
+    private final long retryIntervalNanos;
+    private volatile long replicaDownUntil;
+    private volatile boolean replicaDown;
+    
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadYourWritesTracker readYourWrites,
+                                      Duration retryInterval) {
+        this.primary = primary;
+        this.replica = replica;
+        this.readYourWrites = readYourWrites;
+        this.retryIntervalNanos = retryInterval.toNanos();
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (readOnly && usarReplica()) {
+            try {
+                Connection connection = replica.getConnection();
+                if (replicaDown) {
+                    replicaDown = false;
+                    log.info("Read replica available again");
+                }
+                return connection;
+            } catch (SQLException | RuntimeException e) {
+                replicaDownUntil = System.nanoTime() + retryIntervalNanos;
+                replicaDown = true;
+                log.warn("Read replica unavailable, reading from primary: {}", e.getMessage());
+            }
+        }
+        if (!readOnly && TransactionSynchronizationManager.isActualTransactionActive()) {
+            readYourWrites.registrarEscrituraActual();
+        }
+        return primary.getConnection();
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Credenciales explícitas: sólo tiene sentido contra el primario
+        return primary.getConnection(username, password);
+    }
+    
+    private boolean usarReplica() {
+        if (replica == null || readYourWrites.escribioRecientemente()) {
+            return false;
+        }
+        return !replicaDown || System.nanoTime() - replicaDownUntil >= 0;
+    }
+}
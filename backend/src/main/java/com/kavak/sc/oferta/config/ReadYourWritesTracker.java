@@ -0,0 +1,56 @@
+package com.kavak.sc.oferta.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kavak.sc.oferta.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Usuarios que escribieron hace menos de {@code read-your-writes-window}: sus lecturas
+ * van al primario para que vean lo que acaban de crear aunque la réplica esté atrasada.
+ */
+@Component
+public class ReadYourWritesTracker {
+    
+    private final Cache<UUID, Boolean> recentWriters;
+    private final boolean enabled;
+    
+    public ReadYourWritesTracker(
+            @Value("${app.datasource.replica.read-your-writes-window:5s}") Duration window,
+            @Value("${app.datasource.replica.read-your-writes-max-users:10000}") int maxUsers) {
+        this.enabled = !window.isZero();
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(enabled ? window : Duration.ofMillis(1))
+                .build();
+    }
+    
+    public void registrarEscritura(UUID userId) {
+        if (enabled && userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+    
+    public void registrarEscrituraActual() {
+        registrarEscritura(currentUserId());
+    }
+    
+    public boolean escribioRecientemente() {
+        if (!enabled) {
+            return false;
+        }
+        UUID userId = currentUserId();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+    
+    private static UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof User user ? user.getId() : null;
+    }
+}
@@ -0,0 +1,57 @@
+package com.kavak.sc.oferta.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class SimulationExecutorConfig {
+    
+    @Value("${app.simulation.executor.threads:4}")
+    private int threads;
+    
+    @Value("${app.simulation.executor.queue-capacity:200}")
+    private int queueCapacity;
+    
+    @Value("${app.simulation.continuation.threads:8}")
+    private int continuationThreads;
+    
+    @Value("${app.simulation.continuation.queue-capacity:200}")
+    private int continuationQueueCapacity;
+    
+    /**
+     * Pool acotado para calcular escenarios en paralelo. Si se llena, el escenario se
+     * calcula en el thread del request en lugar de rechazarse.
+     */
+    @Bean
+    public Executor simulationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("simulation-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Pool acotado para guardar la oferta cuando la respuesta de BeClever llega en un
+     * thread de I/O del cliente. No puede correr en el thread que llama (bloquearía el
+     * I/O de BeClever con la base): si la cola se llena se rechaza con 503.
+     */
+    @Bean
+    public Executor offerContinuationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(continuationThreads);
+        executor.setMaxPoolSize(continuationThreads);
+        executor.setQueueCapacity(continuationQueueCapacity);
+        executor.setThreadNamePrefix("offer-continuation-");
+        executor.initialize();
+        return executor;
+    }
+}
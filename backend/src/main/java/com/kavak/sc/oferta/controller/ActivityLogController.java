@@ -0,0 +1,31 @@
+package com.kavak.sc.oferta.controller;
+
+import com.kavak.sc.oferta.dto.EmployeeActivityPage;
+import com.kavak.sc.oferta.service.ActivityHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/activity")
+@RequiredArgsConstructor
+public class ActivityLogController {
+    
+    private final ActivityHistoryService activityHistoryService;
+    
+    @GetMapping
+    public ResponseEntity<EmployeeActivityPage> buscar(
+            @RequestParam(required = false) UUID employeeId,
+            @RequestParam(required = false) String dealId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        
+        return ResponseEntity.ok(activityHistoryService.buscar(employeeId, dealId, from, to, cursor, size));
+    }
+}
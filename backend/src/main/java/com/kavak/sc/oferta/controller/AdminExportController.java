@@ -0,0 +1,75 @@
+package com.kavak.sc.oferta.controller;
+
+import com.kavak.sc.oferta.service.OfertaExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/admin/exports")
+@RequiredArgsConstructor
+public class AdminExportController {
+    
+    private final OfertaExportService exportService;
+    private final AsyncTaskExecutor exportExecutor;
+    
+    // Las exportaciones pueden durar minutos; el resto de los requests async usa el timeout por defecto
+    @Value("${app.export.timeout:30m}")
+    private Duration timeout;
+    
+    /**
+     * Escribe la exportación desde {@code exportExecutor} con su propio timeout. Recibir el
+     * {@link HttpServletResponse} marca el request como resuelto, así que al terminar no
+     * queda nada que renderizar.
+     */
+    @GetMapping("/offers")
+    public WebAsyncTask<Void> exportarOfertas(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) {
+        
+        OfertaExportService.Formato formato = OfertaExportService.Formato.valueOf(format.toUpperCase());
+        boolean compress = gzip || (acceptEncoding != null && acceptEncoding.contains("gzip"));
+        String extension = formato == OfertaExportService.Formato.CSV ? "csv" : "ndjson";
+        
+        response.setContentType(formato == OfertaExportService.Formato.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8).toString()
+                : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"ofertas." + extension
+                + (compress && gzip ? ".gz" : "") + "\"");
+        if (compress && !gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        } else if (compress) {
+            response.setContentType("application/gzip");
+        }
+        
+        return new WebAsyncTask<>(timeout.toMillis(), exportExecutor, () -> {
+            OutputStream out = response.getOutputStream();
+            if (compress) {
+                try (OutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024)) {
+                    exportService.exportar(formato, country, from, to, gzipOut);
+                }
+            } else {
+                exportService.exportar(formato, country, from, to, out);
+            }
+            out.flush();
+            return null;
+        });
+    }
+}
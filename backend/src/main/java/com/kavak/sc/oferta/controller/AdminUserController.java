@@ -0,0 +1,28 @@
+package com.kavak.sc.oferta.controller;
+
+import com.kavak.sc.oferta.dto.RoleUpdateRequest;
+import com.kavak.sc.oferta.service.UserService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+public class AdminUserController {
+    
+    private final UserService userService;
+    
+    /**
+     * El rol viaja en los claims del JWT: los access tokens ya emitidos lo conservan hasta
+     * vencer ({@code JWT_EXPIRATION}) y el nuevo aplica desde la próxima renovación.
+     */
+    @PutMapping("/{id}/role")
+    public ResponseEntity<Void> actualizarRol(@PathVariable UUID id, @Valid @RequestBody RoleUpdateRequest request) {
+        userService.updateRole(id, request.getRole());
+        return ResponseEntity.noContent().build();
+    }
+}
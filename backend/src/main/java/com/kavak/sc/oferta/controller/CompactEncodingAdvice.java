@@ -0,0 +1,61 @@
+package com.kavak.sc.oferta.controller;
+
+import com.kavak.sc.oferta.dto.SimulacionColumnarResponse;
+import com.kavak.sc.oferta.dto.SimulacionEscenariosColumnarResponse;
+import com.kavak.sc.oferta.dto.SimulacionEscenariosResponse;
+import com.kavak.sc.oferta.dto.SimulacionResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Codificaciones compactas de las simulaciones, elegidas con {@code Accept}:
+ * <ul>
+ *   <li>{@value #COLUMNAR_JSON_VALUE}: JSON en columnas con enteros
+ *       ({@link SimulacionColumnarResponse}, {@link SimulacionEscenariosColumnarResponse})</li>
+ *   <li>{@code application/cbor} y {@value #SMILE_VALUE}: las mismas columnas en binario</li>
+ * </ul>
+ * Sin {@code Accept} o con {@code application/json} la respuesta es la de siempre. La
+ * negociación la hace Spring con los {@code produces} del controller; acá sólo se cambia
+ * el body una vez elegido el formato.
+ */
+@RestControllerAdvice(assignableTypes = FinancingOfferController.class)
+public class CompactEncodingAdvice implements ResponseBodyAdvice<Object> {
+    
+    public static final String COLUMNAR_JSON_VALUE = "application/vnd.kavak.simulacion.columnar+json";
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+    
+    private static final MediaType COLUMNAR_JSON = MediaType.parseMediaType(COLUMNAR_JSON_VALUE);
+    private static final MediaType SMILE = MediaType.parseMediaType(SMILE_VALUE);
+    
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+    
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!isCompact(selectedContentType)) {
+            return body;
+        }
+        if (body instanceof SimulacionResponse simulacion) {
+            return SimulacionColumnarResponse.from(simulacion);
+        }
+        if (body instanceof SimulacionEscenariosResponse escenarios) {
+            return SimulacionEscenariosColumnarResponse.from(escenarios);
+        }
+        return body;
+    }
+    
+    private static boolean isCompact(MediaType mediaType) {
+        return mediaType.equalsTypeAndSubtype(COLUMNAR_JSON)
+                || mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)
+                || mediaType.equalsTypeAndSubtype(SMILE);
+    }
+}
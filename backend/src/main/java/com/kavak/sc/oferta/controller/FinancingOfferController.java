@@ -1,28 +1,65 @@
 package com.kavak.sc.oferta.controller;
 
+import com.kavak.sc.oferta.dto.FinancingOfferBatchRequest;
 import com.kavak.sc.oferta.dto.FinancingOfferRequest;
+import com.kavak.sc.oferta.dto.OfertaHistoryPage;
+import com.kavak.sc.oferta.dto.SimulacionEscenariosResponse;
 import com.kavak.sc.oferta.dto.SimulacionResponse;
 import com.kavak.sc.oferta.service.FinancingOfferService;
+import com.kavak.sc.oferta.service.OfertaHistoryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/financing-offers")
 @RequiredArgsConstructor
 public class FinancingOfferController {
     
     private final FinancingOfferService financingOfferService;
+    private final OfertaHistoryService ofertaHistoryService;
     
-    @PostMapping
-    public ResponseEntity<SimulacionResponse> crearSimulacion(
+    /**
+     * Con {@code Accept} se puede pedir una codificación compacta: ver {@link CompactEncodingAdvice}.
+     */
+    @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE, CompactEncodingAdvice.COLUMNAR_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, CompactEncodingAdvice.SMILE_VALUE})
+    public CompletableFuture<ResponseEntity<SimulacionResponse>> crearSimulacion(
             @Valid @RequestBody FinancingOfferRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            Authentication authentication) {
+        
+        return financingOfferService.crearSimulacion(request, authentication, idempotencyKey)
+                .thenApply(ResponseEntity::ok);
+    }
+    
+    @GetMapping
+    public ResponseEntity<OfertaHistoryPage> listarOfertas(
+            @RequestParam(required = false) UUID createdBy,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) String dealId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        
+        OfertaHistoryPage page = ofertaHistoryService.buscar(createdBy, country, dealId, cursor, size, authentication);
+        return ResponseEntity.ok(page);
+    }
+    
+    @PostMapping(value = "/batch", produces = {MediaType.APPLICATION_JSON_VALUE, CompactEncodingAdvice.COLUMNAR_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, CompactEncodingAdvice.SMILE_VALUE})
+    public CompletableFuture<ResponseEntity<SimulacionEscenariosResponse>> crearSimulaciones(
+            @Valid @RequestBody FinancingOfferBatchRequest request,
             Authentication authentication) {
         
-        SimulacionResponse response = financingOfferService.crearSimulacion(request, authentication);
-        return ResponseEntity.ok(response);
+        return financingOfferService.crearSimulaciones(request, authentication)
+                .thenApply(ResponseEntity::ok);
     }
 }
 
@@ -0,0 +1,69 @@
+package com.kavak.sc.oferta.controller;
+
+import com.kavak.sc.oferta.dto.EmployeeActivity;
+import com.kavak.sc.oferta.dto.LeadPage;
+import com.kavak.sc.oferta.dto.LeadRequest;
+import com.kavak.sc.oferta.entity.Lead;
+import com.kavak.sc.oferta.service.ActivityLogService;
+import com.kavak.sc.oferta.service.LeadService;
+import jakarta.validation.Valid;
+import jakarta.validation.groups.Default;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/leads")
+@RequiredArgsConstructor
+public class LeadController {
+    
+    private final LeadService leadService;
+    private final ActivityLogService activityLog;
+    
+    @GetMapping
+    public ResponseEntity<LeadPage> bandeja(
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        
+        return ResponseEntity.ok(leadService.bandeja(country, cursor, size, authentication));
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<Lead> obtener(@PathVariable UUID id, Authentication authentication) {
+        Lead lead = leadService.obtener(id, authentication);
+        activityLog.registrar(EmployeeActivity.Action.LEAD_VIEWED, authentication, id.toString(),
+                lead.getDealId(), "Lead revisado");
+        return ResponseEntity.ok(lead);
+    }
+    
+    @PostMapping
+    public ResponseEntity<Lead> crear(
+            @Validated({Default.class, LeadRequest.Alta.class}) @RequestBody LeadRequest request,
+            Authentication authentication) {
+        return ResponseEntity.ok(leadService.crear(request, authentication));
+    }
+    
+    @PatchMapping("/{id}")
+    public ResponseEntity<Lead> actualizar(@PathVariable UUID id, @Valid @RequestBody LeadRequest request,
+                                           Authentication authentication) {
+        Lead lead = leadService.actualizar(id, request, authentication);
+        if (request.getAsignadoA() != null) {
+            activityLog.registrar(EmployeeActivity.Action.LEAD_ASSIGNED, authentication, id.toString(),
+                    lead.getDealId(), "Lead asignado a " + request.getAsignadoA());
+        }
+        if (lead.getEstadoOferta() == Lead.Estado.COMPLETADO && request.getEstadoOferta() != null) {
+            activityLog.registrar(EmployeeActivity.Action.OFFER_ACCEPTED, authentication, id.toString(),
+                    lead.getDealId(), "Oferta aceptada");
+        } else if (lead.getEstadoOferta() == Lead.Estado.RECHAZADO && request.getEstadoOferta() != null) {
+            activityLog.registrar(EmployeeActivity.Action.OFFER_REJECTED, authentication, id.toString(),
+                    lead.getDealId(), "Oferta rechazada");
+        }
+        return ResponseEntity.ok(lead);
+    }
+}
@@ -0,0 +1,41 @@
+package com.kavak.sc.oferta.controller;
+
+import com.kavak.sc.oferta.config.DbAdmissionController;
+import com.kavak.sc.oferta.dto.OfertaMetricas;
+import com.kavak.sc.oferta.service.OfertaRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+public class OfertaMetricsController {
+    
+    private final OfertaRollupService rollupService;
+    private final DbAdmissionController admissionController;
+    
+    @GetMapping("/offers")
+    public ResponseEntity<List<OfertaMetricas>> getMetricasOfertas(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth desde,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth hasta,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) UUID employeeId) {
+        
+        // Por defecto, los últimos 12 meses
+        YearMonth fin = hasta != null ? hasta : YearMonth.now();
+        YearMonth inicio = desde != null ? desde : fin.minusMonths(11);
+        return ResponseEntity.ok(rollupService.consultar(inicio, fin, country, employeeId));
+    }
+    
+    @GetMapping("/db-admission")
+    public ResponseEntity<Map<String, Object>> getDbAdmission() {
+        return ResponseEntity.ok(admissionController.snapshot());
+    }
+}
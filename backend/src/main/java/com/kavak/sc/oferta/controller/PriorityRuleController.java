@@ -0,0 +1,42 @@
+package com.kavak.sc.oferta.controller;
+
+import com.kavak.sc.oferta.dto.PriorityRuleRequest;
+import com.kavak.sc.oferta.entity.PriorityRule;
+import com.kavak.sc.oferta.service.PriorityRuleService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/priority-rules")
+@RequiredArgsConstructor
+public class PriorityRuleController {
+    
+    private final PriorityRuleService priorityRuleService;
+    
+    @GetMapping
+    public ResponseEntity<List<PriorityRule>> listar() {
+        return ResponseEntity.ok(priorityRuleService.listar());
+    }
+    
+    @PostMapping
+    public ResponseEntity<PriorityRule> crear(@Valid @RequestBody PriorityRuleRequest request) {
+        return ResponseEntity.ok(priorityRuleService.crear(request));
+    }
+    
+    @PutMapping("/{id}")
+    public ResponseEntity<PriorityRule> actualizar(@PathVariable UUID id,
+                                                   @Valid @RequestBody PriorityRuleRequest request) {
+        return ResponseEntity.ok(priorityRuleService.actualizar(id, request));
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> eliminar(@PathVariable UUID id) {
+        priorityRuleService.eliminar(id);
+        return ResponseEntity.noContent().build();
+    }
+}
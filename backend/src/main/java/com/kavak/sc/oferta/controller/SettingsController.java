@@ -1,13 +1,20 @@
 package com.kavak.sc.oferta.controller;
 
 import com.kavak.sc.oferta.dto.SettingsRequest;
-import com.kavak.sc.oferta.entity.AjustesSistema;
+import com.kavak.sc.oferta.dto.SettingsSnapshot;
 import com.kavak.sc.oferta.service.AjustesSistemaService;
+import com.kavak.sc.oferta.service.SettingsChangeFeed;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/settings")
@@ -15,26 +22,56 @@ import org.springframework.web.bind.annotation.*;
 public class SettingsController {
     
     private final AjustesSistemaService ajustesService;
+    private final SettingsChangeFeed settingsChangeFeed;
+    
+    @Value("${app.default.country:AR}")
+    private String defaultCountry;
     
+    @Value("${app.supported.countries:AR,CL}")
+    private List<String> supportedCountries;
+    
+    /**
+     * GET condicional: el ETag es la versión de los ajustes, y con un If-None-Match que
+     * coincide se responde 304 sin cuerpo.
+     */
     @GetMapping
-    public ResponseEntity<AjustesSistema> getSettings() {
-        AjustesSistema settings = ajustesService.getCurrentSettings();
-        return ResponseEntity.ok(settings);
+    public ResponseEntity<SettingsSnapshot> getSettings(@RequestParam(required = false) String country) {
+        SettingsSnapshot settings = ajustesService.getCurrentSettings(resolveCountry(country));
+        return ResponseEntity.ok()
+                .eTag(settings.version())
+                .cacheControl(CacheControl.noCache())
+                .body(settings);
+    }
+    
+    /**
+     * Feed de cambios del país: el primer evento son los ajustes vigentes (salvo que
+     * {@code Last-Event-ID} ya sea esa versión) y después uno por cada cambio.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSettings(@RequestParam(required = false) String country,
+                                     @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SettingsSnapshot settings = ajustesService.getCurrentSettings(resolveCountry(country));
+        return settingsChangeFeed.subscribe(settings, lastEventId);
     }
     
     @PatchMapping
-    public ResponseEntity<AjustesSistema> updateSettings(
+    public ResponseEntity<SettingsSnapshot> updateSettings(
             @Valid @RequestBody SettingsRequest request) {
         
-        AjustesSistema updatedSettings = ajustesService.updatePorcentajeMaximo(
+        SettingsSnapshot updatedSettings = ajustesService.updatePorcentajeMaximo(
                 request.getPorcentajeMaximo());
         
         return ResponseEntity.ok(updatedSettings);
     }
+    
+    private String resolveCountry(String country) {
+        if (country == null || country.isBlank()) {
+            return defaultCountry;
+        }
+        String countryCode = country.trim().toUpperCase(Locale.ROOT);
+        if (!supportedCountries.contains(countryCode)) {
+            throw new RuntimeException("País no soportado: " + countryCode);
+        }
+        return countryCode;
+    }
 }
-
-
-
-
-
-
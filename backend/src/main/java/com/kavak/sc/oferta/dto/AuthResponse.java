@@ -8,8 +8,7 @@ import lombok.Data;
 public class AuthResponse {
     private String token;
     private String role;
+    private String refreshToken;
+    // Segundos de vida del access token
+    private long expiresIn;
 }
-
-
-
-
@@ -0,0 +1,36 @@
+package com.kavak.sc.oferta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Evento del log de actividad de empleados (mismo formato que {@code EmployeeLog} en
+ * el frontend).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeActivity {
+    
+    private UUID id;
+    private UUID employeeId;
+    private String employeeName;
+    private LocalDateTime timestamp;
+    private Action action;
+    private String leadId;
+    private String dealId;
+    private String details;
+    
+    public enum Action {
+        LEAD_ASSIGNED,
+        LEAD_VIEWED,
+        SIMULATION_CREATED,
+        OFFER_ACCEPTED,
+        OFFER_REJECTED,
+        COMMENT_ADDED
+    }
+}
@@ -0,0 +1,16 @@
+package com.kavak.sc.oferta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeActivityPage {
+    private List<EmployeeActivity> items;
+    // null cuando no hay más páginas
+    private String nextCursor;
+}
@@ -0,0 +1,53 @@
+package com.kavak.sc.oferta.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Simulación de varios escenarios (porcentajes a financiar) para un mismo cliente y
+ * vehículo en un solo request.
+ */
+@Data
+public class FinancingOfferBatchRequest {
+    
+    @Valid
+    @NotNull(message = "Cliente data is required")
+    private FinancingOfferRequest.Cliente cliente;
+    
+    @Valid
+    private List<FinancingOfferRequest.Cliente> titularesAdicionales;
+    
+    @Valid
+    @NotNull(message = "Vehículo data is required")
+    private FinancingOfferRequest.Vehiculo vehiculo;
+    
+    @Valid
+    @NotEmpty(message = "At least one escenario is required")
+    @Size(max = 10, message = "No more than 10 escenarios per request")
+    private List<Escenario> escenarios;
+    
+    // Campos adicionales para integración con CRM
+    private String dealId;
+    private Integer subsidiary;
+    private String country;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Escenario {
+        @NotBlank(message = "Escenario id is required")
+        private String id;
+        
+        private String nombre;
+        
+        @NotNull(message = "Porcentaje a financiar is required")
+        @Min(value = 1, message = "Porcentaje must be at least 1%")
+        @Max(value = 100, message = "Porcentaje cannot exceed 100%")
+        private Integer porcentajeFinanciar;
+    }
+}
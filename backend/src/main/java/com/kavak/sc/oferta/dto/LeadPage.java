@@ -0,0 +1,17 @@
+package com.kavak.sc.oferta.dto;
+
+import com.kavak.sc.oferta.entity.Lead;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeadPage {
+    private List<Lead> items;
+    // null cuando no hay más páginas
+    private String nextCursor;
+}
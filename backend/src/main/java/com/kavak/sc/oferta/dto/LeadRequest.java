@@ -0,0 +1,64 @@
+package com.kavak.sc.oferta.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Alta de un lead (p. ej. desde el CRM). Para modificar uno existente se usa el mismo
+ * DTO: los campos en null no se tocan.
+ */
+@Data
+public class LeadRequest {
+    
+    private String dealId;
+    
+    @NotBlank(message = "Nombre is required", groups = Alta.class)
+    private String clienteNombre;
+    
+    @NotBlank(message = "Apellido is required", groups = Alta.class)
+    private String clienteApellido;
+    
+    @NotBlank(message = "DNI is required", groups = Alta.class)
+    private String clienteDni;
+    
+    private String clienteEmail;
+    private String clienteTelefono;
+    
+    @DecimalMin(value = "0.0", message = "Ingresos must be positive")
+    private BigDecimal clienteIngresosAnuales;
+    
+    private Boolean tieneCreditoAnterior;
+    
+    @Min(value = 0, message = "Score must be positive")
+    @Max(value = 1000, message = "Score cannot exceed 1000")
+    private Integer scoreCrediticio;
+    
+    private String vehiculoMarca;
+    private String vehiculoModelo;
+    private String vehiculoVersion;
+    private Integer vehiculoAnio;
+    private String vehiculoSku;
+    
+    @DecimalMin(value = "0.0", message = "Precio must be positive")
+    private BigDecimal vehiculoPrecio;
+    
+    @Min(value = 0, message = "Kilómetros must be positive")
+    private Integer vehiculoKilometros;
+    
+    private String etapaActual;
+    private String estadoOferta;
+    private String estadoHandoff;
+    private String estadoDictamen;
+    private String asignadoA;
+    private Integer subsidiary;
+    private String countryCode;
+    
+    /** Grupo de validación del alta, donde los datos del cliente son obligatorios */
+    public interface Alta {
+    }
+}
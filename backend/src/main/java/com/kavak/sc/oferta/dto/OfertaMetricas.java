@@ -0,0 +1,21 @@
+package com.kavak.sc.oferta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfertaMetricas {
+    private String periodo; // "2025-01"
+    private String countryCode;
+    private UUID employeeId;
+    private Long ofertasGeneradas;
+    private BigDecimal montoTotalFinanciado;
+    private BigDecimal montoPromedioFinanciado;
+    private BigDecimal porcentajePromedio;
+}
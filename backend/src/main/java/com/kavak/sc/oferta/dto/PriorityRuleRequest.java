@@ -0,0 +1,25 @@
+package com.kavak.sc.oferta.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class PriorityRuleRequest {
+    
+    @NotBlank(message = "Nombre is required")
+    private String nombre;
+    
+    @NotBlank(message = "Condición is required")
+    private String condicion;
+    
+    @NotBlank(message = "Prioridad is required")
+    private String prioridad;
+    
+    @NotNull(message = "Puntaje is required")
+    private Integer puntaje;
+    
+    private Boolean activa = true;
+    
+    private String descripcion;
+}
@@ -0,0 +1,13 @@
+package com.kavak.sc.oferta.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class RefreshRequest {
+    
+    @NotBlank(message = "Refresh token is required")
+    @Size(max = 100, message = "Invalid refresh token")
+    private String refreshToken;
+}
@@ -0,0 +1,11 @@
+package com.kavak.sc.oferta.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RoleUpdateRequest {
+    
+    @NotBlank(message = "Role is required")
+    private String role;
+}
@@ -0,0 +1,38 @@
+package com.kavak.sc.oferta.dto;
+
+import com.kavak.sc.oferta.entity.AjustesSistema;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Vista inmutable de los ajustes vigentes de un país. Se comparte entre todos los
+ * requests y se reemplaza completa cuando cambian los ajustes. Serializa con los
+ * mismos campos que {@link AjustesSistema}.
+ */
+@Value
+public class SettingsSnapshot {
+    Integer id;
+    Integer porcentajeMaximoFinanciar;
+    String actualizadoPor;
+    String countryCode;
+    LocalDateTime updatedAt;
+    
+    /**
+     * Versión de los ajustes del país. Cada cambio inserta una fila nueva, así que el id
+     * la identifica; se usa como ETag y como id de los eventos del feed.
+     */
+    public String version() {
+        return countryCode + "-" + id;
+    }
+    
+    public static SettingsSnapshot from(AjustesSistema ajustes) {
+        return new SettingsSnapshot(
+                ajustes.getId(),
+                ajustes.getPorcentajeMaximoFinanciar(),
+                ajustes.getActualizadoPor(),
+                ajustes.getCountryCode(),
+                ajustes.getUpdatedAt()
+        );
+    }
+}
@@ -0,0 +1,54 @@
+package com.kavak.sc.oferta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * {@link SimulacionResponse} en columnas, para clientes que procesan muchas simulaciones.
+ * <p>
+ * Cada plazo es una posición en los arrays paralelos ({@code meses[i]},
+ * {@code cuotaCentavos[i]}, ...). Todo viaja como entero: los montos en centavos y las
+ * tasas en centésimas de punto porcentual (7550 = 75,50%).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulacionColumnarResponse {
+    private long montoTotalCentavos;
+    private long montoFinanciadoCentavos;
+    private int[] meses;
+    private long[] cuotaCentavos;
+    private int[] tnaBps;
+    private int[] taeBps;
+    
+    public static SimulacionColumnarResponse from(SimulacionResponse response) {
+        List<SimulacionResponse.Simulacion> simulaciones = response.getSimulaciones();
+        int size = simulaciones.size();
+        int[] meses = new int[size];
+        long[] cuotas = new long[size];
+        int[] tna = new int[size];
+        int[] tae = new int[size];
+        for (int i = 0; i < size; i++) {
+            SimulacionResponse.Simulacion simulacion = simulaciones.get(i);
+            meses[i] = simulacion.getMeses();
+            cuotas[i] = centavos(simulacion.getCuotaMensual());
+            tna[i] = bps(simulacion.getTna());
+            tae[i] = bps(simulacion.getTae());
+        }
+        return new SimulacionColumnarResponse(centavos(response.getMontoTotal()),
+                centavos(response.getMontoFinanciado()), meses, cuotas, tna, tae);
+    }
+    
+    static long centavos(BigDecimal monto) {
+        return monto.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+    
+    static int bps(BigDecimal tasa) {
+        return tasa.movePointRight(2).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+}
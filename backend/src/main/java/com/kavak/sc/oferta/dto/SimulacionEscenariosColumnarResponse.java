@@ -0,0 +1,54 @@
+package com.kavak.sc.oferta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link SimulacionEscenariosResponse} en columnas, con las mismas unidades que
+ * {@link SimulacionColumnarResponse}: centavos y centésimas de punto porcentual.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulacionEscenariosColumnarResponse {
+    private List<Resultado> resultados;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Resultado {
+        private String escenarioId;
+        private Integer porcentaje;
+        private long montoFinanciarCentavos;
+        private int[] cuotas;
+        private long[] valorCuotaCentavos;
+        private int[] tnaBps;
+        private int[] teaBps;
+    }
+    
+    public static SimulacionEscenariosColumnarResponse from(SimulacionEscenariosResponse response) {
+        List<Resultado> resultados = new ArrayList<>(response.getResultados().size());
+        for (SimulacionEscenariosResponse.Resultado resultado : response.getResultados()) {
+            List<SimulacionEscenariosResponse.Opcion> opciones = resultado.getOpciones();
+            int size = opciones.size();
+            int[] cuotas = new int[size];
+            long[] valores = new long[size];
+            int[] tna = new int[size];
+            int[] tea = new int[size];
+            for (int i = 0; i < size; i++) {
+                SimulacionEscenariosResponse.Opcion opcion = opciones.get(i);
+                cuotas[i] = opcion.getCuotas();
+                valores[i] = SimulacionColumnarResponse.centavos(opcion.getValorCuota());
+                tna[i] = SimulacionColumnarResponse.bps(opcion.getTna());
+                tea[i] = SimulacionColumnarResponse.bps(opcion.getTea());
+            }
+            resultados.add(new Resultado(resultado.getEscenarioId(), resultado.getPorcentaje(),
+                    SimulacionColumnarResponse.centavos(resultado.getMontoFinanciar()), cuotas, valores, tna, tea));
+        }
+        return new SimulacionEscenariosColumnarResponse(resultados);
+    }
+}
@@ -0,0 +1,35 @@
+package com.kavak.sc.oferta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulacionEscenariosResponse {
+    private List<Resultado> resultados;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Resultado {
+        private String escenarioId;
+        private Integer porcentaje;
+        private BigDecimal montoFinanciar;
+        private List<Opcion> opciones;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Opcion {
+        private Integer cuotas;
+        private BigDecimal valorCuota;
+        private BigDecimal tna;
+        private BigDecimal tea;
+    }
+}
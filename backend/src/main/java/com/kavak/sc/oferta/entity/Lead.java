@@ -0,0 +1,147 @@
+package com.kavak.sc.oferta.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "leads", indexes = {
+        // Bandeja de entrada: leads de un país ordenados por puntaje
+        @Index(name = "idx_leads_country_puntaje_id", columnList = "country_code, puntaje, id"),
+        @Index(name = "idx_leads_deal_id", columnList = "deal_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Lead {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @Column(name = "deal_id")
+    private String dealId;
+    
+    @Column(name = "cliente_nombre", nullable = false)
+    private String clienteNombre;
+    
+    @Column(name = "cliente_apellido", nullable = false)
+    private String clienteApellido;
+    
+    @Column(name = "cliente_dni", nullable = false)
+    private String clienteDni;
+    
+    @Column(name = "cliente_email")
+    private String clienteEmail;
+    
+    @Column(name = "cliente_telefono")
+    private String clienteTelefono;
+    
+    @Column(name = "cliente_ingresos_anuales")
+    private BigDecimal clienteIngresosAnuales;
+    
+    @Column(name = "tiene_credito_anterior")
+    private Boolean tieneCreditoAnterior;
+    
+    @Column(name = "score_crediticio")
+    private Integer scoreCrediticio;
+    
+    @Column(name = "vehiculo_marca")
+    private String vehiculoMarca;
+    
+    @Column(name = "vehiculo_modelo")
+    private String vehiculoModelo;
+    
+    @Column(name = "vehiculo_version")
+    private String vehiculoVersion;
+    
+    @Column(name = "vehiculo_anio")
+    private Integer vehiculoAnio;
+    
+    @Column(name = "vehiculo_sku")
+    private String vehiculoSku;
+    
+    @Column(name = "vehiculo_precio")
+    private BigDecimal vehiculoPrecio;
+    
+    @Column(name = "vehiculo_kilometros")
+    private Integer vehiculoKilometros;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "etapa_actual", nullable = false)
+    private Etapa etapaActual;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado_oferta", nullable = false)
+    private Estado estadoOferta;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado_handoff", nullable = false)
+    private Estado estadoHandoff;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado_dictamen", nullable = false)
+    private Estado estadoDictamen;
+    
+    @Column(name = "asignado_a")
+    private String asignadoA;
+    
+    @Column(name = "subsidiary")
+    private Integer subsidiary;
+    
+    @Column(name = "country_code", nullable = false, length = 2)
+    private String countryCode;
+    
+    // Resultado de las reglas de prioridad
+    @Column(name = "puntaje", nullable = false)
+    private Integer puntaje;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "prioridad", nullable = false)
+    private PriorityRule.Prioridad prioridad;
+    
+    // Bit i = la regla i del set compilado se cumple; válido sólo para reglas_version
+    @Column(name = "reglas_cumplidas", nullable = false)
+    private Long reglasCumplidas;
+    
+    @Column(name = "reglas_version", nullable = false)
+    private Long reglasVersion;
+    
+    @Column(name = "fecha_creacion")
+    private LocalDateTime fechaCreacion;
+    
+    @Column(name = "fecha_ultima_actualizacion")
+    private LocalDateTime fechaUltimaActualizacion;
+    
+    @PrePersist
+    protected void onCreate() {
+        fechaCreacion = LocalDateTime.now();
+        fechaUltimaActualizacion = fechaCreacion;
+        if (countryCode == null) {
+            countryCode = "AR"; // Default
+        }
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        fechaUltimaActualizacion = LocalDateTime.now();
+    }
+    
+    public enum Etapa {
+        OFERTA,
+        HANDOFF,
+        DICTAMEN
+    }
+    
+    public enum Estado {
+        PENDIENTE,
+        EN_PROCESO,
+        COMPLETADO,
+        RECHAZADO
+    }
+}
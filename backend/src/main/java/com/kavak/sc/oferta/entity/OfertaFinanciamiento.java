@@ -1,5 +1,6 @@
 package com.kavak.sc.oferta.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -10,7 +11,15 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "ofertas_financiamiento")
+@Table(name = "ofertas_financiamiento", indexes = {
+        // Índices para el historial paginado por (created_at, id)
+        @Index(name = "idx_ofertas_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_ofertas_created_by_created_at_id", columnList = "created_by, created_at, id"),
+        @Index(name = "idx_ofertas_country_created_at_id", columnList = "country_code, created_at, id"),
+        @Index(name = "idx_ofertas_deal_created_at_id", columnList = "deal_id, created_at, id"),
+        // Un reintento con la misma clave nunca crea una segunda oferta, aunque llegue a otra instancia
+        @Index(name = "uq_ofertas_idempotency_key", columnList = "idempotency_key", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -75,6 +84,22 @@ public class OfertaFinanciamiento {
     @Column(name = "country")
     private String country;
     
+    // SHA-256 de usuario + Idempotency-Key (o deal + payload); null en las ofertas del batch
+    @JsonIgnore
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+    
+    // Hash del payload y respuesta original (JSON), para que un reintento que llega a la
+    // base reciba exactamente la misma respuesta. Los tres campos de idempotencia quedan
+    // fuera del JSON de la API y de la exportación; el journal de write-behind sí los incluye
+    @JsonIgnore
+    @Column(name = "idempotency_request_hash", length = 64)
+    private String idempotencyRequestHash;
+    
+    @JsonIgnore
+    @Column(name = "idempotency_response", columnDefinition = "TEXT")
+    private String idempotencyResponse;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,62 @@
+package com.kavak.sc.oferta.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Contadores pre-agregados de ofertas por mes, país y usuario. Se actualizan en la
+ * misma transacción que inserta cada oferta, así que leer métricas no recorre
+ * {@code ofertas_financiamiento}.
+ */
+@Entity
+@Table(name = "ofertas_rollup_mensual")
+@IdClass(OfertaRollupMensual.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfertaRollupMensual {
+    
+    @Id
+    @Column(name = "mes", nullable = false)
+    private LocalDate mes;
+    
+    @Id
+    @Column(name = "country_code", nullable = false, length = 2)
+    private String countryCode;
+    
+    @Id
+    @Column(name = "created_by", nullable = false)
+    private UUID createdBy;
+    
+    @Column(name = "total_ofertas", nullable = false)
+    private Long totalOfertas;
+    
+    @Column(name = "suma_monto_financiado", nullable = false, precision = 19, scale = 2)
+    private BigDecimal sumaMontoFinanciado;
+    
+    @Column(name = "suma_monto_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal sumaMontoTotal;
+    
+    @Column(name = "suma_porcentaje", nullable = false)
+    private Long sumaPorcentaje;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate mes;
+        private String countryCode;
+        private UUID createdBy;
+    }
+}
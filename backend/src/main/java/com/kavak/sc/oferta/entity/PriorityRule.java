@@ -0,0 +1,56 @@
+package com.kavak.sc.oferta.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "lead_priority_rules")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriorityRule {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @Column(nullable = false)
+    private String nombre;
+    
+    // Ej: "ingresos_anuales > 15000000 AND score_crediticio >= 700"
+    @Column(nullable = false)
+    private String condicion;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Prioridad prioridad;
+    
+    @Column(nullable = false)
+    private Integer puntaje;
+    
+    @Column(nullable = false)
+    private Boolean activa;
+    
+    private String descripcion;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // En orden de menor a mayor prioridad
+    public enum Prioridad {
+        BAJA,
+        MEDIA,
+        ALTA
+    }
+}
@@ -0,0 +1,43 @@
+package com.kavak.sc.oferta.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Refresh token emitido. Sólo se guarda el SHA-256 del token: una fila ocupa unos
+ * 100 bytes y filtrar la tabla no permite renovar sesiones.
+ * <p>
+ * Cada login abre una familia; cada renovación marca el token usado y emite otro de la
+ * misma familia. Presentar un token ya usado revoca la familia entera.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+    
+    @Id
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+    
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+    
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "used_at")
+    private LocalDateTime usedAt;
+}
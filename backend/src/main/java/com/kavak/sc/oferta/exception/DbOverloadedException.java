@@ -0,0 +1,34 @@
+package com.kavak.sc.oferta.exception;
+
+import lombok.Getter;
+
+/**
+ * La base no tiene capacidad para atender el pedido dentro del tiempo de espera de su
+ * lane. Se responde 503 con Retry-After.
+ */
+@Getter
+public class DbOverloadedException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public DbOverloadedException(long retryAfterSeconds) {
+        super("Service temporarily overloaded, retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    /**
+     * Busca la excepción en la cadena de causas (el pool la envuelve en excepciones de
+     * Spring / Hibernate).
+     */
+    public static DbOverloadedException find(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof DbOverloadedException overloaded) {
+                return overloaded;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return null;
+    }
+}
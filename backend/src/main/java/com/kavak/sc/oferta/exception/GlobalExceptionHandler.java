@@ -1,5 +1,6 @@
 package com.kavak.sc.oferta.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -9,6 +10,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -27,11 +29,57 @@ public class GlobalExceptionHandler {
     
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException ex) {
+        // El rechazo por sobrecarga llega envuelto en la excepción de acceso a datos
+        DbOverloadedException overloaded = DbOverloadedException.find(ex);
+        if (overloaded != null) {
+            return handleDbOverloaded(overloaded);
+        }
         Map<String, String> error = new HashMap<>();
         error.put("error", ex.getMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
     
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleNotFound(NotFoundException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+    
+    @ExceptionHandler(IdempotencyKeyException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyKey(IdempotencyKeyException ex) {
+        HttpStatus status = switch (ex.getReason()) {
+            case INVALID -> HttpStatus.BAD_REQUEST;
+            case REUSED -> HttpStatus.UNPROCESSABLE_ENTITY;
+            case IN_FLIGHT -> HttpStatus.CONFLICT;
+        };
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        error.put("code", "idempotency_key_" + ex.getReason().name().toLowerCase());
+        return ResponseEntity.status(status).body(error);
+    }
+    
+    @ExceptionHandler(DbOverloadedException.class)
+    public ResponseEntity<Map<String, String>> handleDbOverloaded(DbOverloadedException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+    
+    /**
+     * Un pool acotado (p. ej. el de BCrypt) está lleno.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> handleRejectedExecution(RejectedExecutionException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Service temporarily overloaded, retry later");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+    
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleGenericException(Exception ex) {
         Map<String, String> error = new HashMap<>();
@@ -0,0 +1,41 @@
+package com.kavak.sc.oferta.exception;
+
+import lombok.Getter;
+
+/**
+ * Problema con la {@code Idempotency-Key} de un request. Cada motivo tiene su código HTTP
+ * para que el cliente lo distinga de un error de validación del payload.
+ */
+@Getter
+public class IdempotencyKeyException extends RuntimeException {
+    
+    public enum Reason {
+        /** Clave vacía o demasiado larga: 400 */
+        INVALID,
+        /** La clave ya se usó con otro payload: 422 */
+        REUSED,
+        /** Otro request con la clave todavía no terminó: 409, se puede reintentar */
+        IN_FLIGHT
+    }
+    
+    private final Reason reason;
+    
+    private IdempotencyKeyException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+    
+    public static IdempotencyKeyException invalida() {
+        return new IdempotencyKeyException(Reason.INVALID,
+                "Idempotency-Key inválida: debe tener entre 1 y 255 caracteres");
+    }
+    
+    public static IdempotencyKeyException reutilizada() {
+        return new IdempotencyKeyException(Reason.REUSED, "La Idempotency-Key ya se usó con un request distinto");
+    }
+    
+    public static IdempotencyKeyException enCurso() {
+        return new IdempotencyKeyException(Reason.IN_FLIGHT,
+                "Hay un request en curso con la misma Idempotency-Key; reintentar más tarde");
+    }
+}
@@ -0,0 +1,12 @@
+package com.kavak.sc.oferta.exception;
+
+/**
+ * El recurso no existe o el usuario no puede verlo. Se responde 404 en los dos casos para
+ * no revelar qué ids existen en otros países.
+ */
+public class NotFoundException extends RuntimeException {
+    
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,31 @@
+package com.kavak.sc.oferta.repository;
+
+import com.kavak.sc.oferta.entity.Lead;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface LeadRepository extends JpaRepository<Lead, UUID> {
+    
+    @Query("select l from Lead l where l.countryCode = :countryCode order by l.puntaje desc, l.id desc")
+    List<Lead> findInbox(@Param("countryCode") String countryCode, Pageable pageable);
+    
+    @Query("select l from Lead l where l.countryCode = :countryCode " +
+            "and l.puntaje <= :puntaje " +
+            "and (l.puntaje < :puntaje or (l.puntaje = :puntaje and l.id < :id)) " +
+            "order by l.puntaje desc, l.id desc")
+    List<Lead> findInboxAfter(@Param("countryCode") String countryCode,
+                              @Param("puntaje") Integer puntaje,
+                              @Param("id") UUID id,
+                              Pageable pageable);
+    
+    List<Lead> findByIdGreaterThanOrderByIdAsc(UUID id, Pageable pageable);
+    
+    boolean existsByReglasVersionNot(Long reglasVersion);
+}
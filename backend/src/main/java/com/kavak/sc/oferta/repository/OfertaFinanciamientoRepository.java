@@ -5,13 +5,15 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface OfertaFinanciamientoRepository extends JpaRepository<OfertaFinanciamiento, UUID> {
+public interface OfertaFinanciamientoRepository extends JpaRepository<OfertaFinanciamiento, UUID>, OfertaFinanciamientoRepositoryCustom {
     List<OfertaFinanciamiento> findByCreatedBy(UUID createdBy);
     List<OfertaFinanciamiento> findByCreatedByAndCountryCode(UUID createdBy, String countryCode);
     List<OfertaFinanciamiento> findByDealId(String dealId);
     List<OfertaFinanciamiento> findByCountryCode(String countryCode);
+    Optional<OfertaFinanciamiento> findByIdempotencyKey(String idempotencyKey);
 }
 
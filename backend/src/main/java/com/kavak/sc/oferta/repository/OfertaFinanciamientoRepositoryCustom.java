@@ -0,0 +1,26 @@
+package com.kavak.sc.oferta.repository;
+
+import com.kavak.sc.oferta.entity.OfertaFinanciamiento;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface OfertaFinanciamientoRepositoryCustom {
+    
+    /**
+     * Página de ofertas ordenadas por {@code (createdAt, id)} descendente, empezando
+     * después del cursor (keyset pagination). Los filtros en {@code null} no se aplican;
+     * un cursor en {@code null} devuelve la primera página.
+     */
+    List<OfertaFinanciamiento> findPage(UUID createdBy, String countryCode, String dealId,
+                                        LocalDateTime afterCreatedAt, UUID afterId, int limit);
+    
+    /**
+     * Recorre las ofertas con un cursor del servidor, trayendo {@code fetchSize} filas por
+     * viaje. Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    Stream<OfertaFinanciamiento> streamForExport(String countryCode, LocalDateTime from, LocalDateTime to,
+                                                 int fetchSize);
+}
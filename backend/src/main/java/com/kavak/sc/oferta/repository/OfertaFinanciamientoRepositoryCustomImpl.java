@@ -0,0 +1,92 @@
+package com.kavak.sc.oferta.repository;
+
+import com.kavak.sc.oferta.entity.OfertaFinanciamiento;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+class OfertaFinanciamientoRepositoryCustomImpl implements OfertaFinanciamientoRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<OfertaFinanciamiento> findPage(UUID createdBy, String countryCode, String dealId,
+                                               LocalDateTime afterCreatedAt, UUID afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OfertaFinanciamiento> query = cb.createQuery(OfertaFinanciamiento.class);
+        Root<OfertaFinanciamiento> oferta = query.from(OfertaFinanciamiento.class);
+        
+        // Sólo se agregan los filtros presentes, para que el plan use el índice compuesto
+        // que corresponde en lugar de un "(:x IS NULL OR ...)" genérico
+        List<Predicate> predicates = new ArrayList<>();
+        if (createdBy != null) {
+            predicates.add(cb.equal(oferta.get("createdBy"), createdBy));
+        }
+        if (countryCode != null) {
+            predicates.add(cb.equal(oferta.get("countryCode"), countryCode));
+        }
+        if (dealId != null) {
+            predicates.add(cb.equal(oferta.get("dealId"), dealId));
+        }
+        if (afterCreatedAt != null && afterId != null) {
+            // (created_at, id) < (:afterCreatedAt, :afterId). La cota redundante sobre created_at
+            // es la que el planner puede usar como rango del índice; el OR sólo desempata
+            predicates.add(cb.lessThanOrEqualTo(oferta.get("createdAt"), afterCreatedAt));
+            predicates.add(cb.or(
+                    cb.lessThan(oferta.get("createdAt"), afterCreatedAt),
+                    cb.and(
+                            cb.equal(oferta.get("createdAt"), afterCreatedAt),
+                            cb.lessThan(oferta.get("id"), afterId)
+                    )
+            ));
+        }
+        
+        query.select(oferta)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(oferta.get("createdAt")), cb.desc(oferta.get("id")));
+        
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+    
+    @Override
+    public Stream<OfertaFinanciamiento> streamForExport(String countryCode, LocalDateTime from, LocalDateTime to,
+                                                        int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OfertaFinanciamiento> query = cb.createQuery(OfertaFinanciamiento.class);
+        Root<OfertaFinanciamiento> oferta = query.from(OfertaFinanciamiento.class);
+        
+        List<Predicate> predicates = new ArrayList<>();
+        if (countryCode != null) {
+            predicates.add(cb.equal(oferta.get("countryCode"), countryCode));
+        }
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(oferta.get("createdAt"), from));
+        }
+        if (to != null) {
+            predicates.add(cb.lessThan(oferta.get("createdAt"), to));
+        }
+        
+        query.select(oferta)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(oferta.get("createdAt")), cb.asc(oferta.get("id")));
+        
+        // readOnly evita guardar snapshots para dirty checking de cada fila leída
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,10 @@
+package com.kavak.sc.oferta.repository;
+
+import com.kavak.sc.oferta.entity.OfertaRollupMensual;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OfertaRollupMensualRepository extends JpaRepository<OfertaRollupMensual, OfertaRollupMensual.Key>,
+        OfertaRollupMensualRepositoryCustom {
+}
@@ -0,0 +1,16 @@
+package com.kavak.sc.oferta.repository;
+
+import com.kavak.sc.oferta.entity.OfertaRollupMensual;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface OfertaRollupMensualRepositoryCustom {
+    
+    /**
+     * Rollups de los meses entre {@code desde} y {@code hasta} inclusive, del más reciente al
+     * más viejo. Los filtros en {@code null} no se aplican.
+     */
+    List<OfertaRollupMensual> findRange(LocalDate desde, LocalDate hasta, String countryCode, UUID createdBy);
+}
@@ -0,0 +1,44 @@
+package com.kavak.sc.oferta.repository;
+
+import com.kavak.sc.oferta.entity.OfertaRollupMensual;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class OfertaRollupMensualRepositoryCustomImpl implements OfertaRollupMensualRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<OfertaRollupMensual> findRange(LocalDate desde, LocalDate hasta, String countryCode, UUID createdBy) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OfertaRollupMensual> query = cb.createQuery(OfertaRollupMensual.class);
+        Root<OfertaRollupMensual> rollup = query.from(OfertaRollupMensual.class);
+        
+        // Sólo los filtros presentes: un "(:x IS NULL OR ...)" con el parámetro en null no
+        // tiene tipo y PostgreSQL rechaza la consulta
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.between(rollup.get("mes"), desde, hasta));
+        if (countryCode != null) {
+            predicates.add(cb.equal(rollup.get("countryCode"), countryCode));
+        }
+        if (createdBy != null) {
+            predicates.add(cb.equal(rollup.get("createdBy"), createdBy));
+        }
+        
+        query.select(rollup)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(rollup.get("mes")), cb.asc(rollup.get("countryCode")), cb.asc(rollup.get("createdBy")));
+        
+        return entityManager.createQuery(query).getResultList();
+    }
+}
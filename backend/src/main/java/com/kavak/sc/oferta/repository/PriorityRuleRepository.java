@@ -0,0 +1,13 @@
+package com.kavak.sc.oferta.repository;
+
+import com.kavak.sc.oferta.entity.PriorityRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PriorityRuleRepository extends JpaRepository<PriorityRule, UUID> {
+    List<PriorityRule> findAllByOrderByNombreAscIdAsc();
+}
@@ -0,0 +1,38 @@
+package com.kavak.sc.oferta.repository;
+
+import com.kavak.sc.oferta.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+    
+    /**
+     * Marca el token como usado si sigue vigente. Devuelve 1 sólo a un request aunque
+     * lleguen varios con el mismo token a la vez.
+     */
+    @Modifying
+    @Query("update RefreshToken t set t.usedAt = :now " +
+            "where t.tokenHash = :tokenHash and t.usedAt is null and t.expiresAt > :now")
+    int markUsed(@Param("tokenHash") String tokenHash, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("delete from RefreshToken t where t.familyId = :familyId")
+    int deleteFamily(@Param("familyId") UUID familyId);
+    
+    /**
+     * Borra las familias cuyo último token venció. Los tokens usados se conservan mientras
+     * la familia siga viva, para detectar el reuso de cualquiera de ellos y no sólo del
+     * último rotado.
+     */
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt <= :now and not exists (" +
+            "select f from RefreshToken f where f.familyId = t.familyId and f.expiresAt > :now)")
+    int deleteExpiredFamilies(@Param("now") LocalDateTime now);
+}
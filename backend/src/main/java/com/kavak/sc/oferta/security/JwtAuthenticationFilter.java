@@ -1,34 +1,45 @@
 package com.kavak.sc.oferta.security;
 
+import com.kavak.sc.oferta.entity.User;
+import com.kavak.sc.oferta.service.UserService;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtUtil jwtUtil;
-    private UserDetailsService userDetailsService;
+    private final Timer validTokenTimer;
+    private final Timer invalidTokenTimer;
+    private UserService userService;
     
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, MeterRegistry meterRegistry) {
         this.jwtUtil = jwtUtil;
+        this.validTokenTimer = Timer.builder("jwt.verification").tag("outcome", "valid").register(meterRegistry);
+        this.invalidTokenTimer = Timer.builder("jwt.verification").tag("outcome", "invalid").register(meterRegistry);
     }
     
     @Autowired
-    public void setUserDetailsService(@Lazy UserDetailsService userDetailsService) {
-        this.userDetailsService = userDetailsService;
+    public void setUserService(@Lazy UserService userService) {
+        this.userService = userService;
     }
     
     @Override
@@ -37,7 +48,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
+        final VerifiedToken token;
         
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -45,14 +56,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         
         jwt = authHeader.substring(7);
-        username = jwtUtil.extractUsername(jwt);
+        long start = System.nanoTime();
+        try {
+            // Una sola verificación por request (o ninguna si el token ya está cacheado)
+            token = jwtUtil.verify(jwt);
+            validTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (JwtException | IllegalArgumentException e) {
+            invalidTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.debug("Rejected JWT: {}", e.getMessage());
+            filterChain.doFilter(request, response);
+            return;
+        }
         
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            User user = resolvePrincipal(token);
             
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (user != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        user, null, user.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
@@ -60,5 +81,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+    
+    private User resolvePrincipal(VerifiedToken token) {
+        if (token.hasUserClaims()) {
+            try {
+                // El token firmado ya trae todo lo necesario: no hace falta consultar la base
+                User user = new User();
+                user.setId(token.getUserId());
+                user.setUsername(token.getUsername());
+                user.setRole(User.Role.valueOf(token.getRole()));
+                user.setCountryCode(token.getCountryCode());
+                return user;
+            } catch (IllegalArgumentException e) {
+                log.debug("Unknown role claim '{}', falling back to user lookup", token.getRole());
+            }
+        }
+        
+        // Tokens emitidos antes de los claims de usuario
+        try {
+            return userService.loadCachedUserByUsername(token.getUsername());
+        } catch (UsernameNotFoundException e) {
+            log.debug("Token subject no longer exists: {}", token.getUsername());
+            return null;
+        }
+    }
 }
-
@@ -1,38 +1,158 @@
 package com.kavak.sc.oferta.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.kavak.sc.oferta.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
     
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_COUNTRY = "country";
+    
     @Value("${jwt.secret}")
     private String secret;
     
     @Value("${jwt.expiration}")
     private Long expiration;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.cache.enabled:true}")
+    private boolean cacheEnabled;
+    
+    @Value("${jwt.cache.max-entries:10000}")
+    private long cacheMaxEntries;
+    
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+    
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+    
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+    
+    @PostConstruct
+    void init() {
+        // La clave y el parser son inmutables y thread-safe: se construyen una sola vez
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        
+        if (cacheEnabled) {
+            // Cada entrada vive hasta que expira el token que representa
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(cacheMaxEntries)
+                    .expireAfter(new Expiry<String, VerifiedToken>() {
+                        @Override
+                        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                            return Math.max(0, Duration.between(Instant.now(), token.getExpiresAt()).toNanos());
+                        }
+                        
+                        @Override
+                        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                            return currentDuration;
+                        }
+                        
+                        @Override
+                        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .recordStats()
+                    .build();
+            if (meterRegistry != null) {
+                CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.tokens");
+            }
+        }
+    }
+    
+    /**
+     * Verifica firma y expiración en una única pasada. Si el mismo token ya fue
+     * verificado y sigue vigente se devuelve el resultado cacheado sin volver a
+     * parsear ni calcular el HMAC.
+     *
+     * @throws JwtException si el token es inválido o está expirado
+     */
+    public VerifiedToken verify(String token) {
+        if (verifiedTokens == null) {
+            return parseAndVerify(token);
+        }
+        
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            return cached;
+        }
+        
+        VerifiedToken verified = parseAndVerify(token);
+        verifiedTokens.put(key, verified);
+        return verified;
+    }
+    
+    private VerifiedToken parseAndVerify(String token) {
+        // parseClaimsJws ya rechaza tokens expirados (ExpiredJwtException)
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            throw new JwtException("Token without subject or expiration");
+        }
+        String userId = claims.get(CLAIM_USER_ID, String.class);
+        return new VerifiedToken(
+                claims.getSubject(),
+                userId != null ? UUID.fromString(userId) : null,
+                claims.get(CLAIM_ROLE, String.class),
+                claims.get(CLAIM_COUNTRY, String.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration().toInstant()
+        );
+    }
+    
+    private static String hash(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
     }
     
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getUsername();
     }
     
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return Date.from(verify(token).getExpiresAt());
     }
     
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -41,19 +161,23 @@ public class JwtUtil {
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
     
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Duration getExpiration() {
+        return Duration.ofMillis(expiration);
     }
     
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user) {
+            // Con estos claims el filtro reconstruye el principal sin ir a la base
+            claims.put(CLAIM_USER_ID, user.getId().toString());
+            claims.put(CLAIM_ROLE, user.getRole().name());
+            if (user.getCountryCode() != null) {
+                claims.put(CLAIM_COUNTRY, user.getCountryCode());
+            }
+        }
         return createToken(claims, userDetails.getUsername());
     }
     
@@ -63,13 +187,12 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        VerifiedToken verified = verify(token);
+        return verified.getUsername().equals(userDetails.getUsername()) && !verified.isExpired(Instant.now());
     }
 }
-
@@ -0,0 +1,208 @@
+package com.kavak.sc.oferta.security;
+
+import com.kavak.sc.oferta.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiting por usuario y por IP con token buckets. Va en la cadena de seguridad
+ * justo después de {@link JwtAuthenticationFilter}, así que conoce al usuario pero todavía
+ * no se hizo ningún acceso a la base: lo que se rechaza acá no ocupa conexiones.
+ * <p>
+ * Los requests autenticados consumen primero del bucket de su usuario, con el límite de su
+ * rol en la ruta, y después del bucket de su IP, que comparten con los anónimos: muchas
+ * cuentas desde una misma IP no suman más que el límite por IP. La IP es
+ * {@code request.getRemoteAddr()}, que con {@code server.forward-headers-strategy: native}
+ * Tomcat reemplaza por la del cliente cuando el request llega de un proxy de confianza
+ * ({@code server.tomcat.remoteip.internal-proxies}).
+ * <p>
+ * Los buckets viven en un {@link ConcurrentHashMap} y se actualizan con CAS. Un barrido
+ * periódico descarta los que están llenos, que equivalen a uno nuevo. Si se llega a
+ * {@code max-keys}, las claves nuevas se rechazan con 429 hasta el próximo barrido: limitar
+ * de más es preferible a dejar de limitar justo cuando alguien está creando claves.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private List<Route> routes;
+    private Counter overflow;
+    
+    @PostConstruct
+    void init() {
+        routes = new ArrayList<>();
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            routes.add(new Route(route, meterRegistry));
+        }
+        overflow = Counter.builder("ratelimit.overflow")
+                .description("Requests rechazados porque se llegó a app.rate-limit.max-keys")
+                .register(meterRegistry);
+        Gauge.builder("ratelimit.buckets", buckets, Map::size).register(meterRegistry);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Route route = match(request.getMethod(), request.getRequestURI());
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        User user = authentication != null && authentication.getPrincipal() instanceof User u ? u : null;
+        Limit userLimit = user != null ? route.limitFor(user.getRole()) : null;
+        if (userLimit != null) {
+            String key = route.name + "|" + user.getRole() + "|" + user.getUsername();
+            if (reject(response, route.rejectedUser, tryAcquire(key, userLimit))) {
+                return;
+            }
+        }
+        if (route.perIp != null) {
+            String key = route.name + "|ip|" + request.getRemoteAddr();
+            if (reject(response, route.rejectedIp, tryAcquire(key, route.perIp))) {
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    private boolean reject(HttpServletResponse response, Counter rejected, long waitNanos) throws IOException {
+        if (waitNanos > 0) {
+            rejected.increment();
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests, retry later\"}");
+            return true;
+        }
+        return false;
+    }
+    
+    private long tryAcquire(String key, Limit limit) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= properties.getMaxKeys()) {
+                // Hasta que el barrido libere lugar
+                overflow.increment();
+                return TimeUnit.MILLISECONDS.toNanos(properties.getSweepIntervalMs());
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(limit.intervalNanos, limit.burst, now));
+        }
+        return bucket.tryAcquire(now);
+    }
+    
+    /**
+     * Descarta los buckets llenos. Un request que tomó el bucket justo antes de que se
+     * descarte consume de la instancia vieja: como mucho se admite uno de más.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:30000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+    
+    private Route match(String method, String path) {
+        for (Route route : routes) {
+            if ((route.methods.isEmpty() || route.methods.contains(method)) && PATH_MATCHER.match(route.path, path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+    
+    private static final class Route {
+        
+        final String name;
+        final Set<String> methods = new HashSet<>();
+        final String path;
+        final Limit perIp;
+        final Map<User.Role, Limit> perRole = new EnumMap<>(User.Role.class);
+        final Limit perRoleDefault;
+        final Counter rejectedUser;
+        final Counter rejectedIp;
+        
+        Route(RateLimitProperties.Route config, MeterRegistry meterRegistry) {
+            if (config.getName() == null || config.getPath() == null) {
+                throw new IllegalStateException("Rate limit routes need a name and a path");
+            }
+            name = config.getName();
+            path = config.getPath();
+            for (String method : config.getMethods()) {
+                methods.add(method.toUpperCase());
+            }
+            perIp = Limit.of(name, config.getPerIp());
+            Limit fallback = null;
+            for (Map.Entry<String, RateLimitProperties.Limit> entry : config.getPerRole().entrySet()) {
+                Limit limit = Limit.of(name, entry.getValue());
+                if ("default".equalsIgnoreCase(entry.getKey())) {
+                    fallback = limit;
+                } else {
+                    perRole.put(User.Role.valueOf(entry.getKey().toUpperCase().replace('-', '_')), limit);
+                }
+            }
+            perRoleDefault = fallback;
+            rejectedUser = Counter.builder("ratelimit.rejected").tag("route", name).tag("key", "user")
+                    .register(meterRegistry);
+            rejectedIp = Counter.builder("ratelimit.rejected").tag("route", name).tag("key", "ip")
+                    .register(meterRegistry);
+        }
+        
+        Limit limitFor(User.Role role) {
+            Limit limit = role != null ? perRole.get(role) : null;
+            return limit != null ? limit : perRoleDefault;
+        }
+    }
+    
+    private record Limit(long intervalNanos, int burst) {
+        
+        static Limit of(String route, RateLimitProperties.Limit config) {
+            if (config == null) {
+                return null;
+            }
+            if (config.getRate() <= 0 || config.getBurst() < 1) {
+                throw new IllegalStateException("Invalid rate limit for route " + route + ": " + config);
+            }
+            return new Limit(Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / config.getRate())), config.getBurst());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.kavak.sc.oferta.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Límites de {@link RateLimitFilter}. Cada request usa la primera ruta que coincide con su
+ * método y path; si ninguna coincide no se limita.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+    
+    private boolean enabled = true;
+    
+    // Tope de buckets en memoria; superado, las claves nuevas se rechazan hasta el próximo barrido
+    private int maxKeys = 100_000;
+    
+    // Cada cuánto se descartan los buckets llenos
+    private long sweepIntervalMs = 30_000;
+    
+    private List<Route> routes = new ArrayList<>();
+    
+    @Data
+    public static class Route {
+        
+        private String name;
+        
+        // Vacío: cualquier método
+        private List<String> methods = new ArrayList<>();
+        
+        // Patrón Ant, p. ej. /api/financing-offers/**
+        private String path;
+        
+        // Todos los requests de una IP, anónimos o no; se aplica además del límite por usuario
+        private Limit perIp;
+        
+        // Requests autenticados, por usuario; la clave es el rol (comercial-kavak, admin...) o "default"
+        private Map<String, Limit> perRole = new HashMap<>();
+    }
+    
+    @Data
+    public static class Limit {
+        
+        // Requests por segundo sostenidos
+        private double rate;
+        
+        // Requests seguidos que se admiten con el bucket lleno
+        private int burst;
+    }
+}
@@ -1,9 +1,12 @@
 package com.kavak.sc.oferta.security;
 
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -16,6 +19,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -30,27 +34,61 @@ import java.util.List;
 public class SecurityConfig {
     
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
     
     @Value("${cors.allowed-origins:http://localhost:3000}")
     private String allowedOrigins;
     
+    @Value("${server.port:8080}")
+    private int serverPort;
+    
+    @Value("${management.server.port:${server.port:8080}}")
+    private int managementPort;
+    
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationProvider authenticationProvider) throws Exception {
         http
             .csrf(AbstractHttpConfigurer::disable)
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .authorizeHttpRequests(auth -> auth
+                // El request original ya se autorizó; el filtro JWT no corre en el dispatch
+                // async (fin de un SseEmitter, CompletableFuture o streaming) ni en el de
+                // error, que si no convertiría un 403 en 401
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers(this::isInternalScrape).permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/api/settings").hasRole("ADMIN")
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .requestMatchers("/api/metrics/**").hasAnyRole("ADMIN", "LIDER")
+                // Las cuentas USER (autoregistro) no tienen acceso a datos de clientes
+                .requestMatchers("/api/leads/**").hasAnyRole("COMERCIAL_KAVAK", "COMERCIAL_KUNA", "LIDER", "ADMIN")
                 .anyRequest().authenticated()
             )
+            // Sin token válido (p. ej. vencido) es 401, para que el cliente renueve con su
+            // refresh token; 403 queda para un usuario autenticado sin el rol necesario
+            .exceptionHandling(exceptions -> exceptions
+                    .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authenticationProvider(authenticationProvider)
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            // Con el usuario ya resuelto y antes de cualquier acceso a la base
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
         
         return http.build();
     }
     
+    /**
+     * El scrape de Prometheus va sin credenciales sólo por el puerto de management, que no
+     * se publica junto con la API. En el puerto público cae en la regla de ADMIN.
+     */
+    private boolean isInternalScrape(HttpServletRequest request) {
+        return managementPort != serverPort
+                && request.getLocalPort() == managementPort
+                && request.getRequestURI().equals("/actuator/prometheus");
+    }
+    
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,48 @@
+package com.kavak.sc.oferta.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket en su forma GCRA: en lugar de tokens y último refill, el estado es un único
+ * long, el instante en que el bucket vuelve a estar lleno. Cada request lo corre un
+ * intervalo hacia adelante con un CAS, sin locks; se rechaza si quedaría más de
+ * {@code burst} intervalos en el futuro.
+ * <p>
+ * Los instantes son de {@link System#nanoTime()}.
+ */
+final class TokenBucket {
+    
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+    
+    TokenBucket(long intervalNanos, int burst, long now) {
+        this.intervalNanos = intervalNanos;
+        this.capacityNanos = intervalNanos * burst;
+        this.fullAt = new AtomicLong(now);
+    }
+    
+    /**
+     * Toma un token. Devuelve 0 si lo había, o los nanosegundos hasta que haya uno.
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = (current - now > 0 ? current : now) + intervalNanos;
+            long excess = next - now - capacityNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+    
+    /**
+     * Un bucket lleno es igual a uno nuevo: se puede descartar sin perder información.
+     */
+    boolean isFull(long now) {
+        return fullAt.get() - now <= 0;
+    }
+}
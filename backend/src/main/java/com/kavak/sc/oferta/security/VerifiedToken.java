@@ -0,0 +1,32 @@
+package com.kavak.sc.oferta.security;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Resultado inmutable de verificar un JWT: firma válida y claims ya extraídos.
+ * Se obtiene una sola vez por token y puede reutilizarse mientras no expire.
+ */
+@Value
+public class VerifiedToken {
+    String username;
+    UUID userId;
+    String role;
+    String countryCode;
+    Instant issuedAt;
+    Instant expiresAt;
+    
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+    
+    /**
+     * Tokens emitidos antes de incluir los claims de usuario no traen id ni rol
+     * y requieren buscar al usuario para reconstruir el principal.
+     */
+    public boolean hasUserClaims() {
+        return userId != null && role != null;
+    }
+}
@@ -0,0 +1,111 @@
+package com.kavak.sc.oferta.service;
+
+import com.kavak.sc.oferta.dto.EmployeeActivity;
+import com.kavak.sc.oferta.dto.EmployeeActivityPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Consulta del log de actividad por empleado, deal y rango de tiempo. El rango siempre
+ * se aplica (por defecto los últimos {@value #DEFAULT_RANGE_DAYS} días) para que
+ * PostgreSQL sólo lea las particiones mensuales involucradas; dentro del rango se pagina
+ * por keyset sobre {@code (occurred_at, id)}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActivityHistoryService {
+    
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int DEFAULT_RANGE_DAYS = 7;
+    
+    private static final RowMapper<EmployeeActivity> ROW_MAPPER = (rs, rowNum) -> new EmployeeActivity(
+            rs.getObject("id", UUID.class),
+            rs.getObject("employee_id", UUID.class),
+            rs.getString("employee_name"),
+            rs.getTimestamp("occurred_at").toLocalDateTime(),
+            EmployeeActivity.Action.valueOf(rs.getString("action")),
+            rs.getString("lead_id"),
+            rs.getString("deal_id"),
+            rs.getString("details"));
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Transactional(readOnly = true)
+    public EmployeeActivityPage buscar(UUID employeeId, String dealId, LocalDateTime from, LocalDateTime to,
+                                       String cursor, Integer size) {
+        LocalDateTime hasta = to != null ? to : LocalDateTime.now();
+        LocalDateTime desde = from != null ? from : hasta.minusDays(DEFAULT_RANGE_DAYS);
+        if (!desde.isBefore(hasta)) {
+            throw new RuntimeException("'from' must be before 'to'");
+        }
+        int limit = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        
+        StringBuilder sql = new StringBuilder("SELECT id, occurred_at, employee_id, employee_name, action, " +
+                "lead_id, deal_id, details FROM employee_activity WHERE occurred_at >= ? AND occurred_at < ?");
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.valueOf(desde));
+        args.add(Timestamp.valueOf(hasta));
+        if (employeeId != null) {
+            sql.append(" AND employee_id = ?");
+            args.add(employeeId);
+        }
+        if (dealId != null) {
+            sql.append(" AND deal_id = ?");
+            args.add(dealId);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            Timestamp afterAt = Timestamp.valueOf(LocalDateTime.parse(parts[0]));
+            sql.append(" AND (occurred_at < ? OR (occurred_at = ? AND id < ?))");
+            args.add(afterAt);
+            args.add(afterAt);
+            args.add(UUID.fromString(parts[1]));
+        }
+        // Un registro de más para saber si hay página siguiente sin un COUNT
+        sql.append(" ORDER BY occurred_at DESC, id DESC LIMIT ?");
+        args.add(limit + 1);
+        
+        List<EmployeeActivity> rows = jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            EmployeeActivity last = rows.get(limit - 1);
+            nextCursor = encodeCursor(last.getTimestamp(), last.getId());
+        }
+        return new EmployeeActivityPage(rows, nextCursor);
+    }
+    
+    static String encodeCursor(LocalDateTime timestamp, UUID id) {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            // Validar el formato antes de usarlo en la consulta
+            LocalDateTime.parse(parts[0]);
+            UUID.fromString(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.kavak.sc.oferta.service;
+
+import com.kavak.sc.oferta.config.DbAdmissionController;
+import com.kavak.sc.oferta.dto.EmployeeActivity;
+import com.kavak.sc.oferta.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log de actividad de empleados.
+ * <p>
+ * Registrar un evento sólo lo publica en un ring buffer sin locks; un thread de fondo lo
+ * inserta en lotes en {@code employee_activity}, particionada por mes. El request nunca
+ * espera a la base: si el buffer está lleno el evento se descarta y se cuenta en
+ * {@link #getDropped()}. Es un registro de auditoría operativa, no transaccional; los
+ * eventos en el buffer se pierden si la instancia se cae sin apagarse.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ActivityLogService {
+    
+    private static final String INSERT_SQL = "INSERT INTO employee_activity (" +
+            "id, occurred_at, employee_id, employee_name, action, lead_id, deal_id, details) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${app.activity.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.activity.buffer-size:8192}")
+    private int bufferSize;
+    
+    @Value("${app.activity.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${app.activity.flush-interval:250ms}")
+    private Duration flushInterval;
+    
+    // Particiones mensuales que se crean por adelantado, además del mes actual
+    @Value("${app.activity.partitions-ahead:2}")
+    private int partitionsAhead;
+    
+    private ActivityRingBuffer<EmployeeActivity> buffer;
+    private Thread writer;
+    private volatile boolean running;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        buffer = new ActivityRingBuffer<>(bufferSize);
+        asegurarParticiones();
+        running = true;
+        writer = new Thread(this::writeLoop, "activity-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Activity log enabled (buffer={}, batch={})", bufferSize, batchSize);
+    }
+    
+    public void registrar(EmployeeActivity.Action action, Authentication authentication,
+                          String leadId, String dealId, String details) {
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            registrar(action, user.getId(), user.getUsername(), leadId, dealId, details);
+        }
+    }
+    
+    public void registrar(EmployeeActivity.Action action, UUID employeeId, String employeeName,
+                          String leadId, String dealId, String details) {
+        if (buffer == null) {
+            return;
+        }
+        // El id se asigna en el writer: UUID.randomUUID() no es gratis en el thread del request
+        EmployeeActivity event = new EmployeeActivity(null, employeeId, employeeName, LocalDateTime.now(),
+                action, leadId, dealId, details);
+        if (!buffer.offer(event)) {
+            dropped.increment();
+        }
+    }
+    
+    public long getDropped() {
+        return dropped.sum();
+    }
+    
+    public long getWritten() {
+        return written.sum();
+    }
+    
+    public int getBufferDepth() {
+        return buffer != null ? buffer.size() : 0;
+    }
+    
+    /**
+     * Crea las particiones del mes actual y de los próximos meses si no existen. Los
+     * eventos fuera de rango caen en la partición default creada por la migración.
+     */
+    @Scheduled(cron = "${app.activity.partition-cron:0 30 3 * * *}")
+    public void asegurarParticiones() {
+        if (!enabled) {
+            return;
+        }
+        YearMonth mes = YearMonth.now();
+        for (int i = 0; i <= partitionsAhead; i++, mes = mes.plusMonths(1)) {
+            String sql = String.format("CREATE TABLE IF NOT EXISTS employee_activity_%d_%02d " +
+                            "PARTITION OF employee_activity FOR VALUES FROM ('%s') TO ('%s')",
+                    mes.getYear(), mes.getMonthValue(), mes.atDay(1), mes.plusMonths(1).atDay(1));
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (DataAccessException e) {
+                log.warn("Could not create activity partition for {}: {}", mes, e.getMessage());
+                return;
+            }
+        }
+    }
+    
+    private void writeLoop() {
+        DbAdmissionController.setCurrentLane(DbAdmissionController.Lane.LOW);
+        List<EmployeeActivity> batch = new ArrayList<>(batchSize);
+        while (running) {
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                LockSupport.parkNanos(flushInterval.toNanos());
+                continue;
+            }
+            flush(batch);
+            batch.clear();
+        }
+        // Lo que quedó en el buffer después de la última vuelta. Lo vacía este mismo thread:
+        // el ring buffer admite un solo consumidor
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+    
+    private void flush(List<EmployeeActivity> batch) {
+        for (EmployeeActivity event : batch) {
+            event.setId(UUID.randomUUID());
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), this::bind);
+            written.add(batch.size());
+        } catch (RuntimeException e) {
+            // Incluye DbOverloadedException: con el pool saturado el lane LOW se descarta primero
+            dropped.add(batch.size());
+            log.error("Activity log batch of {} events failed: {}", batch.size(), e.getMessage());
+        }
+    }
+    
+    private void bind(PreparedStatement ps, EmployeeActivity e) throws SQLException {
+        ps.setObject(1, e.getId());
+        ps.setTimestamp(2, Timestamp.valueOf(e.getTimestamp()));
+        ps.setObject(3, e.getEmployeeId());
+        ps.setString(4, e.getEmployeeName());
+        ps.setString(5, e.getAction().name());
+        ps.setString(6, e.getLeadId());
+        ps.setString(7, e.getDealId());
+        ps.setString(8, e.getDetails());
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(Duration.ofSeconds(10).toMillis());
+        if (writer.isAlive()) {
+            // Sigue escribiendo (base lenta); es daemon, así que no frena el apagado
+            log.warn("Activity log writer still flushing after 10s, {} events left in buffer", buffer.size());
+            return;
+        }
+        log.info("Activity log stopped, {} events written, {} dropped", written.sum(), dropped.sum());
+    }
+}
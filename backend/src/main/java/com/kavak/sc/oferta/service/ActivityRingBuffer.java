@@ -0,0 +1,87 @@
+package com.kavak.sc.oferta.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cola acotada sin locks para muchos productores y un único consumidor (esquema de
+ * Vyukov): cada slot lleva un número de secuencia que indica si está libre para el
+ * productor de la vuelta actual o publicado para el consumidor. Publicar es un CAS sobre
+ * la cola y dos escrituras; nunca bloquea, y si el buffer está lleno {@link #offer}
+ * devuelve false en lugar de esperar.
+ */
+final class ActivityRingBuffer<T> {
+    
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Sólo lo escribe el consumidor; volatile para que size() lo vea desde otros threads
+    private volatile long head;
+    
+    ActivityRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        mask = capacity - 1;
+        slots = new AtomicReferenceArray<>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+    
+    boolean offer(T item) {
+        while (true) {
+            long pos = tail.get();
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.lazySet(index, item);
+                    // Publica el slot: el consumidor lo lee cuando la secuencia es pos + 1
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // El slot todavía tiene un elemento de la vuelta anterior: buffer lleno
+                return false;
+            }
+            // diff > 0: otro productor tomó la posición; reintentar con la nueva cola
+        }
+    }
+    
+    /**
+     * Mueve hasta {@code max} elementos a {@code target}. Sólo debe llamarlo el consumidor.
+     *
+     * @return cantidad de elementos movidos
+     */
+    int drainTo(List<T> target, int max) {
+        int count = 0;
+        long pos = head;
+        while (count < max) {
+            int index = (int) (pos & mask);
+            if (sequences.get(index) != pos + 1) {
+                break; // vacío, o el productor aún no terminó de publicar
+            }
+            target.add(slots.get(index));
+            slots.lazySet(index, null);
+            // Libera el slot para la próxima vuelta de productores
+            sequences.set(index, pos + mask + 1);
+            pos++;
+            count++;
+        }
+        head = pos;
+        return count;
+    }
+    
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+    
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -1,50 +1,207 @@
 package com.kavak.sc.oferta.service;
 
+import com.kavak.sc.oferta.dto.SettingsSnapshot;
 import com.kavak.sc.oferta.entity.AjustesSistema;
 import com.kavak.sc.oferta.repository.AjustesSistemaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ajustes del sistema por país. Los ajustes cambian pocas veces al mes y se leen en
+ * cada simulación, así que se sirven desde un snapshot inmutable en memoria que se
+ * reemplaza atómicamente al actualizar.
+ * <p>
+ * La base nunca se lee ni se escribe dentro de {@code ConcurrentHashMap.compute}: las
+ * cargas de un mismo país se unen a una sola {@link CompletableFuture} en vuelo, y cada
+ * snapshot se instala sólo si no es más viejo que el que ya está (las filas son
+ * append-only, así que el id más alto es la versión vigente).
+ * <p>
+ * Cada snapshot nuevo se publica en {@link SettingsChangeFeed}: los cambios hechos acá al
+ * confirmarse, y los de otras instancias cuando una recarga encuentra una versión nueva.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AjustesSistemaService {
     
     private final AjustesSistemaRepository ajustesRepository;
+    private final MeterRegistry meterRegistry;
+    private final SettingsChangeFeed settingsChangeFeed;
     
     @Value("${app.default.country:AR}")
     private String defaultCountry;
     
-    public AjustesSistema getCurrentSettings() {
+    /**
+     * Tiempo máximo que un snapshot se sirve sin releerlo; cubre cambios hechos por
+     * otras instancias del servicio.
+     */
+    @Value("${app.settings.cache-ttl:5m}")
+    private Duration cacheTtl;
+    
+    private final ConcurrentMap<String, CachedSettings> snapshots = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<CachedSettings>> loading = new ConcurrentHashMap<>();
+    private Meter.MeterProvider<Counter> cacheHits;
+    private Meter.MeterProvider<Counter> cacheMisses;
+    private Meter.MeterProvider<Timer> lookupTimer;
+    
+    @PostConstruct
+    void initMetrics() {
+        cacheHits = Counter.builder("settings.cache").tag("result", "hit").withRegistry(meterRegistry);
+        cacheMisses = Counter.builder("settings.cache").tag("result", "miss").withRegistry(meterRegistry);
+        lookupTimer = Timer.builder("settings.lookup").withRegistry(meterRegistry);
+    }
+    
+    private record CachedSettings(SettingsSnapshot snapshot, long loadedAtNanos) {
+    }
+    
+    public SettingsSnapshot getCurrentSettings() {
         return getCurrentSettings(defaultCountry);
     }
     
-    public AjustesSistema getCurrentSettings(String countryCode) {
+    public SettingsSnapshot getCurrentSettings(String countryCode) {
+        long start = System.nanoTime();
+        try {
+            CachedSettings cached = snapshots.get(countryCode);
+            if (cached != null && isFresh(cached)) {
+                cacheHits.withTag("country", countryCode).increment();
+                return cached.snapshot();
+            }
+            
+            cacheMisses.withTag("country", countryCode).increment();
+            SettingsSnapshot loaded = reload(countryCode).snapshot();
+            publishIfChanged(cached, loaded);
+            return loaded;
+        } finally {
+            lookupTimer.withTag("country", countryCode).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    public SettingsSnapshot updatePorcentajeMaximo(Integer porcentajeMaximo) {
+        return updatePorcentajeMaximo(porcentajeMaximo, defaultCountry);
+    }
+    
+    public SettingsSnapshot updatePorcentajeMaximo(Integer porcentajeMaximo, String countryCode) {
+        AjustesSistema settings = new AjustesSistema();
+        settings.setPorcentajeMaximoFinanciar(porcentajeMaximo);
+        settings.setCountryCode(countryCode);
+        settings.setActualizadoPor("admin");
+        CachedSettings updated = cache(ajustesRepository.save(settings));
+        installAfterCommit(updated);
+        return updated.snapshot();
+    }
+    
+    /**
+     * Relee los ajustes de los países con suscriptores al feed, para propagar los cambios
+     * hechos en otras instancias sin esperar a que venza el snapshot.
+     */
+    @Scheduled(fixedDelayString = "${app.settings.sync-interval-ms:60000}")
+    public void syncSubscribedCountries() {
+        for (String countryCode : settingsChangeFeed.subscribedCountries()) {
+            CachedSettings previous = snapshots.get(countryCode);
+            SettingsSnapshot loaded = reload(countryCode).snapshot();
+            publishIfChanged(previous, loaded);
+        }
+    }
+    
+    /**
+     * Descarta los snapshots en memoria; la próxima lectura de cada país va a la base.
+     */
+    public void invalidate() {
+        snapshots.clear();
+    }
+    
+    /**
+     * Relee los ajustes del país. Las lecturas concurrentes esperan la misma carga, así que
+     * dos primeras lecturas no pueden crear dos filas por defecto.
+     */
+    private CachedSettings reload(String countryCode) {
+        CompletableFuture<CachedSettings> pending = new CompletableFuture<>();
+        CompletableFuture<CachedSettings> inFlight = loading.putIfAbsent(countryCode, pending);
+        if (inFlight != null) {
+            return inFlight.join();
+        }
+        try {
+            CachedSettings loaded = install(load(countryCode));
+            pending.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(countryCode, pending);
+        }
+    }
+    
+    /**
+     * Instala el snapshot salvo que ya haya uno más nuevo, p. ej. de una actualización
+     * confirmada mientras esta carga leía la fila anterior.
+     */
+    private CachedSettings install(CachedSettings loaded) {
+        return snapshots.merge(loaded.snapshot().getCountryCode(), loaded, (current, candidate) ->
+                current.snapshot().getId() > candidate.snapshot().getId() ? current : candidate);
+    }
+    
+    private CachedSettings load(String countryCode) {
         AjustesSistema settings = ajustesRepository.findTopByCountryCodeOrderByUpdatedAtDesc(countryCode);
         if (settings == null) {
             // Crear configuración inicial si no existe
+            log.info("No settings found for {}, creating defaults", countryCode);
             settings = new AjustesSistema();
             settings.setPorcentajeMaximoFinanciar(50);
             settings.setCountryCode(countryCode);
             settings.setActualizadoPor("system");
             settings = ajustesRepository.save(settings);
         }
-        return settings;
+        return cache(settings);
     }
     
-    public AjustesSistema updatePorcentajeMaximo(Integer porcentajeMaximo) {
-        return updatePorcentajeMaximo(porcentajeMaximo, defaultCountry);
+    private void publishIfChanged(CachedSettings previous, SettingsSnapshot loaded) {
+        if (previous != null && !previous.snapshot().getId().equals(loaded.getId())) {
+            settingsChangeFeed.publish(loaded);
+        }
     }
     
-    public AjustesSistema updatePorcentajeMaximo(Integer porcentajeMaximo, String countryCode) {
-        AjustesSistema settings = new AjustesSistema();
-        settings.setPorcentajeMaximoFinanciar(porcentajeMaximo);
-        settings.setCountryCode(countryCode);
-        settings.setActualizadoPor("admin");
-        return ajustesRepository.save(settings);
+    /**
+     * Instala y publica el snapshot recién guardado cuando la fila ya es visible; si la
+     * transacción hace rollback, los lectores siguen con el snapshot anterior.
+     */
+    private void installAfterCommit(CachedSettings updated) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    install(updated);
+                    settingsChangeFeed.publish(updated.snapshot());
+                }
+            });
+        } else {
+            // save() ya confirmó su propia transacción
+            install(updated);
+            settingsChangeFeed.publish(updated.snapshot());
+        }
+    }
+    
+    private CachedSettings cache(AjustesSistema settings) {
+        return new CachedSettings(SettingsSnapshot.from(settings), System.nanoTime());
+    }
+    
+    private boolean isFresh(CachedSettings cached) {
+        return System.nanoTime() - cached.loadedAtNanos() < cacheTtl.toNanos();
     }
 }
-
-
-
-
@@ -0,0 +1,92 @@
+package com.kavak.sc.oferta.service;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Motor de cálculo de cuotas fijas (sistema francés) sobre tipos primitivos.
+ * <p>
+ * Las tasas se expresan como índice sobre una grilla de TNA en centésimas de punto
+ * (70,00% a 90,00%). Para cada tasa y plazo los factores {@code r(1+r)^n} y
+ * {@code (1+r)^n - 1} se calculan una sola vez al iniciar, de modo que una cuota es
+ * una multiplicación y una división. Los montos viajan como {@code long} en centavos
+ * y recién se convierten a {@link BigDecimal} al armar la respuesta.
+ * <p>
+ * El cálculo reproduce exactamente la fórmula y el redondeo HALF_UP anteriores.
+ */
+@Component
+public class AmortizationEngine {
+    
+    /** Plazos de 12 a 84 meses (incremento de 6) */
+    public static final int[] PLAZOS = {12, 18, 24, 30, 36, 42, 48, 54, 60, 66, 72, 78, 84};
+    
+    /** TNA mínima y máxima de la grilla, en centésimas de punto porcentual */
+    static final int TNA_MIN_BPS = 7000;
+    static final int TNA_MAX_BPS = 9000;
+    public static final int RATE_COUNT = TNA_MAX_BPS - TNA_MIN_BPS + 1;
+    
+    private static final int TERM_COUNT = PLAZOS.length;
+    
+    // Tablas aplanadas [rateIndex * TERM_COUNT + termIndex]
+    private final double[] numerators = new double[RATE_COUNT * TERM_COUNT];
+    private final double[] denominators = new double[RATE_COUNT * TERM_COUNT];
+    
+    // TNA y TAE ya redondeadas a un decimal, compartidas por todas las respuestas
+    private final BigDecimal[] tnaRedondeada = new BigDecimal[RATE_COUNT];
+    private final BigDecimal[] taeRedondeada = new BigDecimal[RATE_COUNT];
+    
+    public AmortizationEngine() {
+        for (int rate = 0; rate < RATE_COUNT; rate++) {
+            double tna = tna(rate);
+            // Misma secuencia de operaciones que la fórmula original: tasa = tna / 100, r = tasa / 100
+            double r = (tna / 100) / 100;
+            for (int term = 0; term < TERM_COUNT; term++) {
+                double factor = Math.pow(1 + r, PLAZOS[term]);
+                numerators[rate * TERM_COUNT + term] = r * factor;
+                denominators[rate * TERM_COUNT + term] = factor - 1;
+            }
+            
+            // TAE = (1 + TNA/12)^12 - 1
+            double tae = (Math.pow(1 + tna / 1200, 12) - 1) * 100;
+            tnaRedondeada[rate] = BigDecimal.valueOf(tna).setScale(1, RoundingMode.HALF_UP);
+            taeRedondeada[rate] = BigDecimal.valueOf(tae).setScale(1, RoundingMode.HALF_UP);
+        }
+    }
+    
+    /**
+     * Calcula las cuotas de todos los plazos para un monto.
+     *
+     * @param montoCentavos monto financiado en centavos
+     * @param rates         índice de tasa por plazo (largo {@link #PLAZOS})
+     * @param cuotasCentavos destino: cuota mensual por plazo, en centavos, redondeada a
+     *                       unidades enteras como la cuota original
+     */
+    public void calcularCuotas(long montoCentavos, int[] rates, long[] cuotasCentavos) {
+        double monto = montoCentavos / 100.0;
+        for (int term = 0; term < TERM_COUNT; term++) {
+            int cell = rates[term] * TERM_COUNT + term;
+            double cuota = monto * numerators[cell] / denominators[cell];
+            // Math.round redondea medio hacia arriba sobre el valor binario exacto, igual
+            // que BigDecimal.valueOf(cuota).setScale(0, HALF_UP) para montos positivos
+            cuotasCentavos[term] = Math.round(cuota) * 100;
+        }
+    }
+    
+    public double tna(int rate) {
+        return (TNA_MIN_BPS + rate) / 100.0;
+    }
+    
+    public BigDecimal tnaRedondeada(int rate) {
+        return tnaRedondeada[rate];
+    }
+    
+    public BigDecimal taeRedondeada(int rate) {
+        return taeRedondeada[rate];
+    }
+    
+    public static long toCentavos(BigDecimal monto) {
+        return monto.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,76 @@
+package com.kavak.sc.oferta.service;
+
+import com.kavak.sc.oferta.config.DbAdmissionController;
+import com.kavak.sc.oferta.dto.AuthResponse;
+import com.kavak.sc.oferta.entity.User;
+import com.kavak.sc.oferta.security.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Emisión de tokens. Lo que pasa por BCrypt (login y registro) corre en
+ * {@code passwordHashExecutor} y libera el thread del request mientras tanto; renovar un
+ * access token con el refresh token no toca BCrypt.
+ */
+@Service
+@RequiredArgsConstructor
+public class AuthService {
+    
+    private final AuthenticationManager authenticationManager;
+    private final UserService userService;
+    private final RefreshTokenService refreshTokenService;
+    private final JwtUtil jwtUtil;
+    private final Executor passwordHashExecutor;
+    
+    /**
+     * @throws org.springframework.core.task.TaskRejectedException si el pool de BCrypt
+     *         está lleno
+     */
+    public CompletableFuture<AuthResponse> login(String username, String password) {
+        return onPasswordHashExecutor(() -> {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(username, password));
+            return issueTokens((User) authentication.getPrincipal());
+        });
+    }
+    
+    public CompletableFuture<AuthResponse> register(String username, String password) {
+        return onPasswordHashExecutor(() ->
+                issueTokens(userService.createUser(username, password, User.Role.USER)));
+    }
+    
+    /**
+     * El usuario se relee de la base: un cambio de rol aplica desde la próxima renovación.
+     */
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        User user = userService.getUserById(rotation.userId());
+        return response(user, rotation.token());
+    }
+    
+    public void logout(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
+    }
+    
+    private AuthResponse issueTokens(User user) {
+        return response(user, refreshTokenService.issue(user.getId()));
+    }
+    
+    private AuthResponse response(User user, String refreshToken) {
+        return new AuthResponse(jwtUtil.generateToken(user), user.getRole().name(), refreshToken,
+                jwtUtil.getExpiration().toSeconds());
+    }
+    
+    private <T> CompletableFuture<T> onPasswordHashExecutor(Supplier<T> work) {
+        // Los accesos a la base del pool conservan el lane del request
+        DbAdmissionController.Lane lane = DbAdmissionController.currentLane();
+        return CompletableFuture.supplyAsync(() -> DbAdmissionController.inLane(lane, work), passwordHashExecutor);
+    }
+}
@@ -1,89 +1,268 @@
 package com.kavak.sc.oferta.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kavak.sc.oferta.client.BeCleverClient;
+import com.kavak.sc.oferta.client.BeCleverException;
 import com.kavak.sc.oferta.dto.SimulacionResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Cotizaciones de BeClever.
+ * <p>
+ * {@link #cotizar} es una función pura de la tabla de tasas, el SKU, el país, la fecha
+ * de cotización, el precio y el porcentaje a financiar: dos pedidos iguales devuelven
+ * exactamente la misma respuesta. Encima hay un caché acotado con TTL, así que las
+ * simulaciones repetidas de un vendedor no recalculan nada.
+ * <p>
+ * Con {@code app.beclever.enabled} las cotizaciones se piden a BeClever por
+ * {@link BeCleverClient} y la tabla de tasas se refresca periódicamente. Si BeClever falla,
+ * tarda más que el deadline o tiene el circuito abierto, se cotiza acá con la última tabla
+ * buena; esas cotizaciones no se cachean, así que se vuelve a BeClever apenas se recupera.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class BeCleverService {
     
-    private final Random random = new Random();
+    /** Precio cotizado para vehículos fuera de catálogo: entre $5M y $20M ARS */
+    private static final long MONTO_MIN = 5_000_000;
+    private static final long MONTO_MAX = 20_000_000;
     
-    public SimulacionResponse simularCredito(BigDecimal montoFinanciado) {
-        // Generar monto total aleatorio entre $5M y $20M ARS
-        BigDecimal montoTotal = generarMontoTotal();
-        
-        // Generar simulaciones para diferentes plazos
-        List<SimulacionResponse.Simulacion> simulaciones = generarSimulaciones(montoFinanciado);
-        
-        return new SimulacionResponse(montoTotal, montoFinanciado, simulaciones);
+    /** Ajuste de la TNA de la tabla por vehículo y día, en centésimas de punto (+/-) */
+    private static final int SPREAD_BPS = 100;
+    
+    private final AmortizationEngine amortizationEngine;
+    private final MeterRegistry meterRegistry;
+    private final BeCleverClient beCleverClient;
+    
+    @Value("${app.simulation.quote-zone:America/Argentina/Buenos_Aires}")
+    private ZoneId quoteZone;
+    
+    @Value("${app.simulation.quote-cache.enabled:true}")
+    private boolean quoteCacheEnabled;
+    
+    @Value("${app.simulation.quote-cache.max-entries:10000}")
+    private long quoteCacheMaxEntries;
+    
+    @Value("${app.simulation.quote-cache.ttl:10m}")
+    private Duration quoteCacheTtl;
+    
+    private volatile RateTable rateTable = RateTable.mock();
+    
+    // Fecha de cotización vigente y el intervalo en que vale, para no resolver la zona en cada request
+    private volatile QuoteDay quoteDay = new QuoteDay(LocalDate.MIN, Long.MAX_VALUE, Long.MIN_VALUE);
+    
+    // Las respuestas cacheadas se comparten entre requests: no se modifican
+    private Cache<QuoteKey, SimulacionResponse> quotes;
+    
+    private Timer simulationTimer;
+    private Meter.MeterProvider<Counter> fallbacks;
+    
+    // Buffers de trabajo por thread: el cálculo no aloca nada hasta armar la respuesta
+    private static final ThreadLocal<int[]> RATES =
+            ThreadLocal.withInitial(() -> new int[AmortizationEngine.PLAZOS.length]);
+    private static final ThreadLocal<long[]> CUOTAS =
+            ThreadLocal.withInitial(() -> new long[AmortizationEngine.PLAZOS.length]);
+    
+    @PostConstruct
+    void init() {
+        simulationTimer = Timer.builder("simulation.credit").register(meterRegistry);
+        fallbacks = Counter.builder("beclever.fallback").withRegistry(meterRegistry);
+        if (quoteCacheEnabled) {
+            quotes = Caffeine.newBuilder()
+                    .maximumSize(quoteCacheMaxEntries)
+                    .expireAfterWrite(quoteCacheTtl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, quotes, "quotes");
+        }
     }
     
-    private BigDecimal generarMontoTotal() {
-        // Generar entre 5,000,000 y 20,000,000 ARS
-        int min = 5000000;
-        int max = 20000000;
-        int monto = random.nextInt(max - min + 1) + min;
-        return new BigDecimal(monto);
+    /**
+     * Simulación para los 13 plazos con la tabla vigente y la fecha de hoy. Con BeClever
+     * habilitado bloquea hasta la respuesta: los requests usan {@link #simularCreditoAsync}.
+     */
+    public SimulacionResponse simularCredito(String sku, String country, BigDecimal montoTotal, int porcentajeFinanciar) {
+        long start = System.nanoTime();
+        RateTable tabla = rateTable;
+        QuoteKey key = new QuoteKey(tabla.getVersion(), sku, country, fechaCotizacion(),
+                montoTotal, porcentajeFinanciar);
+        SimulacionResponse response;
+        if (beCleverClient.isEnabled()) {
+            // Nunca falla: el fallback local cubre cualquier error del cliente
+            response = cotizarRemoto(tabla, key).join();
+        } else {
+            response = quotes != null
+                    ? quotes.get(key, k -> cotizar(tabla, k))
+                    : cotizar(tabla, key);
+        }
+        simulationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return response;
     }
     
-    private List<SimulacionResponse.Simulacion> generarSimulaciones(BigDecimal montoFinanciado) {
-        List<SimulacionResponse.Simulacion> simulaciones = new ArrayList<>();
-        
-        // Plazos de 12 a 84 meses (incremento de 6)
-        int[] plazos = {12, 18, 24, 30, 36, 42, 48, 54, 60, 66, 72, 78, 84};
-        
-        for (int meses : plazos) {
-            SimulacionResponse.Simulacion simulacion = generarSimulacionParaPlazo(montoFinanciado, meses);
-            simulaciones.add(simulacion);
+    /**
+     * Como {@link #simularCredito}, sin bloquear el thread que llama mientras se espera a
+     * BeClever. Con el cliente deshabilitado el cálculo local corre en {@code executor}.
+     */
+    public CompletableFuture<SimulacionResponse> simularCreditoAsync(String sku, String country, BigDecimal montoTotal,
+                                                                     int porcentajeFinanciar, Executor executor) {
+        if (!beCleverClient.isEnabled()) {
+            return CompletableFuture.supplyAsync(
+                    () -> simularCredito(sku, country, montoTotal, porcentajeFinanciar), executor);
         }
-        
-        return simulaciones;
+        long start = System.nanoTime();
+        RateTable tabla = rateTable;
+        QuoteKey key = new QuoteKey(tabla.getVersion(), sku, country, fechaCotizacion(),
+                montoTotal, porcentajeFinanciar);
+        return cotizarRemoto(tabla, key).whenComplete((response, error) ->
+                simulationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+    
+    /**
+     * Refresca la tabla de tasas desde BeClever. Si falla, o la tabla nueva no es válida,
+     * sigue vigente la última buena.
+     */
+    @Scheduled(fixedDelayString = "${app.beclever.rate-table-refresh-ms:60000}")
+    public void refreshRateTable() {
+        if (!beCleverClient.isEnabled()) {
+            return;
+        }
+        beCleverClient.fetchRateTable().whenComplete((tabla, error) -> {
+            if (error != null) {
+                log.warn("Could not refresh BeClever rate table, keeping {}: {}",
+                        rateTable.getVersion(), error.getMessage());
+            } else if (!tabla.getVersion().equals(rateTable.getVersion())) {
+                rateTable = tabla;
+                log.info("BeClever rate table updated to {}", tabla.getVersion());
+            }
+        });
     }
     
-    private SimulacionResponse.Simulacion generarSimulacionParaPlazo(BigDecimal montoFinanciado, int meses) {
-        // TNA entre 70% y 90%
-        double tna = 70 + random.nextDouble() * 20;
+    /**
+     * Cotización sin estado ni caché: mismo resultado para los mismos argumentos.
+     */
+    public SimulacionResponse cotizar(RateTable tabla, String sku, String country, LocalDate fecha,
+                                      BigDecimal montoTotal, int porcentajeFinanciar) {
+        BigDecimal montoFinanciado = montoTotal.multiply(BigDecimal.valueOf(porcentajeFinanciar))
+                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        
+        int[] rates = RATES.get();
+        long[] cuotas = CUOTAS.get();
+        for (int i = 0; i < rates.length; i++) {
+            int rate = tabla.rateIndex(country, i) + spread(sku, fecha, i);
+            rates[i] = Math.max(0, Math.min(AmortizationEngine.RATE_COUNT - 1, rate));
+        }
         
-        // Calcular TAE (Tasa Anual Efectiva)
-        double tae = calcularTAE(tna);
+        amortizationEngine.calcularCuotas(AmortizationEngine.toCentavos(montoFinanciado), rates, cuotas);
         
-        // Calcular cuota mensual usando fórmula de cuota fija
-        BigDecimal cuotaMensual = calcularCuotaMensual(montoFinanciado, tna / 100, meses);
+        // Conversión a DTOs sólo en el borde de la respuesta
+        List<SimulacionResponse.Simulacion> simulaciones = new ArrayList<>(rates.length);
+        for (int i = 0; i < rates.length; i++) {
+            simulaciones.add(new SimulacionResponse.Simulacion(
+                    AmortizationEngine.PLAZOS[i],
+                    BigDecimal.valueOf(cuotas[i] / 100),
+                    amortizationEngine.tnaRedondeada(rates[i]),
+                    amortizationEngine.taeRedondeada(rates[i])
+            ));
+        }
         
-        return new SimulacionResponse.Simulacion(
-                meses,
-                cuotaMensual,
-                BigDecimal.valueOf(tna).setScale(1, RoundingMode.HALF_UP),
-                BigDecimal.valueOf(tae).setScale(1, RoundingMode.HALF_UP)
-        );
+        return new SimulacionResponse(montoTotal, montoFinanciado, simulaciones);
     }
     
-    private double calcularTAE(double tna) {
-        // Fórmula simplificada para TAE
-        // TAE = (1 + TNA/12)^12 - 1
-        return (Math.pow(1 + tna / 1200, 12) - 1) * 100;
+    /**
+     * Precio cotizado por BeClever para vehículos que no están en el catálogo. Siempre
+     * el mismo para un mismo SKU.
+     */
+    public BigDecimal cotizarMontoTotal(String sku) {
+        long monto = MONTO_MIN + Math.floorMod(mix(sku.hashCode()), MONTO_MAX - MONTO_MIN + 1);
+        return BigDecimal.valueOf(monto);
     }
     
-    private BigDecimal calcularCuotaMensual(BigDecimal monto, double tasaMensual, int meses) {
-        // Fórmula de cuota fija: C = P * [r(1+r)^n] / [(1+r)^n - 1]
-        // donde P = monto, r = tasa mensual, n = número de meses
-        
-        double r = tasaMensual / 100;
-        double factor = Math.pow(1 + r, meses);
-        double cuota = monto.doubleValue() * (r * factor) / (factor - 1);
-        
-        return BigDecimal.valueOf(cuota).setScale(0, RoundingMode.HALF_UP);
+    public RateTable getRateTable() {
+        return rateTable;
+    }
+    
+    /**
+     * Día de hoy en la zona de cotización.
+     */
+    LocalDate fechaCotizacion() {
+        long now = System.currentTimeMillis();
+        QuoteDay day = quoteDay;
+        if (now < day.fromMillis() || now >= day.untilMillis()) {
+            LocalDate fecha = Instant.ofEpochMilli(now).atZone(quoteZone).toLocalDate();
+            day = new QuoteDay(fecha,
+                    fecha.atStartOfDay(quoteZone).toInstant().toEpochMilli(),
+                    fecha.plusDays(1).atStartOfDay(quoteZone).toInstant().toEpochMilli());
+            quoteDay = day;
+        }
+        return day.fecha();
+    }
+    
+    private CompletableFuture<SimulacionResponse> cotizarRemoto(RateTable tabla, QuoteKey key) {
+        SimulacionResponse cached = quotes != null ? quotes.getIfPresent(key) : null;
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return beCleverClient.cotizar(key.sku(), key.country(), key.montoTotal(), key.porcentajeFinanciar())
+                .thenApply(response -> {
+                    if (quotes != null) {
+                        quotes.put(key, response);
+                    }
+                    return response;
+                })
+                .exceptionally(error -> {
+                    BeCleverException.Reason reason = BeCleverException.reasonOf(error);
+                    fallbacks.withTag("reason", reason.name().toLowerCase()).increment();
+                    return cotizar(tabla, key);
+                });
+    }
+    
+    private SimulacionResponse cotizar(RateTable tabla, QuoteKey key) {
+        return cotizar(tabla, key.sku(), key.country(), key.fecha(), key.montoTotal(), key.porcentajeFinanciar());
+    }
+    
+    /**
+     * Ajuste por riesgo del vehículo: depende sólo del SKU, la fecha y el plazo.
+     */
+    private static int spread(String sku, LocalDate fecha, int term) {
+        long h = mix(mix(sku.hashCode()) ^ (fecha.toEpochDay() * 31 + term));
+        return (int) Math.floorMod(h, 2L * SPREAD_BPS + 1) - SPREAD_BPS;
+    }
+    
+    // Finalizador de MurmurHash3: estable entre JVMs y bien distribuido
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+    
+    private record QuoteDay(LocalDate fecha, long fromMillis, long untilMillis) {
+    }
+    
+    private record QuoteKey(String tableVersion, String sku, String country, LocalDate fecha,
+                            BigDecimal montoTotal, int porcentajeFinanciar) {
     }
 }
-
-
-
-
@@ -1,84 +1,469 @@
 package com.kavak.sc.oferta.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kavak.sc.oferta.config.DbAdmissionController;
+import com.kavak.sc.oferta.config.ReadYourWritesTracker;
+import com.kavak.sc.oferta.dto.EmployeeActivity;
+import com.kavak.sc.oferta.dto.FinancingOfferBatchRequest;
 import com.kavak.sc.oferta.dto.FinancingOfferRequest;
+import com.kavak.sc.oferta.dto.SettingsSnapshot;
+import com.kavak.sc.oferta.dto.SimulacionEscenariosResponse;
 import com.kavak.sc.oferta.dto.SimulacionResponse;
-import com.kavak.sc.oferta.entity.AjustesSistema;
 import com.kavak.sc.oferta.entity.OfertaFinanciamiento;
+import com.kavak.sc.oferta.entity.User;
+import com.kavak.sc.oferta.exception.IdempotencyKeyException;
 import com.kavak.sc.oferta.repository.OfertaFinanciamientoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class FinancingOfferService {
     
-    private final OfertaFinanciamientoRepository ofertaRepository;
+    private final OfertaWriteBehindService ofertaWriter;
     private final BeCleverService beCleverService;
     private final AjustesSistemaService ajustesService;
+    private final VehiclePriceCatalog vehiclePriceCatalog;
+    private final Executor simulationExecutor;
+    private final Executor offerContinuationExecutor;
+    private final ActivityLogService activityLog;
+    private final ReadYourWritesTracker readYourWrites;
+    private final MeterRegistry meterRegistry;
+    private final IdempotencyStore idempotencyStore;
+    private final OfertaFinanciamientoRepository ofertaRepository;
+    private final ObjectMapper objectMapper;
+    
+    private Meter.MeterProvider<Counter> porcentajeRechazado;
+    private Counter coalescidas;
+    private Meter.MeterProvider<Counter> replays;
+    
+    // Simulaciones en curso por clave: el primer request calcula y guarda, los idénticos
+    // que llegan mientras tanto esperan su resultado. La entrada se quita al terminar.
+    private final ConcurrentHashMap<SimulacionKey, CompletableFuture<SimulacionResponse>> enCurso =
+            new ConcurrentHashMap<>();
+    // Claves de idempotencia en curso con el hash de su payload: la misma clave con otro
+    // payload mientras el primero no terminó responde 409
+    private final ConcurrentHashMap<String, String> clavesEnCurso = new ConcurrentHashMap<>();
     
     @Value("${app.default.country:AR}")
     private String defaultCountry;
     
-    public SimulacionResponse crearSimulacion(FinancingOfferRequest request, Authentication authentication) {
+    @Value("${app.catalog.require-price:false}")
+    private boolean requireCatalogPrice;
+    
+    /**
+     * Simula y guarda una oferta. Los requests idénticos concurrentes (mismo usuario, deal,
+     * SKU, porcentaje y país; típicamente doble click o reintentos del front) comparten un
+     * único cálculo y una única oferta guardada.
+     * <p>
+     * Con {@code idempotencyKey}, o si el request trae dealId, un reintento del mismo
+     * request devuelve la respuesta original sin simular ni guardar de nuevo. La clave
+     * implícita (deal + hash del payload) vale por el día de cotización.
+     * <p>
+     * La validación corre en el thread del request y sus errores se lanzan directamente;
+     * la espera a BeClever no ocupa el thread del request.
+     */
+    public CompletableFuture<SimulacionResponse> crearSimulacion(FinancingOfferRequest request,
+                                                                 Authentication authentication, String idempotencyKey) {
         // Determinar país (del request o default)
         String countryCode = request.getCountry() != null ? request.getCountry() : defaultCountry;
         
+        // Obtener usuario actual (el principal se reconstruye desde los claims del JWT)
+        UUID userId = ((User) authentication.getPrincipal()).getId();
+        
+        // Reintento de un request ya respondido: una búsqueda en memoria y listo
+        Idempotencia idempotencia = idempotencia(userId, idempotencyKey, request);
+        if (idempotencia != null) {
+            IdempotencyStore.Entry previa = idempotencyStore.get(idempotencia.clave());
+            if (previa != null) {
+                return CompletableFuture.completedFuture(replay(idempotencia, previa, "memory"));
+            }
+            // El mismo payload se resuelve abajo con la simulación en curso
+            String hashEnCurso = clavesEnCurso.putIfAbsent(idempotencia.clave(), idempotencia.requestHash());
+            if (hashEnCurso != null && !hashEnCurso.equals(idempotencia.requestHash())) {
+                throw IdempotencyKeyException.enCurso();
+            }
+            if (hashEnCurso == null) {
+                CompletableFuture<SimulacionResponse> resultado;
+                try {
+                    resultado = coalescer(request, authentication, countryCode, userId, idempotencia);
+                } catch (RuntimeException | Error e) {
+                    clavesEnCurso.remove(idempotencia.clave(), idempotencia.requestHash());
+                    throw e;
+                }
+                return resultado.whenComplete((simulacion, error) ->
+                        clavesEnCurso.remove(idempotencia.clave(), idempotencia.requestHash()));
+            }
+        }
+        return coalescer(request, authentication, countryCode, userId, idempotencia);
+    }
+    
+    private CompletableFuture<SimulacionResponse> coalescer(FinancingOfferRequest request, Authentication authentication,
+                                                            String countryCode, UUID userId, Idempotencia idempotencia) {
+        SimulacionKey key = SimulacionKey.of(userId, request, countryCode);
+        CompletableFuture<SimulacionResponse> propia = new CompletableFuture<>();
+        CompletableFuture<SimulacionResponse> existente = enCurso.putIfAbsent(key, propia);
+        if (existente != null) {
+            coalescidas.increment();
+            if (idempotencia == null) {
+                return existente;
+            }
+            // Otra clave para el mismo request: sus reintentos también ven la respuesta
+            return existente.thenApply(simulacion -> {
+                idempotencyStore.putIfAbsent(idempotencia.clave(), idempotencia.requestHash(), simulacion);
+                return simulacion;
+            });
+        }
+        CompletableFuture<SimulacionResponse> resultado;
+        try {
+            resultado = simular(request, authentication, countryCode, userId, idempotencia);
+        } catch (RuntimeException | Error e) {
+            // Los que esperaban reciben el mismo error (por ejemplo, porcentaje excedido)
+            propia.completeExceptionally(e);
+            enCurso.remove(key, propia);
+            throw e;
+        }
+        resultado.whenComplete((simulacion, error) -> {
+            if (error != null) {
+                propia.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                propia.complete(simulacion);
+            }
+            enCurso.remove(key, propia);
+        });
+        return propia;
+    }
+    
+    private CompletableFuture<SimulacionResponse> simular(FinancingOfferRequest request, Authentication authentication,
+                                                          String countryCode, UUID userId, Idempotencia idempotencia) {
         // Validar que el porcentaje no exceda el máximo del sistema para este país
-        AjustesSistema settings = ajustesService.getCurrentSettings(countryCode);
-        if (request.getPorcentajeFinanciar() > settings.getPorcentajeMaximoFinanciar()) {
-            throw new RuntimeException("El porcentaje a financiar excede el máximo permitido: " + 
-                    settings.getPorcentajeMaximoFinanciar() + "%");
+        SettingsSnapshot settings = ajustesService.getCurrentSettings(countryCode);
+        validarPorcentaje(request.getPorcentajeFinanciar(), settings);
+        
+        // Generar simulación con BeClever sobre el precio del vehículo. Sin BeClever se
+        // calcula acá mismo (Runnable::run): no tiene sentido pasar a otro thread
+        String sku = request.getVehiculo().getSku();
+        CompletableFuture<SimulacionResponse> cotizacion = beCleverService.simularCreditoAsync(
+                sku, countryCode, obtenerMontoTotal(sku), request.getPorcentajeFinanciar(), Runnable::run);
+        return despues(cotizacion, simulacion -> guardar(request, authentication, countryCode, userId,
+                idempotencia, simulacion));
+    }
+    
+    private SimulacionResponse guardar(FinancingOfferRequest request, Authentication authentication, String countryCode,
+                                       UUID userId, Idempotencia idempotencia, SimulacionResponse simulacion) {
+        // Guardar oferta en base de datos
+        OfertaFinanciamiento oferta = construirOferta(userId, request.getCliente(), request.getVehiculo(),
+                request.getPorcentajeFinanciar(), simulacion.getMontoTotal(), simulacion.getMontoFinanciado(),
+                countryCode, request.getDealId(), request.getSubsidiary(), request.getCountry());
+        
+        if (idempotencia != null) {
+            oferta.setIdempotencyKey(idempotencia.clave());
+            oferta.setIdempotencyRequestHash(idempotencia.requestHash());
+            oferta.setIdempotencyResponse(toJson(simulacion));
+        }
+        try {
+            ofertaWriter.guardar(oferta);
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencia == null) {
+                throw e;
+            }
+            // El índice único rechazó la clave: el primer intento se guardó en otra instancia
+            // o antes de que venciera la entrada en memoria
+            return replayGuardada(idempotencia, oferta, simulacion);
+        }
+        if (idempotencia != null) {
+            idempotencyStore.putIfAbsent(idempotencia.clave(), idempotencia.requestHash(), simulacion);
         }
+        // Con write-behind la oferta se inserta después del request: el historial de este
+        // usuario se lee del primario por un rato
+        readYourWrites.registrarEscritura(userId);
+        activityLog.registrar(EmployeeActivity.Action.SIMULATION_CREATED, authentication, null,
+                request.getDealId(), "Simulación creada: " + request.getPorcentajeFinanciar() + "%");
         
-        // Obtener usuario actual
-        UUID userId = UUID.fromString(authentication.getName());
+        return simulacion;
+    }
+    
+    /**
+     * Simula todos los escenarios de un request con una sola lectura de ajustes, los
+     * calcula en paralelo y guarda todas las ofertas en una única transacción.
+     */
+    public CompletableFuture<SimulacionEscenariosResponse> crearSimulaciones(FinancingOfferBatchRequest request,
+                                                                          Authentication authentication) {
+        String countryCode = request.getCountry() != null ? request.getCountry() : defaultCountry;
         
-        // Generar simulación con BeClever
-        SimulacionResponse simulacion = beCleverService.simularCredito(
-                calcularMontoFinanciado(request)
-        );
+        // Validar todos los escenarios antes de simular ninguno
+        SettingsSnapshot settings = ajustesService.getCurrentSettings(countryCode);
+        for (FinancingOfferBatchRequest.Escenario escenario : request.getEscenarios()) {
+            validarPorcentaje(escenario.getPorcentajeFinanciar(), settings);
+        }
         
-        // Guardar oferta en base de datos
+        UUID userId = ((User) authentication.getPrincipal()).getId();
+        
+        // Mismo vehículo para todos los escenarios: un único precio
+        String sku = request.getVehiculo().getSku();
+        BigDecimal montoTotal = obtenerMontoTotal(sku);
+        
+        List<CompletableFuture<SimulacionResponse>> futures = new ArrayList<>(request.getEscenarios().size());
+        for (FinancingOfferBatchRequest.Escenario escenario : request.getEscenarios()) {
+            int porcentaje = escenario.getPorcentajeFinanciar();
+            futures.add(beCleverService.simularCreditoAsync(sku, countryCode, montoTotal, porcentaje, simulationExecutor));
+        }
+        
+        CompletableFuture<Void> todas = CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+        return despues(todas, ignored -> guardarEscenarios(request, authentication, countryCode, userId, montoTotal,
+                futures));
+    }
+    
+    private SimulacionEscenariosResponse guardarEscenarios(FinancingOfferBatchRequest request,
+                                                           Authentication authentication, String countryCode,
+                                                           UUID userId, BigDecimal montoTotal,
+                                                           List<CompletableFuture<SimulacionResponse>> futures) {
+        List<SimulacionEscenariosResponse.Resultado> resultados = new ArrayList<>(futures.size());
+        List<OfertaFinanciamiento> ofertas = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            FinancingOfferBatchRequest.Escenario escenario = request.getEscenarios().get(i);
+            SimulacionResponse simulacion = futures.get(i).join();
+            
+            resultados.add(toResultado(escenario, simulacion));
+            ofertas.add(construirOferta(userId, request.getCliente(), request.getVehiculo(),
+                    escenario.getPorcentajeFinanciar(), montoTotal, simulacion.getMontoFinanciado(),
+                    countryCode, request.getDealId(), request.getSubsidiary(), request.getCountry()));
+        }
+        
+        // Todas las ofertas en una sola transacción (y un solo checkout de conexión)
+        ofertaWriter.guardarTodas(ofertas);
+        readYourWrites.registrarEscritura(userId);
+        activityLog.registrar(EmployeeActivity.Action.SIMULATION_CREATED, authentication, null,
+                request.getDealId(), describirEscenarios(request.getEscenarios()));
+        
+        return new SimulacionEscenariosResponse(resultados);
+    }
+    
+    private static String describirEscenarios(List<FinancingOfferBatchRequest.Escenario> escenarios) {
+        StringBuilder details = new StringBuilder("Simulación creada: ").append(escenarios.size()).append(" escenarios");
+        for (FinancingOfferBatchRequest.Escenario escenario : escenarios) {
+            details.append(", ").append(escenario.getPorcentajeFinanciar()).append('%');
+        }
+        return details.toString();
+    }
+    
+    @PostConstruct
+    void initMetrics() {
+        porcentajeRechazado = Counter.builder("offers.percentage.rejected").withRegistry(meterRegistry);
+        coalescidas = Counter.builder("offers.coalesced")
+                .description("Requests resueltos con la simulación en curso de un request idéntico")
+                .register(meterRegistry);
+        replays = Counter.builder("offers.idempotent.replayed").withRegistry(meterRegistry);
+    }
+    
+    /**
+     * Clave de idempotencia del request, o {@code null} si no trae Idempotency-Key ni
+     * dealId. Se guarda hasheada junto con el usuario: la misma clave de dos usuarios no
+     * colisiona.
+     */
+    private Idempotencia idempotencia(UUID userId, String idempotencyKey, FinancingOfferRequest request) {
+        if (idempotencyKey == null && request.getDealId() == null) {
+            return null;
+        }
+        String requestHash;
+        try {
+            requestHash = IdempotencyStore.sha256(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize offer request", e);
+        }
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > 255) {
+                throw IdempotencyKeyException.invalida();
+            }
+            return new Idempotencia(IdempotencyStore.sha256(userId + "|key|" + idempotencyKey), requestHash);
+        }
+        // La cotización cambia de un día a otro: la clave implícita también
+        return new Idempotencia(IdempotencyStore.sha256(userId + "|deal|" + request.getDealId() + "|"
+                + requestHash + "|" + beCleverService.fechaCotizacion()), requestHash);
+    }
+    
+    private SimulacionResponse replay(Idempotencia idempotencia, IdempotencyStore.Entry previa, String source) {
+        if (!previa.requestHash().equals(idempotencia.requestHash())) {
+            throw IdempotencyKeyException.reutilizada();
+        }
+        replays.withTag("source", source).increment();
+        return previa.response();
+    }
+    
+    /**
+     * Respuesta original de una oferta que ya estaba guardada con la clave, tal como se
+     * guardó: un cambio de tabla de tasas o de día no la altera.
+     *
+     * @param actual cotización de este request; sólo se devuelve para filas anteriores a
+     *               {@code migration_idempotency_response.sql}, que no guardaron la respuesta
+     */
+    private SimulacionResponse replayGuardada(Idempotencia idempotencia, OfertaFinanciamiento nueva,
+                                              SimulacionResponse actual) {
+        // Sin fila visible, el primer intento todavía no terminó de guardarse
+        OfertaFinanciamiento guardada = ofertaRepository.findByIdempotencyKey(idempotencia.clave())
+                .orElseThrow(IdempotencyKeyException::enCurso);
+        boolean mismoRequest = guardada.getIdempotencyRequestHash() != null
+                ? guardada.getIdempotencyRequestHash().equals(idempotencia.requestHash())
+                : Objects.equals(guardada.getVehiculoSku(), nueva.getVehiculoSku())
+                        && Objects.equals(guardada.getPorcentajeFinanciar(), nueva.getPorcentajeFinanciar())
+                        && Objects.equals(guardada.getCountryCode(), nueva.getCountryCode())
+                        && Objects.equals(guardada.getDealId(), nueva.getDealId());
+        if (!mismoRequest) {
+            throw IdempotencyKeyException.reutilizada();
+        }
+        SimulacionResponse simulacion = guardada.getIdempotencyResponse() != null
+                ? fromJson(guardada.getIdempotencyResponse())
+                : actual;
+        IdempotencyStore.Entry entry = idempotencyStore.putIfAbsent(
+                idempotencia.clave(), idempotencia.requestHash(), simulacion);
+        return replay(idempotencia, entry, "db");
+    }
+    
+    /**
+     * Sigue con {@code work} (guardar la oferta) cuando la cotización termina, en el lane
+     * de admisión del request. Si ya terminó (cálculo local o caché) sigue en el thread
+     * actual; si no, la respuesta de BeClever llega en un thread de I/O del cliente que no
+     * debe bloquearse con la base, y se sigue en {@code offerContinuationExecutor}. Si ese
+     * pool está lleno el request falla con {@link RejectedExecutionException} (503).
+     */
+    private <T, R> CompletableFuture<R> despues(CompletableFuture<T> cotizacion, Function<T, R> work) {
+        DbAdmissionController.Lane lane = DbAdmissionController.currentLane();
+        Function<T, R> enLane = value -> DbAdmissionController.inLane(lane, () -> work.apply(value));
+        if (cotizacion.isDone()) {
+            return cotizacion.thenApply(enLane);
+        }
+        // thenApplyAsync dejaría el rechazo en el thread de I/O y el request sin completar
+        CompletableFuture<R> resultado = new CompletableFuture<>();
+        cotizacion.whenComplete((value, error) -> {
+            if (error != null) {
+                resultado.completeExceptionally(error);
+                return;
+            }
+            try {
+                offerContinuationExecutor.execute(() -> {
+                    try {
+                        resultado.complete(enLane.apply(value));
+                    } catch (Throwable e) {
+                        resultado.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                resultado.completeExceptionally(e);
+            }
+        });
+        return resultado;
+    }
+    
+    private String toJson(SimulacionResponse simulacion) {
+        try {
+            return objectMapper.writeValueAsString(simulacion);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize simulation response", e);
+        }
+    }
+    
+    private SimulacionResponse fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, SimulacionResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored simulation response", e);
+        }
+    }
+    
+    private void validarPorcentaje(Integer porcentajeFinanciar, SettingsSnapshot settings) {
+        if (porcentajeFinanciar > settings.getPorcentajeMaximoFinanciar()) {
+            porcentajeRechazado.withTag("country", settings.getCountryCode()).increment();
+            throw new RuntimeException("El porcentaje a financiar excede el máximo permitido: " + 
+                    settings.getPorcentajeMaximoFinanciar() + "%");
+        }
+    }
+    
+    private SimulacionEscenariosResponse.Resultado toResultado(FinancingOfferBatchRequest.Escenario escenario,
+                                                              SimulacionResponse simulacion) {
+        List<SimulacionEscenariosResponse.Opcion> opciones = new ArrayList<>(simulacion.getSimulaciones().size());
+        for (SimulacionResponse.Simulacion s : simulacion.getSimulaciones()) {
+            opciones.add(new SimulacionEscenariosResponse.Opcion(s.getMeses(), s.getCuotaMensual(), s.getTna(), s.getTae()));
+        }
+        return new SimulacionEscenariosResponse.Resultado(
+                escenario.getId(), escenario.getPorcentajeFinanciar(), simulacion.getMontoFinanciado(), opciones);
+    }
+    
+    private OfertaFinanciamiento construirOferta(UUID userId, FinancingOfferRequest.Cliente cliente,
+                                                 FinancingOfferRequest.Vehiculo vehiculo, Integer porcentajeFinanciar,
+                                                 BigDecimal montoTotal, BigDecimal montoFinanciado, String countryCode,
+                                                 String dealId, Integer subsidiary, String country) {
         OfertaFinanciamiento oferta = new OfertaFinanciamiento();
         oferta.setCreatedBy(userId);
-        oferta.setClienteNombre(request.getCliente().getNombre());
-        oferta.setClienteApellido(request.getCliente().getApellido());
-        oferta.setClienteDni(request.getCliente().getDni());
-        oferta.setClienteIngresosAnuales(request.getCliente().getIngresosAnuales());
-        oferta.setVehiculoMarca(request.getVehiculo().getMarca());
-        oferta.setVehiculoModelo(request.getVehiculo().getModelo());
-        oferta.setVehiculoVersion(request.getVehiculo().getVersion());
-        oferta.setVehiculoAnio(request.getVehiculo().getAnio());
-        oferta.setVehiculoSku(request.getVehiculo().getSku());
-        oferta.setMontoTotal(simulacion.getMontoTotal());
-        oferta.setPorcentajeFinanciar(request.getPorcentajeFinanciar());
-        oferta.setMontoFinanciado(simulacion.getMontoFinanciado());
+        oferta.setClienteNombre(cliente.getNombre());
+        oferta.setClienteApellido(cliente.getApellido());
+        oferta.setClienteDni(cliente.getDni());
+        oferta.setClienteIngresosAnuales(cliente.getIngresosAnuales());
+        oferta.setVehiculoMarca(vehiculo.getMarca());
+        oferta.setVehiculoModelo(vehiculo.getModelo());
+        oferta.setVehiculoVersion(vehiculo.getVersion());
+        oferta.setVehiculoAnio(vehiculo.getAnio());
+        oferta.setVehiculoSku(vehiculo.getSku());
+        oferta.setMontoTotal(montoTotal);
+        oferta.setPorcentajeFinanciar(porcentajeFinanciar);
+        oferta.setMontoFinanciado(montoFinanciado);
         oferta.setCountryCode(countryCode);
-        oferta.setDealId(request.getDealId());
-        oferta.setSubsidiary(request.getSubsidiary());
-        oferta.setCountry(request.getCountry());
+        oferta.setDealId(dealId);
+        oferta.setSubsidiary(subsidiary);
+        oferta.setCountry(country);
+        return oferta;
+    }
+    
+    private record Idempotencia(String clave, String requestHash) {
+    }
+    
+    /**
+     * Clave normalizada de un request de simulación: el país ya resuelto y en mayúsculas,
+     * deal y SKU sin espacios alrededor (el catálogo distingue mayúsculas en el SKU).
+     */
+    private record SimulacionKey(UUID userId, String dealId, String sku, int porcentaje, String countryCode) {
         
-        ofertaRepository.save(oferta);
+        static SimulacionKey of(UUID userId, FinancingOfferRequest request, String countryCode) {
+            return new SimulacionKey(userId, trim(request.getDealId()), trim(request.getVehiculo().getSku()),
+                    request.getPorcentajeFinanciar(), countryCode.trim().toUpperCase(Locale.ROOT));
+        }
         
-        return simulacion;
+        private static String trim(String value) {
+            return value != null ? value.trim() : null;
+        }
     }
     
-    private BigDecimal calcularMontoFinanciado(FinancingOfferRequest request) {
-        // En un escenario real, esto vendría del precio del vehículo
-        // Por ahora usamos el monto total generado por BeClever
-        BigDecimal montoTotal = beCleverService.simularCredito(BigDecimal.ZERO).getMontoTotal();
-        return montoTotal.multiply(BigDecimal.valueOf(request.getPorcentajeFinanciar()))
-                .divide(BigDecimal.valueOf(100), 2, BigDecimal.ROUND_HALF_UP);
+    private BigDecimal obtenerMontoTotal(String sku) {
+        Optional<BigDecimal> precio = vehiclePriceCatalog.findPrecio(sku);
+        if (precio.isPresent()) {
+            return precio.get();
+        }
+        if (requireCatalogPrice) {
+            throw new RuntimeException("El vehículo no tiene precio en el catálogo: " + sku);
+        }
+        // SKU fuera de catálogo: usamos el precio cotizado por BeClever
+        return beCleverService.cotizarMontoTotal(sku);
     }
 }
-
-
-
-
-
-
@@ -0,0 +1,200 @@
+package com.kavak.sc.oferta.service;
+
+import com.kavak.sc.oferta.dto.SimulacionResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Respuestas ya enviadas por clave de idempotencia, para devolverlas tal cual cuando el
+ * cliente reintenta.
+ * <p>
+ * El mapa está particionado en stripes, cada uno con su lock y su {@link LinkedHashMap}
+ * en orden de inserción: como todas las entradas viven el mismo TTL, las vencidas están
+ * siempre al principio y se descartan en O(1) al insertar. Un barrido periódico limpia los
+ * stripes que no reciben inserciones. Cada stripe tiene además un tope de entradas; al
+ * superarlo se descarta la más vieja (la base sigue deduplicando por su índice único).
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyStore {
+    
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+    
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.offers.idempotency.ttl:24h}")
+    private Duration ttl;
+    
+    @Value("${app.offers.idempotency.max-entries:100000}")
+    private int maxEntries;
+    
+    @Value("${app.offers.idempotency.stripes:64}")
+    private int stripeCount;
+    
+    private Stripe[] stripes;
+    private int mask;
+    
+    @PostConstruct
+    void init() {
+        // Potencia de dos para elegir el stripe con una máscara
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        int perStripe = Math.max(1, maxEntries / count);
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+        mask = count - 1;
+        Gauge.builder("idempotency.entries", this, IdempotencyStore::size).register(meterRegistry);
+    }
+    
+    /**
+     * Respuesta guardada para la clave, o {@code null} si no hay una vigente.
+     */
+    public Entry get(String key) {
+        return stripe(key).get(key, System.nanoTime());
+    }
+    
+    /**
+     * Guarda la respuesta si la clave no tenía una vigente. Devuelve la entrada que
+     * quedó: la nueva, o la que ya estaba si otro request llegó primero.
+     */
+    public Entry putIfAbsent(String key, String requestHash, SimulacionResponse response) {
+        long now = System.nanoTime();
+        return stripe(key).putIfAbsent(key, new Entry(requestHash, response, now + ttl.toNanos()), now);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.offers.idempotency.sweep-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        for (Stripe stripe : stripes) {
+            stripe.purge(now);
+        }
+    }
+    
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+    
+    /**
+     * SHA-256 en hexadecimal: las claves y los hashes de request tienen largo fijo y no
+     * guardan datos del cliente.
+     */
+    public static String sha256(String value) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    public static String sha256(byte[] value) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return HexFormat.of().formatHex(digest.digest(value));
+    }
+    
+    private Stripe stripe(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+    
+    /**
+     * @param requestHash hash del payload original, para rechazar una clave reutilizada
+     *                    con otro request
+     */
+    public record Entry(String requestHash, SimulacionResponse response, long expiresAt) {
+    }
+    
+    private static final class Stripe {
+        
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+        private final int maxEntries;
+        
+        Stripe(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+        
+        Entry get(String key, long now) {
+            lock.lock();
+            try {
+                Entry entry = entries.get(key);
+                if (entry != null && entry.expiresAt() - now <= 0) {
+                    entries.remove(key);
+                    return null;
+                }
+                return entry;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        Entry putIfAbsent(String key, Entry entry, long now) {
+            lock.lock();
+            try {
+                purgeLocked(now);
+                Entry existing = entries.get(key);
+                if (existing != null) {
+                    return existing;
+                }
+                entries.put(key, entry);
+                if (entries.size() > maxEntries) {
+                    Iterator<Entry> eldest = entries.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+                return entry;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        void purge(long now) {
+            lock.lock();
+            try {
+                purgeLocked(now);
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        private void purgeLocked(long now) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext() && it.next().getValue().expiresAt() - now <= 0) {
+                it.remove();
+            }
+        }
+    }
+}
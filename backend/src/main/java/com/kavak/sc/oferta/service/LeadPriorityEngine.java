@@ -0,0 +1,289 @@
+package com.kavak.sc.oferta.service;
+
+import com.kavak.sc.oferta.entity.Lead;
+import com.kavak.sc.oferta.entity.PriorityRule;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * Evalúa las reglas de prioridad de leads.
+ * <p>
+ * Las condiciones de texto ({@code "ingresos_anuales > 15000000 AND score_crediticio >= 700"})
+ * se compilan una sola vez, cuando cambian las reglas, a arrays de campo / operador /
+ * umbral. Evaluar un lead es extraer sus campos a un vector de doubles y comparar, sin
+ * volver a parsear nada. Cada lead guarda qué reglas cumple como bitmask, de modo que al
+ * cambiar un campo sólo se reevalúan las reglas que lo usan.
+ */
+@Component
+public class LeadPriorityEngine {
+    
+    /** Una regla por bit en {@code Lead.reglasCumplidas} */
+    public static final int MAX_REGLAS = 64;
+    
+    /**
+     * Campos que pueden usarse en una condición.
+     */
+    public enum Campo {
+        INGRESOS_ANUALES("ingresos_anuales", (lead, now) -> number(lead.getClienteIngresosAnuales())),
+        PRECIO_VEHICULO("precio_vehiculo", (lead, now) -> number(lead.getVehiculoPrecio())),
+        ANIO_VEHICULO("anio_vehiculo", (lead, now) -> number(lead.getVehiculoAnio())),
+        KILOMETROS("kilometros", (lead, now) -> number(lead.getVehiculoKilometros())),
+        SCORE_CREDITICIO("score_crediticio", (lead, now) -> number(lead.getScoreCrediticio())),
+        TIENE_CREDITO_ANTERIOR("tiene_credito_anterior",
+                (lead, now) -> Boolean.TRUE.equals(lead.getTieneCreditoAnterior()) ? 1 : 0),
+        DIAS_DESDE_CREACION("dias_desde_creacion", (lead, now) -> lead.getFechaCreacion() == null
+                ? 0 : Duration.between(lead.getFechaCreacion(), now).toDays());
+        
+        final String nombre;
+        final ToDoubleBiFunction<Lead, LocalDateTime> extractor;
+        
+        Campo(String nombre, ToDoubleBiFunction<Lead, LocalDateTime> extractor) {
+            this.nombre = nombre;
+            this.extractor = extractor;
+        }
+        
+        public int bit() {
+            return 1 << ordinal();
+        }
+        
+        static Campo parse(String nombre) {
+            for (Campo campo : values()) {
+                if (campo.nombre.equals(nombre)) {
+                    return campo;
+                }
+            }
+            throw new RuntimeException("Campo desconocido en la condición: " + nombre);
+        }
+        
+        private static double number(Number value) {
+            return value == null ? Double.NaN : value.doubleValue();
+        }
+    }
+    
+    private static final int OP_GT = 0, OP_GE = 1, OP_LT = 2, OP_LE = 3, OP_EQ = 4, OP_NE = 5;
+    private static final String[] OPERADORES = {">=", "<=", "!=", ">", "<", "="};
+    private static final int[] OPERADOR_CODIGOS = {OP_GE, OP_LE, OP_NE, OP_GT, OP_LT, OP_EQ};
+    
+    private static final int ALL_CAMPOS = (1 << Campo.values().length) - 1;
+    
+    private volatile CompiledRules compiled = new CompiledRules(0, List.of(), new int[0], new int[0], new int[0],
+            new double[0], new int[0], new int[0], new int[0]);
+    
+    /**
+     * Reglas compiladas: las comparaciones de todas las reglas van en arrays paralelos;
+     * la regla r usa las comparaciones {@code [start[r], start[r + 1])} unidas por AND.
+     */
+    record CompiledRules(long version, List<PriorityRule> rules, int[] start, int[] campo, int[] op,
+                         double[] umbral, int[] camposPorRegla, int[] puntaje, int[] prioridad) {
+    }
+    
+    /**
+     * Compila las reglas activas y las publica atómicamente. Lanza si alguna condición
+     * es inválida, sin tocar el set vigente.
+     *
+     * @return versión del nuevo set
+     */
+    public long compilar(List<PriorityRule> reglas) {
+        List<PriorityRule> activas = reglas.stream().filter(r -> Boolean.TRUE.equals(r.getActiva())).toList();
+        if (activas.size() > MAX_REGLAS) {
+            throw new RuntimeException("No se admiten más de " + MAX_REGLAS + " reglas activas");
+        }
+        
+        int[] start = new int[activas.size() + 1];
+        List<int[]> comparaciones = new ArrayList<>();
+        List<Double> umbrales = new ArrayList<>();
+        int[] camposPorRegla = new int[activas.size()];
+        int[] puntaje = new int[activas.size()];
+        int[] prioridad = new int[activas.size()];
+        
+        for (int r = 0; r < activas.size(); r++) {
+            PriorityRule regla = activas.get(r);
+            start[r] = comparaciones.size();
+            for (String termino : regla.getCondicion().split("(?i)\\s+AND\\s+")) {
+                int[] comparacion = parseComparacion(termino.trim(), umbrales);
+                comparaciones.add(comparacion);
+                camposPorRegla[r] |= Campo.values()[comparacion[0]].bit();
+            }
+            puntaje[r] = regla.getPuntaje();
+            prioridad[r] = regla.getPrioridad().ordinal();
+        }
+        start[activas.size()] = comparaciones.size();
+        
+        int[] campo = new int[comparaciones.size()];
+        int[] op = new int[comparaciones.size()];
+        double[] umbral = new double[comparaciones.size()];
+        for (int i = 0; i < comparaciones.size(); i++) {
+            campo[i] = comparaciones.get(i)[0];
+            op[i] = comparaciones.get(i)[1];
+            umbral[i] = umbrales.get(i);
+        }
+        
+        long version = version(activas);
+        compiled = new CompiledRules(version, activas, start, campo, op, umbral, camposPorRegla, puntaje, prioridad);
+        return version;
+    }
+    
+    /**
+     * La versión se deriva del contenido de las reglas: es la misma en todas las instancias
+     * y entre reinicios, y sólo cambia cuando cambian las reglas activas.
+     */
+    private static long version(List<PriorityRule> activas) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (PriorityRule regla : activas) {
+                String linea = regla.getId() + "|" + regla.getCondicion() + "|" + regla.getPuntaje() + "|"
+                        + regla.getPrioridad() + "\n";
+                digest.update(linea.getBytes(StandardCharsets.UTF_8));
+            }
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Valida una condición sin publicarla.
+     */
+    public void validar(String condicion) {
+        for (String termino : condicion.split("(?i)\\s+AND\\s+")) {
+            parseComparacion(termino.trim(), new ArrayList<>());
+        }
+    }
+    
+    public long getVersion() {
+        return compiled.version();
+    }
+    
+    /**
+     * true si alguna regla activa depende del paso del tiempo y requiere recalcular los
+     * leads periódicamente aunque no cambien.
+     */
+    public boolean dependeDelTiempo() {
+        CompiledRules rules = compiled;
+        for (int mask : rules.camposPorRegla()) {
+            if ((mask & Campo.DIAS_DESDE_CREACION.bit()) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Evalúa todas las reglas sobre el lead y actualiza puntaje, prioridad y bitmask.
+     */
+    public void evaluar(Lead lead) {
+        evaluar(lead, ALL_CAMPOS, compiled);
+    }
+    
+    /**
+     * Reevalúa sólo las reglas que usan alguno de los campos modificados
+     * ({@code camposModificados} es un OR de {@link Campo#bit()}). Si el lead fue evaluado
+     * con otro set de reglas se evalúa completo.
+     */
+    public void reevaluar(Lead lead, int camposModificados) {
+        CompiledRules rules = compiled;
+        if (lead.getReglasVersion() == null || lead.getReglasVersion() != rules.version()) {
+            evaluar(lead, ALL_CAMPOS, rules);
+        } else if (camposModificados != 0) {
+            evaluar(lead, camposModificados, rules);
+        }
+    }
+    
+    private void evaluar(Lead lead, int campos, CompiledRules rules) {
+        LocalDateTime now = LocalDateTime.now();
+        int reglas = rules.puntaje().length;
+        boolean completa = campos == ALL_CAMPOS || lead.getReglasCumplidas() == null;
+        
+        // Reglas a reevaluar y campos que necesitan (incluye los no modificados que
+        // aparecen junto a uno modificado en la misma regla)
+        long seleccionadas = 0L;
+        int necesarios = 0;
+        for (int r = 0; r < reglas; r++) {
+            if (completa || (rules.camposPorRegla()[r] & campos) != 0) {
+                seleccionadas |= 1L << r;
+                necesarios |= rules.camposPorRegla()[r];
+            }
+        }
+        
+        // Vector de valores: cada campo se extrae una sola vez aunque lo usen varias reglas
+        Campo[] todos = Campo.values();
+        double[] valores = new double[todos.length];
+        for (Campo campo : todos) {
+            if ((necesarios & campo.bit()) != 0) {
+                valores[campo.ordinal()] = campo.extractor.applyAsDouble(lead, now);
+            }
+        }
+        
+        long cumplidas = completa ? 0L : lead.getReglasCumplidas();
+        for (long bits = seleccionadas; bits != 0; bits &= bits - 1) {
+            int r = Long.numberOfTrailingZeros(bits);
+            boolean cumple = true;
+            for (int i = rules.start()[r]; i < rules.start()[r + 1] && cumple; i++) {
+                cumple = compara(valores[rules.campo()[i]], rules.op()[i], rules.umbral()[i]);
+            }
+            cumplidas = cumple ? cumplidas | (1L << r) : cumplidas & ~(1L << r);
+        }
+        
+        int puntaje = 0;
+        int prioridad = PriorityRule.Prioridad.BAJA.ordinal();
+        for (long bits = cumplidas; bits != 0; bits &= bits - 1) {
+            int r = Long.numberOfTrailingZeros(bits);
+            puntaje += rules.puntaje()[r];
+            prioridad = Math.max(prioridad, rules.prioridad()[r]);
+        }
+        
+        lead.setReglasCumplidas(cumplidas);
+        lead.setReglasVersion(rules.version());
+        lead.setPuntaje(puntaje);
+        lead.setPrioridad(PriorityRule.Prioridad.values()[prioridad]);
+    }
+    
+    private static boolean compara(double valor, int op, double umbral) {
+        // Un campo sin dato (NaN) no cumple ninguna comparación
+        return switch (op) {
+            case OP_GT -> valor > umbral;
+            case OP_GE -> valor >= umbral;
+            case OP_LT -> valor < umbral;
+            case OP_LE -> valor <= umbral;
+            case OP_EQ -> valor == umbral;
+            case OP_NE -> !Double.isNaN(valor) && valor != umbral;
+            default -> false;
+        };
+    }
+    
+    /**
+     * @return {campo, operador}; el umbral se agrega a {@code umbrales}
+     */
+    private static int[] parseComparacion(String termino, List<Double> umbrales) {
+        for (int i = 0; i < OPERADORES.length; i++) {
+            int pos = termino.indexOf(OPERADORES[i]);
+            if (pos > 0) {
+                Campo campo = Campo.parse(termino.substring(0, pos).trim().toLowerCase(Locale.ROOT));
+                String valor = termino.substring(pos + OPERADORES[i].length()).trim().toLowerCase(Locale.ROOT);
+                double umbral;
+                if (valor.equals("true") || valor.equals("false")) {
+                    umbral = valor.equals("true") ? 1 : 0;
+                } else {
+                    try {
+                        umbral = Double.parseDouble(valor);
+                    } catch (NumberFormatException e) {
+                        throw new RuntimeException("Valor inválido en la condición: " + termino);
+                    }
+                }
+                umbrales.add(umbral);
+                return new int[]{campo.ordinal(), OPERADOR_CODIGOS[i]};
+            }
+        }
+        throw new RuntimeException("Condición inválida: " + termino);
+    }
+}
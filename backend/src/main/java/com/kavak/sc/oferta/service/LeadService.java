@@ -0,0 +1,280 @@
+package com.kavak.sc.oferta.service;
+
+import com.kavak.sc.oferta.dto.LeadPage;
+import com.kavak.sc.oferta.dto.LeadRequest;
+import com.kavak.sc.oferta.entity.Lead;
+import com.kavak.sc.oferta.entity.User;
+import com.kavak.sc.oferta.exception.NotFoundException;
+import com.kavak.sc.oferta.repository.LeadRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Leads de la bandeja de entrada. El puntaje y la prioridad de cada lead se calculan al
+ * escribirlo (no al listar), así que la bandeja es una lectura por índice sobre
+ * {@code (country_code, puntaje, id)} paginada por keyset.
+ */
+@Slf4j
+@Service
+public class LeadService {
+    
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    
+    private static final int RESCORE_BATCH_SIZE = 500;
+    
+    private final LeadRepository leadRepository;
+    private final LeadPriorityEngine priorityEngine;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${app.default.country:AR}")
+    private String defaultCountry;
+    
+    public LeadService(LeadRepository leadRepository, LeadPriorityEngine priorityEngine,
+                       PlatformTransactionManager transactionManager) {
+        this.leadRepository = leadRepository;
+        this.priorityEngine = priorityEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Transactional(readOnly = true)
+    public LeadPage bandeja(String countryCode, String cursor, Integer size, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        if (countryCode == null || !puedeVerTodas(user)) {
+            // Los comerciales sólo ven la bandeja de su país
+            countryCode = paisDe(user);
+        }
+        
+        int limit = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Un registro de más para saber si hay página siguiente sin un COUNT
+        PageRequest page = PageRequest.of(0, limit + 1);
+        
+        List<Lead> rows;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            rows = leadRepository.findInboxAfter(countryCode, Integer.parseInt(parts[0]),
+                    UUID.fromString(parts[1]), page);
+        } else {
+            rows = leadRepository.findInbox(countryCode, page);
+        }
+        
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Lead last = rows.get(limit - 1);
+            nextCursor = encodeCursor(last.getPuntaje(), last.getId());
+        }
+        return new LeadPage(rows, nextCursor);
+    }
+    
+    private boolean puedeVerTodas(User user) {
+        return user.getRole() == User.Role.ADMIN || user.getRole() == User.Role.LIDER;
+    }
+    
+    private String paisDe(User user) {
+        return user.getCountryCode() != null ? user.getCountryCode() : defaultCountry;
+    }
+    
+    /**
+     * Los comerciales sólo acceden a leads de su país; los de otro país responden igual que
+     * uno inexistente.
+     */
+    @Transactional(readOnly = true)
+    public Lead obtener(UUID id, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return leadRepository.findById(id)
+                .filter(lead -> puedeVerTodas(user) || paisDe(user).equals(lead.getCountryCode()))
+                .orElseThrow(() -> new NotFoundException("Lead not found"));
+    }
+    
+    @Transactional
+    public Lead crear(LeadRequest request, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        Lead lead = new Lead();
+        lead.setEtapaActual(Lead.Etapa.OFERTA);
+        lead.setEstadoOferta(Lead.Estado.PENDIENTE);
+        lead.setEstadoHandoff(Lead.Estado.PENDIENTE);
+        lead.setEstadoDictamen(Lead.Estado.PENDIENTE);
+        aplicar(lead, request);
+        if (!puedeVerTodas(user)) {
+            lead.setCountryCode(paisDe(user));
+        } else if (lead.getCountryCode() == null) {
+            lead.setCountryCode(defaultCountry);
+        }
+        priorityEngine.evaluar(lead);
+        return leadRepository.save(lead);
+    }
+    
+    /**
+     * Aplica los campos no nulos del request y reevalúa sólo las reglas que dependen de
+     * los campos que efectivamente cambiaron.
+     */
+    @Transactional
+    public Lead actualizar(UUID id, LeadRequest request, Authentication authentication) {
+        Lead lead = obtener(id, authentication);
+        if (!puedeVerTodas((User) authentication.getPrincipal())) {
+            // Un comercial no puede mover el lead a otro país
+            request.setCountryCode(null);
+        }
+        int modificados = aplicar(lead, request);
+        priorityEngine.reevaluar(lead, modificados);
+        return leadRepository.save(lead);
+    }
+    
+    /**
+     * Recalcula puntaje y prioridad de todos los leads evaluados con otra versión de las
+     * reglas (o de todos, si {@code forzar}), en lotes por id con una transacción por lote.
+     */
+    public long recalcularTodos(boolean forzar) {
+        long version = priorityEngine.getVersion();
+        long total = 0;
+        UUID afterId = new UUID(0L, 0L);
+        while (true) {
+            UUID desde = afterId;
+            List<Lead> lote = transactionTemplate.execute(status -> {
+                List<Lead> leads = leadRepository.findByIdGreaterThanOrderByIdAsc(
+                        desde, PageRequest.of(0, RESCORE_BATCH_SIZE));
+                List<Lead> cambiados = new ArrayList<>();
+                for (Lead lead : leads) {
+                    if (!forzar && Objects.equals(lead.getReglasVersion(), version)) {
+                        continue;
+                    }
+                    Long versionAnterior = lead.getReglasVersion();
+                    Long cumplidasAnteriores = lead.getReglasCumplidas();
+                    Integer puntajeAnterior = lead.getPuntaje();
+                    priorityEngine.evaluar(lead);
+                    // Sólo se escriben los leads cuyo resultado cambió
+                    if (!Objects.equals(versionAnterior, lead.getReglasVersion())
+                            || !Objects.equals(cumplidasAnteriores, lead.getReglasCumplidas())
+                            || !Objects.equals(puntajeAnterior, lead.getPuntaje())) {
+                        cambiados.add(lead);
+                    }
+                }
+                leadRepository.saveAll(cambiados);
+                return leads;
+            });
+            if (lote == null || lote.isEmpty()) {
+                break;
+            }
+            total += lote.size();
+            afterId = lote.get(lote.size() - 1).getId();
+        }
+        log.info("Recalculated priority of {} leads with rules version {}", total, version);
+        return total;
+    }
+    
+    /**
+     * Las reglas sobre {@code dias_desde_creacion} cambian de resultado sin que el lead
+     * cambie; sólo en ese caso se recalcula todo una vez por día.
+     */
+    @Scheduled(cron = "${app.leads.time-rescore-cron:0 0 4 * * *}")
+    public void recalcularPorTiempo() {
+        if (priorityEngine.dependeDelTiempo()) {
+            recalcularTodos(true);
+        }
+    }
+    
+    /**
+     * @return OR de {@link LeadPriorityEngine.Campo#bit()} de los campos de regla que cambiaron
+     */
+    private int aplicar(Lead lead, LeadRequest request) {
+        int modificados = 0;
+        if (request.getDealId() != null) lead.setDealId(request.getDealId());
+        if (request.getClienteNombre() != null) lead.setClienteNombre(request.getClienteNombre());
+        if (request.getClienteApellido() != null) lead.setClienteApellido(request.getClienteApellido());
+        if (request.getClienteDni() != null) lead.setClienteDni(request.getClienteDni());
+        if (request.getClienteEmail() != null) lead.setClienteEmail(request.getClienteEmail());
+        if (request.getClienteTelefono() != null) lead.setClienteTelefono(request.getClienteTelefono());
+        if (request.getVehiculoMarca() != null) lead.setVehiculoMarca(request.getVehiculoMarca());
+        if (request.getVehiculoModelo() != null) lead.setVehiculoModelo(request.getVehiculoModelo());
+        if (request.getVehiculoVersion() != null) lead.setVehiculoVersion(request.getVehiculoVersion());
+        if (request.getVehiculoSku() != null) lead.setVehiculoSku(request.getVehiculoSku());
+        if (request.getAsignadoA() != null) lead.setAsignadoA(request.getAsignadoA());
+        if (request.getSubsidiary() != null) lead.setSubsidiary(request.getSubsidiary());
+        if (request.getCountryCode() != null) lead.setCountryCode(request.getCountryCode());
+        if (request.getEtapaActual() != null) lead.setEtapaActual(parseEnum(Lead.Etapa.class, request.getEtapaActual()));
+        if (request.getEstadoOferta() != null) lead.setEstadoOferta(parseEnum(Lead.Estado.class, request.getEstadoOferta()));
+        if (request.getEstadoHandoff() != null) lead.setEstadoHandoff(parseEnum(Lead.Estado.class, request.getEstadoHandoff()));
+        if (request.getEstadoDictamen() != null) lead.setEstadoDictamen(parseEnum(Lead.Estado.class, request.getEstadoDictamen()));
+        
+        // Campos que usan las reglas: se registra cuáles cambiaron de valor
+        if (request.getClienteIngresosAnuales() != null
+                && !sameAmount(lead.getClienteIngresosAnuales(), request.getClienteIngresosAnuales())) {
+            lead.setClienteIngresosAnuales(request.getClienteIngresosAnuales());
+            modificados |= LeadPriorityEngine.Campo.INGRESOS_ANUALES.bit();
+        }
+        if (request.getVehiculoPrecio() != null
+                && !sameAmount(lead.getVehiculoPrecio(), request.getVehiculoPrecio())) {
+            lead.setVehiculoPrecio(request.getVehiculoPrecio());
+            modificados |= LeadPriorityEngine.Campo.PRECIO_VEHICULO.bit();
+        }
+        if (request.getVehiculoAnio() != null && !request.getVehiculoAnio().equals(lead.getVehiculoAnio())) {
+            lead.setVehiculoAnio(request.getVehiculoAnio());
+            modificados |= LeadPriorityEngine.Campo.ANIO_VEHICULO.bit();
+        }
+        if (request.getVehiculoKilometros() != null
+                && !request.getVehiculoKilometros().equals(lead.getVehiculoKilometros())) {
+            lead.setVehiculoKilometros(request.getVehiculoKilometros());
+            modificados |= LeadPriorityEngine.Campo.KILOMETROS.bit();
+        }
+        if (request.getScoreCrediticio() != null && !request.getScoreCrediticio().equals(lead.getScoreCrediticio())) {
+            lead.setScoreCrediticio(request.getScoreCrediticio());
+            modificados |= LeadPriorityEngine.Campo.SCORE_CREDITICIO.bit();
+        }
+        if (request.getTieneCreditoAnterior() != null
+                && !request.getTieneCreditoAnterior().equals(lead.getTieneCreditoAnterior())) {
+            lead.setTieneCreditoAnterior(request.getTieneCreditoAnterior());
+            modificados |= LeadPriorityEngine.Campo.TIENE_CREDITO_ANTERIOR.bit();
+        }
+        return modificados;
+    }
+    
+    private static boolean sameAmount(BigDecimal current, BigDecimal requested) {
+        return current != null && current.compareTo(requested) == 0;
+    }
+    
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid value: " + value);
+        }
+    }
+    
+    static String encodeCursor(Integer puntaje, UUID id) {
+        String raw = puntaje + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            // Validar el formato antes de usarlo en la consulta
+            Integer.parseInt(parts[0]);
+            UUID.fromString(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.kavak.sc.oferta.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.kavak.sc.oferta.config.DbAdmissionController;
+import com.kavak.sc.oferta.entity.OfertaFinanciamiento;
+import com.kavak.sc.oferta.repository.OfertaFinanciamientoRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportación de ofertas en NDJSON o CSV. Las filas se leen con un cursor de la base y
+ * se escriben directo al stream de la respuesta, desasociando cada entidad del contexto
+ * de persistencia después de escribirla: el heap usado no depende de la cantidad de
+ * filas exportadas.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OfertaExportService {
+    
+    public enum Formato { NDJSON, CSV }
+    
+    private static final String CSV_HEADER = "id,created_at,created_by,country_code,deal_id,subsidiary,country," +
+            "cliente_nombre,cliente_apellido,cliente_dni,cliente_ingresos_anuales," +
+            "vehiculo_marca,vehiculo_modelo,vehiculo_version,vehiculo_anio,vehiculo_sku," +
+            "monto_total,porcentaje_financiar,monto_financiado";
+    
+    private final OfertaFinanciamientoRepository ofertaRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${app.export.fetch-size:500}")
+    private int fetchSize;
+    
+    /**
+     * Escribe todas las ofertas que cumplen los filtros en {@code out}. Corre en su propia
+     * transacción de solo lectura, necesaria para que PostgreSQL use un cursor.
+     *
+     * @return cantidad de filas exportadas
+     */
+    public long exportar(Formato formato, String countryCode, LocalDateTime from, LocalDateTime to,
+                         OutputStream out) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        
+        // Corre en un thread async, fuera del request: el lane se fija acá
+        Long rows = DbAdmissionController.inLane(DbAdmissionController.Lane.LOW, () -> transaction.execute(status -> {
+            try (Stream<OfertaFinanciamiento> ofertas =
+                         ofertaRepository.streamForExport(countryCode, from, to, fetchSize)) {
+                return formato == Formato.CSV
+                        ? writeCsv(ofertas.iterator(), out)
+                        : writeNdjson(ofertas.iterator(), out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        log.info("Exported {} offers as {}", rows, formato);
+        return rows != null ? rows : 0;
+    }
+    
+    private long writeNdjson(Iterator<OfertaFinanciamiento> ofertas, OutputStream out) throws IOException {
+        long rows = 0;
+        // El stream de la respuesta lo cierra el contenedor, no el writer de Jackson
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            while (ofertas.hasNext()) {
+                OfertaFinanciamiento oferta = ofertas.next();
+                writer.write(oferta);
+                entityManager.detach(oferta);
+                rows++;
+            }
+        }
+        if (rows > 0) {
+            out.write('\n');
+        }
+        return rows;
+    }
+    
+    private long writeCsv(Iterator<OfertaFinanciamiento> ofertas, OutputStream out) throws IOException {
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        StringBuilder line = new StringBuilder(256);
+        while (ofertas.hasNext()) {
+            OfertaFinanciamiento o = ofertas.next();
+            line.setLength(0);
+            field(line, o.getId()).append(',');
+            field(line, o.getCreatedAt()).append(',');
+            field(line, o.getCreatedBy()).append(',');
+            field(line, o.getCountryCode()).append(',');
+            field(line, o.getDealId()).append(',');
+            field(line, o.getSubsidiary()).append(',');
+            field(line, o.getCountry()).append(',');
+            field(line, o.getClienteNombre()).append(',');
+            field(line, o.getClienteApellido()).append(',');
+            field(line, o.getClienteDni()).append(',');
+            field(line, o.getClienteIngresosAnuales()).append(',');
+            field(line, o.getVehiculoMarca()).append(',');
+            field(line, o.getVehiculoModelo()).append(',');
+            field(line, o.getVehiculoVersion()).append(',');
+            field(line, o.getVehiculoAnio()).append(',');
+            field(line, o.getVehiculoSku()).append(',');
+            field(line, o.getMontoTotal()).append(',');
+            field(line, o.getPorcentajeFinanciar()).append(',');
+            field(line, o.getMontoFinanciado()).append('\n');
+            writer.append(line);
+            entityManager.detach(o);
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+    
+    private static StringBuilder field(StringBuilder line, Object value) {
+        if (value == null) {
+            return line;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return line.append(text);
+        }
+        // RFC 4180: comillas dobles alrededor y duplicadas adentro
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+}
@@ -0,0 +1,88 @@
+package com.kavak.sc.oferta.service;
+
+import com.kavak.sc.oferta.dto.OfertaHistoryPage;
+import com.kavak.sc.oferta.entity.OfertaFinanciamiento;
+import com.kavak.sc.oferta.entity.User;
+import com.kavak.sc.oferta.repository.OfertaFinanciamientoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Historial de ofertas con paginación por keyset sobre {@code (created_at, id)}: cada
+ * página es una búsqueda por índice a partir del último registro de la anterior, así
+ * que su costo no depende de cuán profundo se navegue.
+ */
+@Service
+@RequiredArgsConstructor
+public class OfertaHistoryService {
+    
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    
+    private final OfertaFinanciamientoRepository ofertaRepository;
+    
+    @Transactional(readOnly = true)
+    public OfertaHistoryPage buscar(UUID createdBy, String countryCode, String dealId, String cursor,
+                                    Integer size, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        if (!puedeVerTodas(user)) {
+            // Los comerciales sólo ven sus propias ofertas
+            createdBy = user.getId();
+        }
+        
+        int limit = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LocalDateTime afterCreatedAt = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            afterCreatedAt = LocalDateTime.parse(parts[0]);
+            afterId = UUID.fromString(parts[1]);
+        }
+        
+        // Se pide un registro de más para saber si hay página siguiente sin un COUNT
+        List<OfertaFinanciamiento> rows = ofertaRepository.findPage(
+                createdBy, countryCode, dealId, afterCreatedAt, afterId, limit + 1);
+        
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            OfertaFinanciamiento last = rows.get(limit - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        return new OfertaHistoryPage(rows, nextCursor);
+    }
+    
+    private boolean puedeVerTodas(User user) {
+        return user.getRole() == User.Role.ADMIN || user.getRole() == User.Role.LIDER;
+    }
+    
+    static String encodeCursor(LocalDateTime createdAt, UUID id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            // Validar el formato antes de usarlo en la consulta
+            LocalDateTime.parse(parts[0]);
+            UUID.fromString(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.kavak.sc.oferta.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kavak.sc.oferta.entity.OfertaFinanciamiento;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Journal local de ofertas encoladas y todavía no persistidas.
+ * <p>
+ * Formato de líneas: {@code +<json>} al encolar una oferta y {@code -<id>,<id>...} cuando
+ * un lote quedó guardado en la base. Al arrancar, las ofertas con {@code +} sin su
+ * {@code -} son las que hay que volver a insertar. Cuando no queda ninguna pendiente el
+ * archivo se trunca para que no crezca.
+ */
+class OfertaJournal {
+    
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private FileChannel channel;
+    private BufferedWriter writer;
+    
+    OfertaJournal(Path path, ObjectMapper objectMapper, boolean fsync) {
+        this.path = path;
+        // Los campos de idempotencia no salen en la API pero sí tienen que sobrevivir a un crash
+        this.objectMapper = objectMapper.copy().addMixIn(OfertaFinanciamiento.class, JournalMixin.class);
+        this.fsync = fsync;
+    }
+    
+    /**
+     * Lee las ofertas pendientes de una ejecución anterior.
+     */
+    synchronized List<OfertaFinanciamiento> recover() throws IOException {
+        Map<UUID, OfertaFinanciamiento> pending = new LinkedHashMap<>();
+        if (Files.exists(path)) {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (line.startsWith("+")) {
+                    OfertaFinanciamiento oferta;
+                    try {
+                        oferta = objectMapper.readValue(line.substring(1), OfertaFinanciamiento.class);
+                    } catch (IOException e) {
+                        // Última línea cortada por el crash: nunca se confirmó al cliente
+                        continue;
+                    }
+                    pending.put(oferta.getId(), oferta);
+                } else if (line.startsWith("-")) {
+                    for (String id : line.substring(1).split(",")) {
+                        if (!id.isBlank()) {
+                            pending.remove(UUID.fromString(id.trim()));
+                        }
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(pending.values());
+    }
+    
+    synchronized void open() throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+    }
+    
+    synchronized void appendPending(OfertaFinanciamiento oferta) throws IOException {
+        writer.write('+');
+        writer.write(objectMapper.writeValueAsString(oferta));
+        writer.newLine();
+        flush();
+    }
+    
+    synchronized void appendPersisted(Collection<OfertaFinanciamiento> ofertas) throws IOException {
+        StringBuilder line = new StringBuilder(ofertas.size() * 37 + 1).append('-');
+        for (OfertaFinanciamiento oferta : ofertas) {
+            line.append(oferta.getId()).append(',');
+        }
+        writer.write(line.toString());
+        writer.newLine();
+        flush();
+    }
+    
+    /**
+     * Vacía el journal. Sólo debe llamarse cuando no quedan ofertas pendientes; quien
+     * encola sincroniza sobre este journal para que el chequeo y el truncado sean atómicos.
+     */
+    synchronized void truncate() throws IOException {
+        writer.flush();
+        channel.truncate(0);
+    }
+    
+    synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+    
+    private abstract static class JournalMixin {
+        
+        @JsonIgnore(false)
+        @JsonProperty
+        String idempotencyKey;
+        
+        @JsonIgnore(false)
+        @JsonProperty
+        String idempotencyRequestHash;
+        
+        @JsonIgnore(false)
+        @JsonProperty
+        String idempotencyResponse;
+    }
+    
+    private void flush() throws IOException {
+        writer.flush();
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.kavak.sc.oferta.service;
+
+import com.kavak.sc.oferta.dto.OfertaMetricas;
+import com.kavak.sc.oferta.entity.OfertaFinanciamiento;
+import com.kavak.sc.oferta.entity.OfertaRollupMensual;
+import com.kavak.sc.oferta.repository.OfertaRollupMensualRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Métricas mensuales de ofertas por país y usuario, mantenidas en forma incremental.
+ * Cada inserción de ofertas suma sus valores a {@code ofertas_rollup_mensual} en la
+ * misma transacción, y las consultas leen sólo esas filas pre-agregadas.
+ */
+@Service
+@RequiredArgsConstructor
+public class OfertaRollupService {
+    
+    private static final UUID SIN_USUARIO = new UUID(0, 0);
+    
+    private static final String UPSERT_SQL = "INSERT INTO ofertas_rollup_mensual (" +
+            "mes, country_code, created_by, total_ofertas, suma_monto_financiado, suma_monto_total, " +
+            "suma_porcentaje, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, now()) " +
+            "ON CONFLICT (mes, country_code, created_by) DO UPDATE SET " +
+            "total_ofertas = ofertas_rollup_mensual.total_ofertas + EXCLUDED.total_ofertas, " +
+            "suma_monto_financiado = ofertas_rollup_mensual.suma_monto_financiado + EXCLUDED.suma_monto_financiado, " +
+            "suma_monto_total = ofertas_rollup_mensual.suma_monto_total + EXCLUDED.suma_monto_total, " +
+            "suma_porcentaje = ofertas_rollup_mensual.suma_porcentaje + EXCLUDED.suma_porcentaje, " +
+            "updated_at = now()";
+    
+    private final OfertaRollupMensualRepository rollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Suma las ofertas a sus contadores. Debe llamarse dentro de la transacción que las
+     * inserta, para que ofertas y métricas se confirmen o se descarten juntas.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Collection<OfertaFinanciamiento> ofertas) {
+        // Se agrega primero en memoria: un lote del mismo usuario y mes es un solo upsert.
+        // El orden por clave evita deadlocks entre transacciones concurrentes.
+        Map<OfertaRollupMensual.Key, OfertaRollupMensual> deltas = new TreeMap<>(
+                Comparator.comparing(OfertaRollupMensual.Key::getMes)
+                        .thenComparing(OfertaRollupMensual.Key::getCountryCode)
+                        .thenComparing(OfertaRollupMensual.Key::getCreatedBy));
+        for (OfertaFinanciamiento oferta : ofertas) {
+            OfertaRollupMensual.Key key = new OfertaRollupMensual.Key(
+                    mesDe(oferta),
+                    oferta.getCountryCode() != null ? oferta.getCountryCode() : "AR",
+                    oferta.getCreatedBy() != null ? oferta.getCreatedBy() : SIN_USUARIO);
+            OfertaRollupMensual delta = deltas.computeIfAbsent(key, k -> new OfertaRollupMensual(
+                    k.getMes(), k.getCountryCode(), k.getCreatedBy(), 0L, BigDecimal.ZERO, BigDecimal.ZERO, 0L, null));
+            delta.setTotalOfertas(delta.getTotalOfertas() + 1);
+            delta.setSumaMontoFinanciado(delta.getSumaMontoFinanciado().add(oferta.getMontoFinanciado()));
+            delta.setSumaMontoTotal(delta.getSumaMontoTotal().add(oferta.getMontoTotal()));
+            delta.setSumaPorcentaje(delta.getSumaPorcentaje() + oferta.getPorcentajeFinanciar());
+        }
+        
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new ArrayList<>(deltas.values()), deltas.size(), (ps, delta) -> {
+            ps.setDate(1, Date.valueOf(delta.getMes()));
+            ps.setString(2, delta.getCountryCode());
+            ps.setObject(3, delta.getCreatedBy());
+            ps.setLong(4, delta.getTotalOfertas());
+            ps.setBigDecimal(5, delta.getSumaMontoFinanciado());
+            ps.setBigDecimal(6, delta.getSumaMontoTotal());
+            ps.setLong(7, delta.getSumaPorcentaje());
+        });
+    }
+    
+    @Transactional(readOnly = true)
+    public List<OfertaMetricas> consultar(YearMonth desde, YearMonth hasta, String countryCode, UUID employeeId) {
+        List<OfertaRollupMensual> rows = rollupRepository.findRange(
+                desde.atDay(1), hasta.atDay(1), countryCode, employeeId);
+        
+        List<OfertaMetricas> metricas = new ArrayList<>(rows.size());
+        for (OfertaRollupMensual row : rows) {
+            BigDecimal total = BigDecimal.valueOf(row.getTotalOfertas());
+            metricas.add(new OfertaMetricas(
+                    YearMonth.from(row.getMes()).toString(),
+                    row.getCountryCode(),
+                    row.getCreatedBy(),
+                    row.getTotalOfertas(),
+                    row.getSumaMontoFinanciado(),
+                    row.getSumaMontoFinanciado().divide(total, 2, RoundingMode.HALF_UP),
+                    BigDecimal.valueOf(row.getSumaPorcentaje()).divide(total, 2, RoundingMode.HALF_UP)
+            ));
+        }
+        return metricas;
+    }
+    
+    private static LocalDate mesDe(OfertaFinanciamiento oferta) {
+        LocalDate fecha = oferta.getCreatedAt() != null ? oferta.getCreatedAt().toLocalDate() : LocalDate.now();
+        return fecha.withDayOfMonth(1);
+    }
+}
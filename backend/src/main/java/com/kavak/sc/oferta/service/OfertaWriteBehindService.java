@@ -0,0 +1,494 @@
+package com.kavak.sc.oferta.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kavak.sc.oferta.config.DbAdmissionController;
+import com.kavak.sc.oferta.entity.OfertaFinanciamiento;
+import com.kavak.sc.oferta.exception.DbOverloadedException;
+import com.kavak.sc.oferta.repository.OfertaFinanciamientoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistencia de ofertas, opcionalmente en modo write-behind.
+ * <p>
+ * Deshabilitado (default), cada oferta se guarda con el repositorio en el thread del
+ * request. Habilitado, la oferta se registra en un journal local y se encola; un thread
+ * de fondo la inserta junto con otras en lotes de JDBC. Si la cola está llena la oferta
+ * se guarda de forma sincrónica, de modo que el request absorbe la latencia de la base
+ * en lugar de perder datos. Un lote que falla se reintenta con backoff; después de
+ * {@code max-attempts} fallos se inserta de a una oferta, y las que fallan por un error
+ * permanente (constraint, dato inválido) van al dead letter para que el resto del lote
+ * entre igual. Ante errores transitorios (base caída, sobrecarga) se sigue reintentando;
+ * mientras tanto la cola se llena y los requests nuevos pasan a guardarse en forma
+ * sincrónica. Al apagar la aplicación se vacía la cola antes de cerrar, y lo que no se
+ * pudo insertar queda en el journal para el próximo arranque.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OfertaWriteBehindService {
+    
+    private static final String INSERT_SQL = "INSERT INTO ofertas_financiamiento (" +
+            "id, created_by, cliente_nombre, cliente_apellido, cliente_dni, cliente_ingresos_anuales, " +
+            "vehiculo_marca, vehiculo_modelo, vehiculo_version, vehiculo_anio, vehiculo_sku, " +
+            "monto_total, porcentaje_financiar, monto_financiado, country_code, created_at, " +
+            "deal_id, subsidiary, country, idempotency_key, idempotency_request_hash, idempotency_response) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            // Conflicto por id (recuperación del journal) o por idempotency_key (reintento
+            // que llegó a otra instancia): la oferta ya está guardada
+            "ON CONFLICT DO NOTHING";
+    
+    private final OfertaFinanciamientoRepository ofertaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final OfertaRollupService rollupService;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.offers.write-behind.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.offers.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${app.offers.write-behind.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${app.offers.write-behind.flush-interval:200ms}")
+    private Duration flushInterval;
+    
+    @Value("${app.offers.write-behind.journal-path:data/ofertas-journal.log}")
+    private String journalPath;
+    
+    @Value("${app.offers.write-behind.journal-fsync:false}")
+    private boolean journalFsync;
+    
+    @Value("${app.offers.write-behind.retry-backoff:200ms}")
+    private Duration retryBackoff;
+    
+    @Value("${app.offers.write-behind.retry-backoff-max:30s}")
+    private Duration retryBackoffMax;
+    
+    // Fallos seguidos del lote entero antes de insertarlo de a una oferta
+    @Value("${app.offers.write-behind.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${app.offers.write-behind.dead-letter-path:data/ofertas-dead-letter.log}")
+    private String deadLetterPath;
+    
+    private TransactionTemplate transactionTemplate;
+    private Timer syncInsertTimer;
+    private Timer batchInsertTimer;
+    private Counter deadLettered;
+    private BlockingQueue<OfertaFinanciamiento> queue;
+    private OfertaJournal journal;
+    // Mismo formato que el journal: cada línea + es una oferta que no se pudo insertar
+    private OfertaJournal deadLetter;
+    // Ids aceptados y todavía no insertados, bajo el lock del journal: mientras haya alguno
+    // el journal no se trunca
+    private final Set<UUID> pendientes = new HashSet<>();
+    // Ofertas permanentemente fallidas que no se pudieron escribir en el dead letter
+    private final Set<UUID> sinDeadLetter = ConcurrentHashMap.newKeySet();
+    private Thread drainer;
+    private volatile boolean accepting;
+    
+    @PostConstruct
+    void start() throws IOException {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // Con write-behind, "batch" es el insert de fondo y "sync" el de cola llena
+        syncInsertTimer = Timer.builder("offer.insert").tag("mode", "sync").register(meterRegistry);
+        batchInsertTimer = Timer.builder("offer.insert").tag("mode", "batch").register(meterRegistry);
+        deadLettered = Counter.builder("offer.write_behind.dead_letter")
+                .description("Ofertas que fallaron con un error permanente y se movieron al dead letter")
+                .register(meterRegistry);
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        journal = new OfertaJournal(Path.of(journalPath), objectMapper, journalFsync);
+        deadLetter = new OfertaJournal(Path.of(deadLetterPath), objectMapper, true);
+        deadLetter.open();
+        
+        // Ofertas que quedaron encoladas cuando se cayó la instancia anterior
+        List<OfertaFinanciamiento> recovered = sinPersistir(journal.recover());
+        journal.open();
+        if (!recovered.isEmpty()) {
+            log.warn("Recovering {} offers from write-behind journal {}", recovered.size(), journalPath);
+            for (int from = 0; from < recovered.size(); from += batchSize) {
+                if (!persistir(recovered.subList(from, Math.min(from + batchSize, recovered.size())), true)) {
+                    throw new IllegalStateException("Could not recover write-behind journal " + journalPath);
+                }
+            }
+            if (!sinDeadLetter.isEmpty()) {
+                throw new IllegalStateException("Could not write dead letter " + deadLetterPath);
+            }
+        }
+        journal.truncate();
+        
+        accepting = true;
+        drainer = new Thread(this::drainLoop, "oferta-write-behind");
+        drainer.start();
+        log.info("Offer write-behind enabled (queue={}, batch={})", queueCapacity, batchSize);
+    }
+    
+    public void guardar(OfertaFinanciamiento oferta) {
+        if (!accepting) {
+            syncInsertTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                ofertaRepository.save(oferta);
+                rollupService.registrar(List.of(oferta));
+            }));
+            return;
+        }
+        prepararParaInsert(oferta);
+        if (!encolar(oferta)) {
+            log.debug("Write-behind queue full, saving offer {} synchronously", oferta.getId());
+            syncInsertTimer.record(() -> insertBatch(List.of(oferta)));
+        }
+    }
+    
+    public void guardarTodas(List<OfertaFinanciamiento> ofertas) {
+        if (!accepting) {
+            syncInsertTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                ofertaRepository.saveAll(ofertas);
+                rollupService.registrar(ofertas);
+            }));
+            return;
+        }
+        List<OfertaFinanciamiento> rechazadas = new ArrayList<>();
+        for (OfertaFinanciamiento oferta : ofertas) {
+            prepararParaInsert(oferta);
+            if (!encolar(oferta)) {
+                rechazadas.add(oferta);
+            }
+        }
+        if (!rechazadas.isEmpty()) {
+            syncInsertTimer.record(() -> insertBatch(rechazadas));
+        }
+    }
+    
+    public int getQueueDepth() {
+        return queue != null ? queue.size() : 0;
+    }
+    
+    /**
+     * Registra la oferta en el journal y la encola. Devuelve {@code false} si no hay lugar
+     * en la cola o no se pudo escribir el journal: sin registro durable la oferta no se
+     * acepta en diferido y el llamador la guarda en forma sincrónica.
+     */
+    private boolean encolar(OfertaFinanciamiento oferta) {
+        // Todos los productores encolan bajo este lock y el drainer sólo saca: si hay lugar
+        // al chequear, sigue habiéndolo al encolar
+        synchronized (journal) {
+            if (queue.remainingCapacity() == 0) {
+                return false;
+            }
+            try {
+                journal.appendPending(oferta);
+            } catch (IOException e) {
+                log.error("Could not journal offer {}, saving it synchronously: {}", oferta.getId(), e.getMessage());
+                return false;
+            }
+            pendientes.add(oferta.getId());
+            queue.add(oferta);
+            return true;
+        }
+    }
+    
+    private void prepararParaInsert(OfertaFinanciamiento oferta) {
+        // El insert por JDBC no pasa por Hibernate: id y fecha se asignan acá
+        if (oferta.getId() == null) {
+            oferta.setId(UUID.randomUUID());
+        }
+        if (oferta.getCreatedAt() == null) {
+            oferta.setCreatedAt(LocalDateTime.now());
+        }
+        if (oferta.getCountryCode() == null) {
+            oferta.setCountryCode("AR");
+        }
+    }
+    
+    private void drainLoop() {
+        // Las ofertas encoladas ya fueron aceptadas: su inserción va en el lane prioritario
+        DbAdmissionController.setCurrentLane(DbAdmissionController.Lane.HIGH);
+        List<OfertaFinanciamiento> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                OfertaFinanciamiento first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // stop() interrumpe para no esperar el poll; el loop vacía lo que quede
+                Thread.currentThread().interrupt();
+                accepting = false;
+                drainRemaining(batch);
+                return;
+            }
+            batch.clear();
+        }
+    }
+    
+    private void drainRemaining(List<OfertaFinanciamiento> batch) {
+        batch.clear();
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+    
+    private void flush(List<OfertaFinanciamiento> batch) {
+        if (!persistir(batch, false)) {
+            // Apagando: las ofertas quedan en el journal (sus ids siguen pendientes, así que
+            // no se trunca) y se insertan en el próximo arranque
+            return;
+        }
+        // Las que fueron al dead letter también salen del journal: ya tienen su registro
+        List<OfertaFinanciamiento> resueltas = new ArrayList<>(batch.size());
+        for (OfertaFinanciamiento oferta : batch) {
+            if (!sinDeadLetter.remove(oferta.getId())) {
+                resueltas.add(oferta);
+            }
+        }
+        synchronized (journal) {
+            for (OfertaFinanciamiento oferta : resueltas) {
+                pendientes.remove(oferta.getId());
+            }
+            try {
+                if (pendientes.isEmpty()) {
+                    journal.truncate();
+                } else {
+                    journal.appendPersisted(resueltas);
+                }
+            } catch (IOException e) {
+                log.error("Could not update write-behind journal: {}", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Inserta el lote (o lo mueve al dead letter) con reintentos. Devuelve {@code false} si
+     * quedaron ofertas sin guardar: porque se está apagando o, en el arranque, porque la
+     * base sigue fallando después de los reintentos.
+     */
+    private boolean persistir(List<OfertaFinanciamiento> batch, boolean arranque) {
+        List<OfertaFinanciamiento> restantes = batch;
+        long backoff = retryBackoff.toMillis();
+        int intentos = 0;
+        while (true) {
+            String error;
+            if (intentos < maxAttempts) {
+                try {
+                    List<OfertaFinanciamiento> lote = restantes;
+                    batchInsertTimer.record(() -> insertBatch(lote));
+                    return true;
+                } catch (RuntimeException e) {
+                    error = e.getMessage();
+                }
+            } else {
+                restantes = insertarDeAUna(restantes);
+                if (restantes.isEmpty()) {
+                    return true;
+                }
+                if (arranque) {
+                    return false;
+                }
+                error = "transient failure of " + restantes.size() + " offers inserted one by one";
+            }
+            intentos++;
+            if (!arranque && (!accepting || Thread.currentThread().isInterrupted())) {
+                log.error("Write-behind batch of {} offers failed during shutdown, left in journal: {}",
+                        restantes.size(), error);
+                return false;
+            }
+            log.warn("Write-behind batch of {} offers failed (attempt {}), retrying in {} ms: {}",
+                    restantes.size(), intentos, backoff, error);
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException interrupted) {
+                // El próximo poll del drainer ve la interrupción y vacía la cola
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            backoff = Math.min(backoff * 2, retryBackoffMax.toMillis());
+        }
+    }
+    
+    /**
+     * Inserta cada oferta en su propia transacción. Las que fallan con un error permanente
+     * van al dead letter; devuelve las que fallaron por un error transitorio.
+     */
+    private List<OfertaFinanciamiento> insertarDeAUna(List<OfertaFinanciamiento> batch) {
+        List<OfertaFinanciamiento> fallidas = new ArrayList<>();
+        for (OfertaFinanciamiento oferta : batch) {
+            try {
+                insertBatch(List.of(oferta));
+            } catch (RuntimeException e) {
+                if (esTransitorio(e)) {
+                    fallidas.add(oferta);
+                } else {
+                    moverADeadLetter(oferta, e);
+                }
+            }
+        }
+        return fallidas;
+    }
+    
+    private static boolean esTransitorio(RuntimeException e) {
+        return DbOverloadedException.find(e) != null
+                || e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+    
+    private void moverADeadLetter(OfertaFinanciamiento oferta, RuntimeException e) {
+        deadLettered.increment();
+        log.error("Offer {} failed permanently, moved to dead letter {}: {}", oferta.getId(), deadLetterPath, e.toString());
+        try {
+            deadLetter.appendPending(oferta);
+        } catch (IOException io) {
+            // Sigue pendiente en el journal: el próximo arranque la vuelve a intentar
+            log.error("Could not write dead letter for offer {}, kept in journal: {}", oferta.getId(), io.getMessage());
+            sinDeadLetter.add(oferta.getId());
+        }
+    }
+    
+    private void insertBatch(List<OfertaFinanciamiento> batch) {
+        // Un lote por transacción; con reWriteBatchedInserts=true en la URL el driver de
+        // PostgreSQL lo envía como un único INSERT multi-fila
+        transactionTemplate.executeWithoutResult(status -> {
+            int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), this::bind);
+            List<OfertaFinanciamiento> insertadas = insertadas(batch, counts);
+            if (!insertadas.isEmpty()) {
+                rollupService.registrar(insertadas);
+            }
+        });
+    }
+    
+    /**
+     * Ofertas que el insert realmente agregó: las descartadas por ON CONFLICT informan 0
+     * filas. Con reWriteBatchedInserts el driver no informa filas por oferta
+     * (SUCCESS_NO_INFO) y se cuentan todas.
+     */
+    private static List<OfertaFinanciamiento> insertadas(List<OfertaFinanciamiento> batch, int[][] counts) {
+        List<OfertaFinanciamiento> insertadas = new ArrayList<>(batch.size());
+        int i = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                if (count != 0) {
+                    insertadas.add(batch.get(i));
+                }
+                i++;
+            }
+        }
+        return insertadas;
+    }
+    
+    /**
+     * Descarta del journal recuperado las ofertas que sí llegaron a la base (el crash fue
+     * entre el commit y la marca en el journal), para no sumarlas dos veces a las métricas.
+     */
+    private List<OfertaFinanciamiento> sinPersistir(List<OfertaFinanciamiento> recovered) {
+        if (recovered.isEmpty()) {
+            return recovered;
+        }
+        List<OfertaFinanciamiento> pendientes = new ArrayList<>(recovered.size());
+        for (int from = 0; from < recovered.size(); from += batchSize) {
+            List<OfertaFinanciamiento> chunk = recovered.subList(from, Math.min(from + batchSize, recovered.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            Set<UUID> existentes = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT id FROM ofertas_financiamiento WHERE id IN (" + placeholders + ")", UUID.class,
+                    chunk.stream().map(OfertaFinanciamiento::getId).toArray()));
+            for (OfertaFinanciamiento oferta : chunk) {
+                if (!existentes.contains(oferta.getId())) {
+                    pendientes.add(oferta);
+                }
+            }
+        }
+        return pendientes;
+    }
+    
+    private void bind(PreparedStatement ps, OfertaFinanciamiento o) throws SQLException {
+        ps.setObject(1, o.getId());
+        ps.setObject(2, o.getCreatedBy());
+        ps.setString(3, o.getClienteNombre());
+        ps.setString(4, o.getClienteApellido());
+        ps.setString(5, o.getClienteDni());
+        ps.setBigDecimal(6, o.getClienteIngresosAnuales());
+        ps.setString(7, o.getVehiculoMarca());
+        ps.setString(8, o.getVehiculoModelo());
+        ps.setString(9, o.getVehiculoVersion());
+        ps.setInt(10, o.getVehiculoAnio());
+        ps.setString(11, o.getVehiculoSku());
+        ps.setBigDecimal(12, o.getMontoTotal());
+        ps.setInt(13, o.getPorcentajeFinanciar());
+        ps.setBigDecimal(14, o.getMontoFinanciado());
+        ps.setString(15, o.getCountryCode());
+        ps.setTimestamp(16, Timestamp.valueOf(o.getCreatedAt()));
+        ps.setString(17, o.getDealId());
+        if (o.getSubsidiary() != null) {
+            ps.setInt(18, o.getSubsidiary());
+        } else {
+            ps.setNull(18, Types.INTEGER);
+        }
+        ps.setString(19, o.getCountry());
+        ps.setString(20, o.getIdempotencyKey());
+        ps.setString(21, o.getIdempotencyRequestHash());
+        ps.setString(22, o.getIdempotencyResponse());
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException, IOException {
+        if (drainer == null) {
+            return;
+        }
+        // Desde acá las ofertas nuevas se guardan en forma sincrónica
+        accepting = false;
+        drainer.join(Duration.ofSeconds(30).toMillis());
+        if (drainer.isAlive()) {
+            drainer.interrupt();
+            drainer.join();
+        }
+        // Ofertas que entraron a la cola mientras el drainer terminaba
+        drainRemaining(new ArrayList<>(batchSize));
+        journal.close();
+        deadLetter.close();
+        log.info("Offer write-behind stopped, queue depth {}", queue.size());
+    }
+}
@@ -0,0 +1,108 @@
+package com.kavak.sc.oferta.service;
+
+import com.kavak.sc.oferta.dto.PriorityRuleRequest;
+import com.kavak.sc.oferta.entity.PriorityRule;
+import com.kavak.sc.oferta.repository.LeadRepository;
+import com.kavak.sc.oferta.repository.PriorityRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Administración de las reglas de prioridad. Cada cambio recompila las reglas y
+ * recalcula los leads afectados; las demás instancias detectan el cambio en
+ * {@link #sincronizar()} porque la versión compilada deja de coincidir.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PriorityRuleService {
+    
+    private final PriorityRuleRepository ruleRepository;
+    private final LeadRepository leadRepository;
+    private final LeadPriorityEngine priorityEngine;
+    private final LeadService leadService;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        long version = priorityEngine.compilar(ruleRepository.findAllByOrderByNombreAscIdAsc());
+        log.info("Compiled lead priority rules, version {}", version);
+        if (leadRepository.existsByReglasVersionNot(version)) {
+            leadService.recalcularTodos(false);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.leads.rules-sync-interval-ms:60000}",
+            initialDelayString = "${app.leads.rules-sync-interval-ms:60000}")
+    public void sincronizar() {
+        long anterior = priorityEngine.getVersion();
+        long version = priorityEngine.compilar(ruleRepository.findAllByOrderByNombreAscIdAsc());
+        if (version != anterior) {
+            log.info("Lead priority rules changed, version {}", version);
+            leadService.recalcularTodos(false);
+        }
+    }
+    
+    public List<PriorityRule> listar() {
+        return ruleRepository.findAllByOrderByNombreAscIdAsc();
+    }
+    
+    public PriorityRule crear(PriorityRuleRequest request) {
+        PriorityRule regla = new PriorityRule();
+        return guardar(regla, request);
+    }
+    
+    public PriorityRule actualizar(UUID id, PriorityRuleRequest request) {
+        PriorityRule regla = ruleRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Rule not found"));
+        return guardar(regla, request);
+    }
+    
+    public void eliminar(UUID id) {
+        if (!ruleRepository.existsById(id)) {
+            throw new RuntimeException("Rule not found");
+        }
+        ruleRepository.deleteById(id);
+        recompilar();
+    }
+    
+    private PriorityRule guardar(PriorityRule regla, PriorityRuleRequest request) {
+        // Se valida antes de persistir para no dejar una regla que no compila
+        priorityEngine.validar(request.getCondicion());
+        try {
+            regla.setPrioridad(PriorityRule.Prioridad.valueOf(request.getPrioridad().toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid prioridad: " + request.getPrioridad());
+        }
+        regla.setNombre(request.getNombre());
+        regla.setCondicion(request.getCondicion());
+        regla.setPuntaje(request.getPuntaje());
+        regla.setActiva(request.getActiva() == null || request.getActiva());
+        regla.setDescripcion(request.getDescripcion());
+        
+        if (Boolean.TRUE.equals(regla.getActiva())) {
+            long otrasActivas = ruleRepository.findAllByOrderByNombreAscIdAsc().stream()
+                    .filter(r -> Boolean.TRUE.equals(r.getActiva()) && !r.getId().equals(regla.getId()))
+                    .count();
+            if (otrasActivas >= LeadPriorityEngine.MAX_REGLAS) {
+                throw new RuntimeException("No se admiten más de " + LeadPriorityEngine.MAX_REGLAS + " reglas activas");
+            }
+        }
+        
+        PriorityRule saved = ruleRepository.save(regla);
+        recompilar();
+        return saved;
+    }
+    
+    private void recompilar() {
+        long version = priorityEngine.compilar(ruleRepository.findAllByOrderByNombreAscIdAsc());
+        leadService.recalcularTodos(false);
+        log.info("Lead priority rules recompiled, version {}", version);
+    }
+}
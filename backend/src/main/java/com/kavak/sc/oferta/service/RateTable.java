@@ -0,0 +1,96 @@
+package com.kavak.sc.oferta.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tabla de tasas de BeClever: TNA por país y plazo, en centésimas de punto porcentual.
+ * <p>
+ * Es inmutable y se identifica por {@link #getVersion()}, que forma parte de la clave
+ * del caché de cotizaciones: al publicarse una tabla nueva las cotizaciones cacheadas
+ * con la anterior dejan de usarse solas. El país {@link #DEFAULT_COUNTRY} aplica a los
+ * países sin fila propia.
+ */
+public final class RateTable {
+    
+    public static final String DEFAULT_COUNTRY = "*";
+    
+    private static final String MOCK_VERSION = "mock-1";
+    
+    private final String version;
+    // País -> índice de tasa en la grilla de AmortizationEngine, por plazo
+    private final Map<String, int[]> rates;
+    
+    /**
+     * @param tnaBps TNA por país y plazo (largo {@link AmortizationEngine#PLAZOS}), en
+     *               centésimas de punto, dentro de la grilla de {@link AmortizationEngine}
+     */
+    public RateTable(String version, Map<String, int[]> tnaBps) {
+        if (version == null || version.isBlank()) {
+            throw new IllegalArgumentException("Rate table version is required");
+        }
+        if (!tnaBps.containsKey(DEFAULT_COUNTRY)) {
+            throw new IllegalArgumentException("Rate table " + version + " has no default row");
+        }
+        this.version = version;
+        this.rates = new HashMap<>();
+        tnaBps.forEach((country, row) -> rates.put(country, toRateIndexes(version, country, row)));
+    }
+    
+    /**
+     * Tabla del mock: la TNA crece linealmente con el plazo, de 70% a 12 meses a 90% a
+     * 84 meses, igual para todos los países.
+     */
+    public static RateTable mock() {
+        int[] row = new int[AmortizationEngine.PLAZOS.length];
+        int last = row.length - 1;
+        for (int i = 0; i < row.length; i++) {
+            row[i] = AmortizationEngine.TNA_MIN_BPS
+                    + (AmortizationEngine.TNA_MAX_BPS - AmortizationEngine.TNA_MIN_BPS) * i / last;
+        }
+        return new RateTable(MOCK_VERSION, Map.of(DEFAULT_COUNTRY, row));
+    }
+    
+    public String getVersion() {
+        return version;
+    }
+    
+    /**
+     * Copia de las filas en el formato del constructor, para publicarla o serializarla.
+     */
+    public Map<String, int[]> tnaBps() {
+        Map<String, int[]> copy = new HashMap<>();
+        rates.forEach((country, indexes) -> {
+            int[] row = new int[indexes.length];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = indexes[i] + AmortizationEngine.TNA_MIN_BPS;
+            }
+            copy.put(country, row);
+        });
+        return copy;
+    }
+    
+    /**
+     * Índice de tasa en la grilla de {@link AmortizationEngine} para un país y plazo.
+     */
+    int rateIndex(String country, int term) {
+        int[] row = country != null ? rates.get(country) : null;
+        return (row != null ? row : rates.get(DEFAULT_COUNTRY))[term];
+    }
+    
+    private static int[] toRateIndexes(String version, String country, int[] row) {
+        if (row.length != AmortizationEngine.PLAZOS.length) {
+            throw new IllegalArgumentException("Rate table " + version + " row " + country + " has "
+                    + row.length + " terms, expected " + AmortizationEngine.PLAZOS.length);
+        }
+        int[] indexes = new int[row.length];
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] < AmortizationEngine.TNA_MIN_BPS || row[i] > AmortizationEngine.TNA_MAX_BPS) {
+                throw new IllegalArgumentException("Rate table " + version + " row " + country
+                        + " has TNA " + row[i] + " bps out of range");
+            }
+            indexes[i] = row[i] - AmortizationEngine.TNA_MIN_BPS;
+        }
+        return indexes;
+    }
+}
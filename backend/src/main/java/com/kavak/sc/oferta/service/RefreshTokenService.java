@@ -0,0 +1,132 @@
+package com.kavak.sc.oferta.service;
+
+import com.kavak.sc.oferta.entity.RefreshToken;
+import com.kavak.sc.oferta.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Refresh tokens opacos con rotación. Renovar no pasa por BCrypt: es un UPDATE por clave
+ * primaria y un INSERT.
+ * <p>
+ * Cada renovación marca el token presentado como usado y emite otro de la misma familia.
+ * Si un token ya usado vuelve a aparecer alguien tiene una copia, y se revoca la familia
+ * entera: tanto el cliente legítimo como el que lo copió tienen que volver a loguearse.
+ * La excepción es un reuso dentro de {@code jwt.refresh.reuse-grace}, que se rechaza sin
+ * revocar: suele ser otra pestaña renovando a la vez.
+ * <p>
+ * Los tokens usados se guardan hasta que vence la familia entera, así que un token robado
+ * varias rotaciones atrás también revoca la familia. Una fila usada que sigue en la tabla
+ * indica reuso aunque su propio vencimiento ya haya pasado.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+    
+    private static final SecureRandom RANDOM = new SecureRandom();
+    
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${jwt.refresh.ttl:14d}")
+    private Duration ttl;
+    
+    @Value("${jwt.refresh.reuse-grace:10s}")
+    private Duration reuseGrace;
+    
+    private Counter reuseDetected;
+    
+    @PostConstruct
+    void init() {
+        reuseDetected = Counter.builder("auth.refresh.reuse_detected")
+                .description("Refresh tokens presentados después de rotados; cada uno revoca su familia")
+                .register(meterRegistry);
+    }
+    
+    public Duration getTtl() {
+        return ttl;
+    }
+    
+    /**
+     * Abre una familia nueva para un login y devuelve su primer token.
+     */
+    @Transactional
+    public String issue(UUID userId) {
+        return save(UUID.randomUUID(), userId, LocalDateTime.now());
+    }
+    
+    /**
+     * Consume el token y emite el siguiente de su familia.
+     *
+     * @throws BadCredentialsException si el token no existe, venció o ya se usó
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public Rotation rotate(String token) {
+        String hash = IdempotencyStore.sha256(token);
+        LocalDateTime now = LocalDateTime.now();
+        if (refreshTokenRepository.markUsed(hash, now) == 1) {
+            RefreshToken used = refreshTokenRepository.findById(hash)
+                    .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+            return new Rotation(used.getUserId(), save(used.getFamilyId(), used.getUserId(), now));
+        }
+        
+        RefreshToken existing = refreshTokenRepository.findById(hash).orElse(null);
+        if (existing != null && existing.getUsedAt() != null
+                && !existing.getUsedAt().plus(reuseGrace).isAfter(now)) {
+            // Sin rollback: la revocación tiene que quedar aunque el request falle
+            refreshTokenRepository.deleteFamily(existing.getFamilyId());
+            reuseDetected.increment();
+            log.warn("Refresh token reuse detected, revoked family {} of user {}",
+                    existing.getFamilyId(), existing.getUserId());
+        }
+        throw new BadCredentialsException("Invalid refresh token");
+    }
+    
+    /**
+     * Logout: revoca la familia del token. No falla si el token no existe.
+     */
+    @Transactional
+    public void revoke(String token) {
+        refreshTokenRepository.findById(IdempotencyStore.sha256(token))
+                .ifPresent(existing -> refreshTokenRepository.deleteFamily(existing.getFamilyId()));
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.refresh.sweep-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredFamilies(LocalDateTime.now());
+        if (deleted > 0) {
+            log.debug("Purged {} refresh tokens of expired families", deleted);
+        }
+    }
+    
+    private String save(UUID familyId, UUID userId, LocalDateTime now) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(IdempotencyStore.sha256(token), familyId, userId,
+                now.plus(ttl), null));
+        return token;
+    }
+    
+    /**
+     * @param token refresh token nuevo; el presentado ya no sirve
+     */
+    public record Rotation(UUID userId, String token) {
+    }
+}
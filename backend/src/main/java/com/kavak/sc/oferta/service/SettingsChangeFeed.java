@@ -0,0 +1,262 @@
+package com.kavak.sc.oferta.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kavak.sc.oferta.dto.SettingsSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feed de cambios de ajustes por país en Server-Sent Events.
+ * <p>
+ * Un único thread publica: cada cambio se serializa una sola vez y el mismo texto se
+ * escribe en todas las conexiones del país. Las conexiones no ocupan threads mientras
+ * esperan (son requests async), así que mantener muchas abiertas es barato. Al
+ * suscribirse se envía el snapshot vigente, salvo que el cliente ya lo tenga según
+ * {@code Last-Event-ID}; el id de cada evento es {@link SettingsSnapshot#version()}.
+ * <p>
+ * Las escrituras, que bloquean si el cliente no lee, corren en un pool aparte con a lo
+ * sumo una en curso por conexión. Un cambio que llega mientras se escribe otro evento se
+ * manda al terminar (sólo el más nuevo); una conexión con una escritura trabada más de
+ * {@code app.settings.stream.send-timeout} deja de recibir eventos y el write bloqueado
+ * termina con error por el timeout del socket.
+ */
+@Component
+@RequiredArgsConstructor
+public class SettingsChangeFeed {
+    
+    static final String EVENT_NAME = "settings";
+    
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.settings.stream.timeout:30m}")
+    private Duration timeout;
+    
+    @Value("${app.settings.stream.max-subscribers:2000}")
+    private int maxSubscribers;
+    
+    @Value("${app.settings.stream.send-timeout:10s}")
+    private Duration sendTimeout;
+    
+    @Value("${app.settings.stream.writer-threads:4}")
+    private int writerThreads;
+    
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    // Último snapshot publicado por país, para no mandarle uno viejo a quien se suscribe
+    // mientras se publica uno nuevo
+    private final Map<String, SettingsSnapshot> latest = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    // Inicio (nanoTime) de la escritura en curso de cada conexión
+    private final Map<SseEmitter, Long> enEnvio = new ConcurrentHashMap<>();
+    // Snapshot pendiente de las conexiones que recibieron un cambio mientras escribían otro
+    private final Map<SseEmitter, SettingsSnapshot> atrasadas = new ConcurrentHashMap<>();
+    private ExecutorService publisher;
+    private ExecutorService writers;
+    private Counter sent;
+    private Counter dropped;
+    
+    @PostConstruct
+    void init() {
+        publisher = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "settings-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger writerIds = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(writerThreads, r -> {
+            Thread thread = new Thread(r, "settings-feed-writer-" + writerIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        sent = Counter.builder("settings.feed.events").tag("outcome", "sent").register(meterRegistry);
+        dropped = Counter.builder("settings.feed.events").tag("outcome", "dropped").register(meterRegistry);
+        Gauge.builder("settings.feed.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        publisher.shutdownNow();
+        writers.shutdownNow();
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+    }
+    
+    /**
+     * Abre una conexión para el país con el snapshot vigente como primer evento.
+     *
+     * @throws RejectedExecutionException si se llegó a {@code app.settings.stream.max-subscribers}
+     */
+    public SseEmitter subscribe(SettingsSnapshot current, String lastEventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RejectedExecutionException("Too many settings subscribers");
+        }
+        String country = current.getCountryCode();
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Set<SseEmitter> emitters = subscribers.computeIfAbsent(country, c -> ConcurrentHashMap.newKeySet());
+        emitters.add(emitter);
+        emitter.onCompletion(() -> quitar(emitters, emitter));
+        emitter.onTimeout(() -> {
+            quitar(emitters, emitter);
+            // Cierre normal: el cliente reconecta con Last-Event-ID
+            emitter.complete();
+        });
+        emitter.onError(e -> quitar(emitters, emitter));
+        
+        publisher.execute(() -> {
+            SettingsSnapshot snapshot = newest(current, latest.get(country));
+            if (!snapshot.version().equals(lastEventId)) {
+                enviarCambio(emitters, emitter, snapshot, render(snapshot));
+            }
+        });
+        return emitter;
+    }
+    
+    /**
+     * Publica un snapshot nuevo a los suscriptores de su país. No bloquea al llamador.
+     */
+    public void publish(SettingsSnapshot snapshot) {
+        latest.merge(snapshot.getCountryCode(), snapshot, SettingsChangeFeed::newest);
+        Set<SseEmitter> emitters = subscribers.get(snapshot.getCountryCode());
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        publisher.execute(() -> {
+            // El más nuevo al momento de enviar: dos publicaciones seguidas pueden encolarse
+            // en otro orden, y a lo sumo se repite un evento con el mismo id
+            SettingsSnapshot newest = latest.get(snapshot.getCountryCode());
+            String data = render(newest);
+            for (SseEmitter emitter : emitters) {
+                enviarCambio(emitters, emitter, newest, data);
+            }
+        });
+    }
+    
+    /**
+     * Países con al menos un suscriptor.
+     */
+    public Set<String> subscribedCountries() {
+        Set<String> countries = new HashSet<>();
+        subscribers.forEach((country, emitters) -> {
+            if (!emitters.isEmpty()) {
+                countries.add(country);
+            }
+        });
+        return countries;
+    }
+    
+    /**
+     * Comentario SSE periódico: mantiene abiertas las conexiones a través de proxies y
+     * detecta las que el cliente cerró sin avisar.
+     */
+    @Scheduled(fixedDelayString = "${app.settings.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        publisher.execute(() -> subscribers.values().forEach(emitters -> {
+            for (SseEmitter emitter : emitters) {
+                // Con una escritura en curso la conexión no está ociosa: no hace falta
+                if (ocupar(emitters, emitter)) {
+                    writers.execute(() -> {
+                        try {
+                            emitter.send(SseEmitter.event().comment("keep-alive"));
+                        } catch (IOException | IllegalStateException e) {
+                            emitter.completeWithError(e);
+                        } finally {
+                            liberar(emitters, emitter);
+                        }
+                    });
+                }
+            }
+        }));
+    }
+    
+    private void enviarCambio(Set<SseEmitter> emitters, SseEmitter emitter, SettingsSnapshot snapshot, String data) {
+        if (!ocupar(emitters, emitter)) {
+            if (emitters.contains(emitter)) {
+                atrasadas.merge(emitter, snapshot, SettingsChangeFeed::newest);
+            }
+            return;
+        }
+        writers.execute(() -> {
+            try {
+                send(emitter, snapshot.version(), data);
+            } finally {
+                liberar(emitters, emitter);
+            }
+        });
+    }
+    
+    /**
+     * Reserva la conexión para una escritura. Si ya tiene una en curso devuelve false, y si
+     * esa lleva más de {@code send-timeout} saca la conexión del feed.
+     */
+    private boolean ocupar(Set<SseEmitter> emitters, SseEmitter emitter) {
+        long ahora = System.nanoTime();
+        Long desde = enEnvio.putIfAbsent(emitter, ahora);
+        if (desde == null) {
+            return true;
+        }
+        if (ahora - desde > sendTimeout.toNanos() && emitters.contains(emitter)) {
+            // No se completa acá: completar espera al mismo lock que el write trabado
+            dropped.increment();
+            quitar(emitters, emitter);
+        }
+        return false;
+    }
+    
+    private void liberar(Set<SseEmitter> emitters, SseEmitter emitter) {
+        enEnvio.remove(emitter);
+        SettingsSnapshot pendiente = atrasadas.remove(emitter);
+        if (pendiente != null && emitters.contains(emitter)) {
+            enviarCambio(emitters, emitter, pendiente, render(pendiente));
+        }
+    }
+    
+    private void quitar(Set<SseEmitter> emitters, SseEmitter emitter) {
+        if (emitters.remove(emitter)) {
+            subscriberCount.decrementAndGet();
+        }
+        atrasadas.remove(emitter);
+    }
+    
+    private void send(SseEmitter emitter, String version, String data) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).id(version).data(data));
+            sent.increment();
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado: el callback de error lo saca del set
+            dropped.increment();
+            emitter.completeWithError(e);
+        }
+    }
+    
+    private static SettingsSnapshot newest(SettingsSnapshot a, SettingsSnapshot b) {
+        return b != null && b.getId() > a.getId() ? b : a;
+    }
+    
+    private String render(SettingsSnapshot snapshot) {
+        try {
+            return objectMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize settings snapshot", e);
+        }
+    }
+}
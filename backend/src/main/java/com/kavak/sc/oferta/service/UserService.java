@@ -1,8 +1,14 @@
 package com.kavak.sc.oferta.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.kavak.sc.oferta.entity.User;
 import com.kavak.sc.oferta.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -10,6 +16,7 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.UUID;
 
 @Service
@@ -18,6 +25,30 @@ public class UserService implements UserDetailsService {
     
     private final UserRepository userRepository;
     private final @Lazy PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.security.user-cache.enabled:true}")
+    private boolean userCacheEnabled;
+    
+    @Value("${app.security.user-cache.max-entries:1000}")
+    private long userCacheMaxEntries;
+    
+    @Value("${app.security.user-cache.ttl:5m}")
+    private Duration userCacheTtl;
+    
+    private Cache<String, User> userCache;
+    
+    @PostConstruct
+    void initCache() {
+        if (userCacheEnabled) {
+            userCache = Caffeine.newBuilder()
+                    .maximumSize(userCacheMaxEntries)
+                    .expireAfterWrite(userCacheTtl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, userCache, "users");
+        }
+    }
     
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -25,6 +56,30 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
     
+    /**
+     * Igual que {@link #loadUserByUsername} pero sirviendo desde el cache de usuarios
+     * cuando está habilitado. Sólo para reconstruir principals de requests autenticados;
+     * el login siempre consulta la base.
+     */
+    public User loadCachedUserByUsername(String username) throws UsernameNotFoundException {
+        if (userCache == null) {
+            return (User) loadUserByUsername(username);
+        }
+        return userCache.get(username, key -> (User) loadUserByUsername(key));
+    }
+    
+    public void evictCachedUser(String username) {
+        if (userCache != null) {
+            userCache.invalidate(username);
+        }
+    }
+    
+    public void evictAllCachedUsers() {
+        if (userCache != null) {
+            userCache.invalidateAll();
+        }
+    }
+    
     public User createUser(String username, String password, User.Role role) {
         if (userRepository.existsByUsername(username)) {
             throw new RuntimeException("Username already exists");
@@ -38,9 +93,26 @@ public class UserService implements UserDetailsService {
         return userRepository.save(user);
     }
     
+    /**
+     * Cambia el rol de un usuario. Los access tokens ya emitidos conservan el rol anterior
+     * en sus claims hasta que expiran; el nuevo rol aplica desde la próxima renovación.
+     */
+    public User updateRole(UUID id, String role) {
+        User.Role nuevo;
+        try {
+            nuevo = User.Role.valueOf(role.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid role: " + role);
+        }
+        User user = getUserById(id);
+        user.setRole(nuevo);
+        User saved = userRepository.save(user);
+        evictCachedUser(saved.getUsername());
+        return saved;
+    }
+    
     public User getUserById(UUID id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 }
-
@@ -0,0 +1,175 @@
+package com.kavak.sc.oferta.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Catálogo de precios de vehículos por SKU.
+ * <p>
+ * Se carga desde un CSV local ({@code sku,precio}) a un índice de solo lectura con
+ * direccionamiento abierto sobre arrays, así que cada búsqueda es O(1) y no aloca.
+ * Si el archivo cambia se construye un índice nuevo y se reemplaza atómicamente; los
+ * requests en curso siguen usando el anterior.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VehiclePriceCatalog {
+    
+    private final ResourceLoader resourceLoader;
+    
+    @Value("${app.catalog.location:classpath:catalog/vehicle-prices.csv}")
+    private String location;
+    
+    private volatile PriceIndex index = PriceIndex.EMPTY;
+    private volatile long loadedLastModified = -1;
+    
+    @PostConstruct
+    void init() {
+        reloadIfModified();
+    }
+    
+    /**
+     * Precio del vehículo, o vacío si el SKU no está en el catálogo.
+     */
+    public Optional<BigDecimal> findPrecio(String sku) {
+        long centavos = index.get(sku);
+        return centavos < 0 ? Optional.empty() : Optional.of(BigDecimal.valueOf(centavos, 2));
+    }
+    
+    public int size() {
+        return index.size();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.catalog.reload-interval-ms:30000}", initialDelayString = "${app.catalog.reload-interval-ms:30000}")
+    public void reloadIfModified() {
+        Resource resource = resourceLoader.getResource(location);
+        try {
+            long lastModified = lastModified(resource);
+            if (lastModified == loadedLastModified && index != PriceIndex.EMPTY) {
+                return;
+            }
+            PriceIndex loaded = load(resource);
+            index = loaded;
+            loadedLastModified = lastModified;
+            log.info("Vehicle price catalog loaded from {}: {} SKUs", location, loaded.size());
+        } catch (IOException | RuntimeException e) {
+            // Un archivo roto no debe tirar abajo el catálogo vigente
+            log.error("Could not load vehicle price catalog from {}: {}", location, e.getMessage());
+        }
+    }
+    
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            // Recursos dentro del jar no informan fecha: se cargan una sola vez
+            return 0;
+        }
+    }
+    
+    private static PriceIndex load(Resource resource) throws IOException {
+        List<String> skus = new ArrayList<>();
+        List<Long> precios = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || (lineNumber == 1 && line.startsWith("sku"))) {
+                    continue;
+                }
+                int comma = line.indexOf(',');
+                if (comma <= 0) {
+                    throw new IllegalArgumentException("Invalid catalog line " + lineNumber + ": " + line);
+                }
+                skus.add(line.substring(0, comma).trim());
+                precios.add(AmortizationEngine.toCentavos(new BigDecimal(line.substring(comma + 1).trim())));
+            }
+        }
+        return PriceIndex.build(skus, precios);
+    }
+    
+    /**
+     * Tabla hash inmutable SKU → precio en centavos, con sondeo lineal sobre arrays
+     * paralelos.
+     */
+    static final class PriceIndex {
+        
+        static final PriceIndex EMPTY = build(List.of(), List.of());
+        
+        private final String[] keys;
+        private final long[] values;
+        private final int mask;
+        private final int size;
+        
+        private PriceIndex(String[] keys, long[] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.mask = keys.length - 1;
+            this.size = size;
+        }
+        
+        static PriceIndex build(List<String> skus, List<Long> precios) {
+            // Capacidad potencia de dos con carga máxima del 50%
+            int capacity = Integer.highestOneBit(Math.max(2, skus.size() * 2 - 1)) << 1;
+            String[] keys = new String[capacity];
+            long[] values = new long[capacity];
+            int size = 0;
+            for (int i = 0; i < skus.size(); i++) {
+                String sku = skus.get(i);
+                int slot = spread(sku.hashCode()) & (capacity - 1);
+                while (keys[slot] != null && !keys[slot].equals(sku)) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                if (keys[slot] == null) {
+                    size++;
+                }
+                // Si un SKU se repite gana la última línea del archivo
+                keys[slot] = sku;
+                values[slot] = precios.get(i);
+            }
+            return new PriceIndex(keys, values, size);
+        }
+        
+        long get(String sku) {
+            if (sku == null) {
+                return -1;
+            }
+            int slot = spread(sku.hashCode()) & mask;
+            String key;
+            while ((key = keys[slot]) != null) {
+                if (key.equals(sku)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        private static int spread(int h) {
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+-- Migration: Employee activity log
+-- Date: 2026-10-18
+-- Description: append-only log of employee actions (LEAD_VIEWED, SIMULATION_CREATED,
+-- OFFER_ACCEPTED, ...). The backend batches inserts from an in-memory buffer and
+-- creates the monthly partitions ahead of time (app.activity.partitions-ahead).
+-- Old months can be dropped with DROP TABLE employee_activity_YYYY_MM.
+
+-- ========================================
+-- 1. Partitioned table
+-- ========================================
+-- The partition key has to be part of the primary key
+CREATE TABLE IF NOT EXISTS employee_activity (
+    id UUID NOT NULL,
+    occurred_at TIMESTAMP NOT NULL,
+    employee_id UUID NOT NULL,
+    employee_name VARCHAR(255),
+    action VARCHAR(30) NOT NULL,
+    lead_id VARCHAR(255),
+    deal_id VARCHAR(255),
+    details TEXT,
+    PRIMARY KEY (occurred_at, id)
+) PARTITION BY RANGE (occurred_at);
+
+-- Catches rows outside the monthly partitions so inserts never fail
+CREATE TABLE IF NOT EXISTS employee_activity_default PARTITION OF employee_activity DEFAULT;
+
+-- ========================================
+-- 2. Indexes (created on every partition)
+-- ========================================
+CREATE INDEX IF NOT EXISTS idx_employee_activity_employee ON employee_activity(employee_id, occurred_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_employee_activity_deal ON employee_activity(deal_id, occurred_at DESC, id DESC);
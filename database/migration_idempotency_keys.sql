@@ -0,0 +1,13 @@
+-- Migration: Idempotency keys for offer creation
+-- Date: 2026-10-18
+-- Description: POST /api/financing-offers accepts an Idempotency-Key header (or
+-- derives a key from dealId + payload). The key is stored hashed with the offer
+-- and a unique index guarantees that a retried request never inserts a second
+-- row, even when the retry lands on another instance. Offers created before this
+-- migration and batch offers keep NULL, which the index ignores.
+
+ALTER TABLE ofertas_financiamiento
+ADD COLUMN IF NOT EXISTS idempotency_key VARCHAR(64);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ofertas_idempotency_key
+ON ofertas_financiamiento(idempotency_key);
@@ -0,0 +1,13 @@
+-- Migration: Original response for idempotent offer replays
+-- Date: 2026-10-18
+-- Description: A retried POST /api/financing-offers whose key is found in the
+-- database (another instance, or after the in-memory entry expired) must get
+-- exactly the original response, even if the rate table or the quote date
+-- changed since. The payload hash and the response JSON are stored with the
+-- offer. Offers without an idempotency key keep NULL in both columns.
+
+ALTER TABLE ofertas_financiamiento
+ADD COLUMN IF NOT EXISTS idempotency_request_hash VARCHAR(64);
+
+ALTER TABLE ofertas_financiamiento
+ADD COLUMN IF NOT EXISTS idempotency_response TEXT;
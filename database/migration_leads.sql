@@ -0,0 +1,70 @@
+-- Migration: Leads and lead priority rules
+-- Date: 2026-10-17
+-- Description: leads table (replaces the frontend mock data) and the admin-defined
+-- priority rules. The backend stores each lead's computed score, so the inbox is an
+-- index scan on (country_code, puntaje, id).
+
+-- ========================================
+-- 1. Priority rules
+-- ========================================
+CREATE TABLE IF NOT EXISTS lead_priority_rules (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    nombre VARCHAR(255) NOT NULL,
+    condicion VARCHAR(255) NOT NULL,
+    prioridad VARCHAR(20) NOT NULL CHECK (prioridad IN ('BAJA', 'MEDIA', 'ALTA')),
+    puntaje INTEGER NOT NULL,
+    activa BOOLEAN NOT NULL DEFAULT TRUE,
+    descripcion VARCHAR(255),
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO lead_priority_rules (nombre, condicion, prioridad, puntaje, activa, descripcion) VALUES
+    ('Cliente Premium', 'ingresos_anuales > 15000000', 'ALTA', 100, TRUE, 'Clientes con ingresos superiores a $15M anuales'),
+    ('Vehículo Alto Valor', 'precio_vehiculo > 30000000', 'ALTA', 90, TRUE, 'Vehículos con precio superior a $30M'),
+    ('Lead Antiguo', 'dias_desde_creacion > 7', 'MEDIA', 60, TRUE, 'Leads con más de 7 días sin atención'),
+    ('Retorno de Cliente', 'tiene_credito_anterior = true', 'MEDIA', 70, FALSE, 'Cliente que ya tuvo un crédito anterior'),
+    ('Score Crediticio Alto', 'score_crediticio > 750', 'ALTA', 85, TRUE, 'Clientes con excelente historial crediticio');
+
+-- ========================================
+-- 2. Leads
+-- ========================================
+-- puntaje / prioridad / reglas_* are filled by the backend on insert and on startup
+-- (leads with a stale reglas_version are rescored)
+CREATE TABLE IF NOT EXISTS leads (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    deal_id VARCHAR(255),
+    cliente_nombre VARCHAR(255) NOT NULL,
+    cliente_apellido VARCHAR(255) NOT NULL,
+    cliente_dni VARCHAR(255) NOT NULL,
+    cliente_email VARCHAR(255),
+    cliente_telefono VARCHAR(255),
+    cliente_ingresos_anuales NUMERIC(19,2),
+    tiene_credito_anterior BOOLEAN,
+    score_crediticio INTEGER,
+    vehiculo_marca VARCHAR(255),
+    vehiculo_modelo VARCHAR(255),
+    vehiculo_version VARCHAR(255),
+    vehiculo_anio INTEGER,
+    vehiculo_sku VARCHAR(255),
+    vehiculo_precio NUMERIC(19,2),
+    vehiculo_kilometros INTEGER,
+    etapa_actual VARCHAR(20) NOT NULL DEFAULT 'OFERTA',
+    estado_oferta VARCHAR(20) NOT NULL DEFAULT 'PENDIENTE',
+    estado_handoff VARCHAR(20) NOT NULL DEFAULT 'PENDIENTE',
+    estado_dictamen VARCHAR(20) NOT NULL DEFAULT 'PENDIENTE',
+    asignado_a VARCHAR(255),
+    subsidiary INTEGER,
+    country_code VARCHAR(2) NOT NULL DEFAULT 'AR',
+    puntaje INTEGER NOT NULL DEFAULT 0,
+    prioridad VARCHAR(20) NOT NULL DEFAULT 'BAJA',
+    reglas_cumplidas BIGINT NOT NULL DEFAULT 0,
+    reglas_version BIGINT NOT NULL DEFAULT 0,
+    fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    fecha_ultima_actualizacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- ========================================
+-- 3. Indexes
+-- ========================================
+CREATE INDEX IF NOT EXISTS idx_leads_country_puntaje_id ON leads(country_code, puntaje, id);
+CREATE INDEX IF NOT EXISTS idx_leads_deal_id ON leads(deal_id);
@@ -0,0 +1,21 @@
+-- Migration: Composite indexes for keyset-paginated offer history
+-- Date: 2026-10-17
+-- Description: GET /api/financing-offers pages by (created_at, id) descending,
+-- optionally filtered by user, country or deal. Each filter gets an index whose
+-- leading column is the filter and whose tail is the keyset, so every page is
+-- an index range scan regardless of depth.
+
+CREATE INDEX IF NOT EXISTS idx_ofertas_created_at_id
+ON ofertas_financiamiento(created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_ofertas_created_by_created_at_id
+ON ofertas_financiamiento(created_by, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_ofertas_country_created_at_id
+ON ofertas_financiamiento(country_code, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_ofertas_deal_created_at_id
+ON ofertas_financiamiento(deal_id, created_at DESC, id DESC);
+
+-- Los índices simples por created_by / deal_id quedan cubiertos por los compuestos
+-- DROP INDEX IF EXISTS idx_ofertas_deal_id;
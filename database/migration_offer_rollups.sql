@@ -0,0 +1,55 @@
+-- Migration: Incrementally maintained offer rollups
+-- Date: 2026-10-17
+-- Description: ofertas_rollup_mensual keeps per month / country / user counters
+-- that the backend updates in the same transaction as each offer insert.
+-- Metrics reads (GET /api/metrics/offers) only touch this table.
+
+-- ========================================
+-- 1. Rollup table
+-- ========================================
+CREATE TABLE IF NOT EXISTS ofertas_rollup_mensual (
+    mes DATE NOT NULL,
+    country_code VARCHAR(2) NOT NULL,
+    created_by UUID NOT NULL,
+    total_ofertas BIGINT NOT NULL,
+    suma_monto_financiado NUMERIC(19,2) NOT NULL,
+    suma_monto_total NUMERIC(19,2) NOT NULL,
+    suma_porcentaje BIGINT NOT NULL,
+    updated_at TIMESTAMP,
+    PRIMARY KEY (mes, country_code, created_by)
+);
+
+-- ========================================
+-- 2. Backfill from existing offers
+-- ========================================
+-- Run once, before deploying the backend version that maintains the rollups
+INSERT INTO ofertas_rollup_mensual (mes, country_code, created_by, total_ofertas,
+    suma_monto_financiado, suma_monto_total, suma_porcentaje, updated_at)
+SELECT
+    DATE_TRUNC('month', created_at)::date,
+    country_code,
+    COALESCE(created_by, '00000000-0000-0000-0000-000000000000'::uuid),
+    COUNT(*),
+    SUM(monto_financiado),
+    SUM(monto_total),
+    SUM(porcentaje_financiar),
+    NOW()
+FROM ofertas_financiamiento
+GROUP BY 1, 2, 3
+ON CONFLICT (mes, country_code, created_by) DO NOTHING;
+
+-- ========================================
+-- 3. estadisticas_ofertas over the rollups
+-- ========================================
+-- Same columns as before, without scanning ofertas_financiamiento
+DROP VIEW IF EXISTS estadisticas_ofertas;
+CREATE VIEW estadisticas_ofertas AS
+SELECT
+    mes::timestamp with time zone AS mes,
+    SUM(total_ofertas) AS total_ofertas,
+    SUM(suma_porcentaje)::numeric / SUM(total_ofertas) AS porcentaje_promedio,
+    SUM(suma_monto_financiado) / SUM(total_ofertas) AS monto_promedio,
+    SUM(suma_monto_financiado) AS monto_total_mes
+FROM ofertas_rollup_mensual
+GROUP BY mes
+ORDER BY mes DESC;
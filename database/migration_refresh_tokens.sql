@@ -0,0 +1,18 @@
+-- Migration: Rotating refresh tokens
+-- Date: 2026-10-18
+-- Description: refresh_tokens stores only the SHA-256 of each opaque refresh token.
+-- Every login opens a family; each POST /api/auth/refresh marks the presented token as
+-- used and issues the next one in the same family. Presenting a used token again
+-- deletes the whole family. Used rows are kept until the newest token of the family
+-- expires, so replaying any earlier token of a live family is detected.
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    token_hash VARCHAR(64) PRIMARY KEY,
+    family_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    used_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family ON refresh_tokens(family_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires_at ON refresh_tokens(expires_at);
@@ -1,6 +1,6 @@
 'use client';
 
-import { useState } from 'react';
+import { useEffect, useState } from 'react';
 import { useRouter } from 'next/navigation';
 import { useAuthStore } from '@/store/authStore';
 import { 
@@ -21,9 +21,9 @@ import { OfertaRules, PriorityRule, EmployeeMetrics, QualityMetrics } from '@/li
 import { 
   MOCK_EMPLOYEE_METRICS, 
   MOCK_QUALITY_METRICS, 
-  MOCK_EMPLOYEE_LOGS,
-  MOCK_PRIORITY_RULES 
+  MOCK_EMPLOYEE_LOGS
 } from '@/lib/mockAdminData';
+import { priorityRulesApi } from '@/lib/api';
 
 type TabType = 'oferta-rules' | 'priority-rules' | 'performance' | 'logs';
 
@@ -52,13 +52,20 @@ export default function AdminPage() {
   });
   
   // Estados para Reglas de Prioridad
-  const [priorityRules, setPriorityRules] = useState<PriorityRule[]>(MOCK_PRIORITY_RULES);
+  const [priorityRules, setPriorityRules] = useState<PriorityRule[]>([]);
   
   // Estados para Performance
   const [employeeMetrics] = useState<EmployeeMetrics[]>(MOCK_EMPLOYEE_METRICS);
   const [qualityMetrics] = useState<QualityMetrics[]>(MOCK_QUALITY_METRICS);
   const [employeeLogs] = useState(MOCK_EMPLOYEE_LOGS);
 
+  useEffect(() => {
+    if (user?.role !== 'ADMIN') return;
+    priorityRulesApi.list()
+      .then(setPriorityRules)
+      .catch(() => setPriorityRules([]));
+  }, [user?.role]);
+
   // Verificar permisos de admin
   if (user?.role !== 'ADMIN') {
     return (
@@ -84,15 +91,49 @@ export default function AdminPage() {
     alert('✅ Reglas guardadas exitosamente (mock)');
   };
 
-  const handleTogglePriorityRule = (id: string) => {
-    setPriorityRules(priorityRules.map(rule => 
-      rule.id === id ? { ...rule, activa: !rule.activa } : rule
-    ));
+  const handleCreatePriorityRule = async () => {
+    const nombre = prompt('Nombre de la regla');
+    if (!nombre) return;
+    const condicion = prompt('Condición (ej: ingresos_anuales > 15000000)');
+    if (!condicion) return;
+    const prioridad = prompt('Prioridad (ALTA, MEDIA o BAJA)', 'MEDIA')?.toUpperCase();
+    if (prioridad !== 'ALTA' && prioridad !== 'MEDIA' && prioridad !== 'BAJA') return;
+    const puntaje = Number(prompt('Puntaje', '50'));
+    if (!Number.isFinite(puntaje)) return;
+    try {
+      const creada = await priorityRulesApi.create({
+        nombre,
+        condicion,
+        prioridad,
+        puntaje,
+        activa: true,
+        descripcion: prompt('Descripción') ?? ''
+      });
+      setPriorityRules(rules => [...rules, creada]);
+    } catch (error: any) {
+      alert(`❌ No se pudo crear la regla: ${error.response?.data?.error ?? error.message}`);
+    }
   };
 
-  const handleDeletePriorityRule = (id: string) => {
-    if (confirm('¿Estás seguro de eliminar esta regla?')) {
-      setPriorityRules(priorityRules.filter(rule => rule.id !== id));
+  const handleTogglePriorityRule = async (id: string) => {
+    const rule = priorityRules.find(r => r.id === id);
+    if (!rule) return;
+    const { id: _, ...request } = rule;
+    try {
+      const actualizada = await priorityRulesApi.update(id, { ...request, activa: !rule.activa });
+      setPriorityRules(rules => rules.map(r => r.id === id ? actualizada : r));
+    } catch (error: any) {
+      alert(`❌ No se pudo actualizar la regla: ${error.response?.data?.error ?? error.message}`);
+    }
+  };
+
+  const handleDeletePriorityRule = async (id: string) => {
+    if (!confirm('¿Estás seguro de eliminar esta regla?')) return;
+    try {
+      await priorityRulesApi.remove(id);
+      setPriorityRules(rules => rules.filter(rule => rule.id !== id));
+    } catch (error: any) {
+      alert(`❌ No se pudo eliminar la regla: ${error.response?.data?.error ?? error.message}`);
     }
   };
 
@@ -400,7 +441,10 @@ export default function AdminPage() {
                   <h2 className="text-2xl font-bold text-gray-900">Reglas de Prioridad</h2>
                   <p className="text-gray-600">Define cómo se priorizan los leads automáticamente</p>
                 </div>
-                <button className="flex items-center px-4 py-2 bg-[#2E5BFF] text-white rounded-lg hover:bg-[#00D4AA] transition-colors">
+                <button
+                  onClick={handleCreatePriorityRule}
+                  className="flex items-center px-4 py-2 bg-[#2E5BFF] text-white rounded-lg hover:bg-[#00D4AA] transition-colors"
+                >
                   <Plus className="w-5 h-5 mr-2" />
                   Nueva Regla
                 </button>
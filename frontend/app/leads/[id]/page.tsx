@@ -2,8 +2,8 @@
 
 import { useState, useEffect } from 'react';
 import { useRouter, useParams } from 'next/navigation';
-import { MOCK_LEADS } from '@/lib/mockLeads';
-import { TramiteStage } from '@/lib/leads';
+import { leadsApi } from '@/lib/api';
+import { Lead, TramiteStage } from '@/lib/leads';
 import TramiteStepper from '@/components/TramiteStepper';
 import { COUNTRIES } from '@/lib/countries';
 import { ArrowLeft, User, Car, Calendar, Building, Phone, Mail, FileText } from 'lucide-react';
@@ -14,10 +14,37 @@ export default function LeadDetailPage() {
   const params = useParams();
   const id = params?.id as string;
   const router = useRouter();
-  const lead = MOCK_LEADS.find(l => l.id === id);
+  const [lead, setLead] = useState<Lead | null>(null);
+  const [loading, setLoading] = useState(true);
   const [activeTab, setActiveTab] = useState<TramiteStage>(TramiteStage.OFERTA);
   const [selectedSimulation, setSelectedSimulation] = useState<SelectedSimulation | null>(null);
 
+  // Estado para el sticky header
+  const [isScrolled, setIsScrolled] = useState(false);
+
+  useEffect(() => {
+    const handleScroll = () => {
+      setIsScrolled(window.scrollY > 100);
+    };
+    window.addEventListener('scroll', handleScroll);
+    return () => window.removeEventListener('scroll', handleScroll);
+  }, []);
+
+  useEffect(() => {
+    leadsApi.getLead(id)
+      .then(setLead)
+      .catch(() => setLead(null))
+      .finally(() => setLoading(false));
+  }, [id]);
+
+  if (loading) {
+    return (
+      <div className="min-h-screen bg-gray-50 flex items-center justify-center">
+        <p className="text-gray-600">Cargando lead...</p>
+      </div>
+    );
+  }
+
   if (!lead) {
     return (
       <div className="min-h-screen bg-gray-50 flex items-center justify-center">
@@ -54,17 +81,6 @@ export default function LeadDetailPage() {
     }).format(date);
   };
 
-  // Estado para el sticky header
-  const [isScrolled, setIsScrolled] = useState(false);
-
-  useEffect(() => {
-    const handleScroll = () => {
-      setIsScrolled(window.scrollY > 100);
-    };
-    window.addEventListener('scroll', handleScroll);
-    return () => window.removeEventListener('scroll', handleScroll);
-  }, []);
-
   return (
     <div className="min-h-screen">
       {/* Header with Kavak Branding + Stepper */}
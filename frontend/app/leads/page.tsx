@@ -1,8 +1,8 @@
 'use client';
 
-import { useState } from 'react';
+import { useEffect, useState } from 'react';
 import { useRouter } from 'next/navigation';
-import { MOCK_LEADS } from '@/lib/mockLeads';
+import { leadsApi } from '@/lib/api';
 import { 
   Lead, 
   LeadPriority, 
@@ -21,12 +21,49 @@ import { useAuthStore } from '@/store/authStore';
 export default function LeadsPage() {
   const router = useRouter();
   const { user } = useAuthStore();
-  const [leads, setLeads] = useState<Lead[]>(MOCK_LEADS);
+  const [leads, setLeads] = useState<Lead[]>([]);
   const [searchTerm, setSearchTerm] = useState('');
   const [filterPriority, setFilterPriority] = useState<LeadPriority | 'ALL'>('ALL');
   const [filterStage, setFilterStage] = useState<TramiteStage | 'ALL'>('ALL');
   const [filterCountry, setFilterCountry] = useState<'ALL' | 'AR' | 'CL'>('ALL');
 
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+
+  // La bandeja es por país: sin país el backend usa el del usuario
+  const inboxCountry = filterCountry === 'ALL' ? undefined : filterCountry;
+
+  useEffect(() => {
+    let cancelled = false;
+    leadsApi.getInbox(inboxCountry)
+      .then(page => {
+        if (cancelled) return;
+        setLeads(page.items);
+        setNextCursor(page.nextCursor);
+      })
+      .catch(() => {
+        if (cancelled) return;
+        setLeads([]);
+        setNextCursor(null);
+      });
+    return () => {
+      cancelled = true;
+    };
+  }, [inboxCountry]);
+
+  // Siguiente página por keyset: se agrega al final, el backend ya la ordena por puntaje
+  const handleLoadMore = () => {
+    if (!nextCursor || loadingMore) return;
+    setLoadingMore(true);
+    leadsApi.getInbox(inboxCountry, nextCursor)
+      .then(page => {
+        setLeads(prev => [...prev, ...page.items]);
+        setNextCursor(page.nextCursor);
+      })
+      .catch(() => {})
+      .finally(() => setLoadingMore(false));
+  };
+
   const filteredLeads = leads.filter(lead => {
     const matchesSearch = 
       lead.cliente.nombre.toLowerCase().includes(searchTerm.toLowerCase()) ||
@@ -479,6 +516,18 @@ export default function LeadsPage() {
             </div>
           </div>
         )}
+
+        {nextCursor && (
+          <div className="text-center">
+            <button
+              onClick={handleLoadMore}
+              disabled={loadingMore}
+              className="px-6 py-2 bg-white border border-gray-300 rounded-lg text-sm font-semibold text-[#2E5BFF] hover:bg-gray-50 transition-colors disabled:opacity-50"
+            >
+              {loadingMore ? 'Cargando...' : 'Cargar más leads'}
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );
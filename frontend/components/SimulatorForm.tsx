@@ -43,17 +43,9 @@ export default function SimulatorForm({ leadData, onSimulationComplete }: Simula
     formState: { errors },
   } = useForm<FormData>();
 
-  // Cargar configuración del sistema
+  // Configuración del sistema: llega al suscribirse y en cada cambio, sin polling
   useEffect(() => {
-    const loadSettings = async () => {
-      try {
-        const settings = await settingsApi.getSettings();
-        setMaxPercentage(settings.porcentajeMaximo);
-      } catch (error) {
-        console.error('Error loading settings:', error);
-      }
-    };
-    loadSettings();
+    return settingsApi.subscribe((settings) => setMaxPercentage(settings.porcentajeMaximo));
   }, []);
 
   // Precargar datos del lead
@@ -1,5 +1,7 @@
 import axios from 'axios';
 import { FinancingOfferRequest, SimulacionResponse, AjustesSistema, SettingsRequest } from './types';
+import { Lead } from './leads';
+import { PriorityRule } from './adminTypes';
 
 const API_URL = process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8080';
 
@@ -24,12 +26,45 @@ api.interceptors.request.use(
   }
 );
 
+// Una sola renovación en curso aunque fallen varios requests a la vez: el refresh token
+// se rota en cada uso y presentarlo dos veces revoca la sesión
+let refreshing: Promise<string> | null = null;
+
+const refreshAccessToken = (): Promise<string> => {
+  if (!refreshing) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    refreshing = (refreshToken
+      ? axios.post(`${API_URL}/api/auth/refresh`, { refreshToken }).then((response) => {
+          localStorage.setItem('token', response.data.token);
+          localStorage.setItem('refreshToken', response.data.refreshToken);
+          return response.data.token as string;
+        })
+      : Promise.reject(new Error('No refresh token'))
+    ).finally(() => {
+      refreshing = null;
+    });
+  }
+  return refreshing;
+};
+
 // Response interceptor to handle auth errors
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
+  async (error) => {
+    const original = error.config;
+    if (error.response?.status === 401 && original && !original._retry) {
+      original._retry = true;
+      try {
+        const token = await refreshAccessToken();
+        original.headers.Authorization = `Bearer ${token}`;
+        return api(original);
+      } catch {
+        // Sin refresh token o sesión revocada: volver al login
+      }
+    }
     if (error.response?.status === 401) {
       localStorage.removeItem('token');
+      localStorage.removeItem('refreshToken');
       localStorage.removeItem('user');
       window.location.href = '/login';
     }
@@ -40,7 +75,7 @@ api.interceptors.response.use(
 // API functions
 export const financingApi = {
   createSimulation: async (request: FinancingOfferRequest): Promise<SimulacionResponse> => {
-    const response = await api.post('/api/financing-offers', request);
+    const response = await api.post('/api/financing-offers/batch', request);
     return response.data;
   },
 };
@@ -55,6 +90,147 @@ export const settingsApi = {
     const response = await api.patch('/api/settings', request);
     return response.data;
   },
+
+  // Feed de cambios (SSE): el primer evento son los ajustes vigentes y después llega uno por
+  // cambio, así que reemplaza a getSettings sin polling. EventSource no permite mandar el
+  // header Authorization: se lee el stream con fetch y se reconecta con Last-Event-ID.
+  // Devuelve la función para cancelar la suscripción.
+  subscribe: (onChange: (settings: AjustesSistema) => void, country?: string): (() => void) => {
+    const controller = new AbortController();
+    let lastEventId: string | null = null;
+    // Un solo intento de renovación por cada 401: si el token nuevo también se rechaza, cortar
+    let renewed = false;
+
+    const connect = async () => {
+      while (!controller.signal.aborted) {
+        try {
+          const headers: Record<string, string> = { Accept: 'text/event-stream' };
+          const token = localStorage.getItem('token');
+          if (token) headers.Authorization = `Bearer ${token}`;
+          if (lastEventId) headers['Last-Event-ID'] = lastEventId;
+          const query = country ? `?country=${encodeURIComponent(country)}` : '';
+          const response = await fetch(`${API_URL}/api/settings/stream${query}`, {
+            headers,
+            signal: controller.signal,
+          });
+          if (response.status === 401) {
+            // fetch no pasa por el interceptor: renovar el token acá y reconectar. Sin
+            // refresh token o con la sesión revocada se deja de escuchar
+            if (renewed) return;
+            renewed = true;
+            try {
+              await refreshAccessToken();
+            } catch {
+              return;
+            }
+            continue;
+          }
+          if (response.status === 403) return;
+          if (!response.ok || !response.body) throw new Error(`HTTP ${response.status}`);
+          renewed = false;
+
+          const reader = response.body.getReader();
+          const decoder = new TextDecoder();
+          let buffer = '';
+          for (;;) {
+            const { done, value } = await reader.read();
+            if (done) break;
+            buffer += decoder.decode(value, { stream: true });
+            let end: number;
+            while ((end = buffer.indexOf('\n\n')) >= 0) {
+              const event = buffer.slice(0, end);
+              buffer = buffer.slice(end + 2);
+              let data = '';
+              event.split('\n').forEach((line) => {
+                if (line.startsWith('id:')) lastEventId = line.slice(3).trim();
+                else if (line.startsWith('data:')) data += line.slice(5);
+              });
+              if (data) onChange(JSON.parse(data));
+            }
+          }
+        } catch {
+          if (controller.signal.aborted) return;
+        }
+        // El servidor cierra el stream al vencer su timeout: reconectar tras una pausa
+        await new Promise((resolve) => setTimeout(resolve, 3000));
+      }
+    };
+    connect();
+    return () => controller.abort();
+  },
+};
+
+// El backend devuelve el lead plano; la UI lo usa agrupado en cliente / vehículo
+const toLead = (raw: any): Lead => ({
+  id: raw.id,
+  dealId: raw.dealId ?? '',
+  prioridad: raw.prioridad,
+  cliente: {
+    id: raw.clienteDni,
+    nombre: raw.clienteNombre,
+    apellido: raw.clienteApellido,
+    dni: raw.clienteDni,
+    email: raw.clienteEmail ?? '',
+    telefono: raw.clienteTelefono ?? '',
+    ingresosAnuales: Number(raw.clienteIngresosAnuales ?? 0),
+    countryCode: raw.countryCode,
+  },
+  vehiculo: {
+    id: raw.vehiculoSku ?? '',
+    marca: raw.vehiculoMarca ?? '',
+    modelo: raw.vehiculoModelo ?? '',
+    version: raw.vehiculoVersion ?? '',
+    anio: raw.vehiculoAnio ?? 0,
+    sku: raw.vehiculoSku ?? '',
+    precio: Number(raw.vehiculoPrecio ?? 0),
+    kilometros: raw.vehiculoKilometros ?? 0,
+  },
+  etapaActual: raw.etapaActual,
+  estadoOferta: raw.estadoOferta,
+  estadoHandoff: raw.estadoHandoff,
+  estadoDictamen: raw.estadoDictamen,
+  fechaCreacion: new Date(raw.fechaCreacion),
+  fechaUltimaActualizacion: new Date(raw.fechaUltimaActualizacion),
+  asignadoA: raw.asignadoA ?? undefined,
+  subsidiary: raw.subsidiary ?? 0,
+  countryCode: raw.countryCode,
+});
+
+export const leadsApi = {
+  // Bandeja ordenada por prioridad en el backend; nextCursor es null en la última página
+  getInbox: async (country?: string, cursor?: string): Promise<{ items: Lead[]; nextCursor: string | null }> => {
+    const response = await api.get('/api/leads', { params: { country, cursor, size: 100 } });
+    return { items: response.data.items.map(toLead), nextCursor: response.data.nextCursor };
+  },
+
+  getLead: async (id: string): Promise<Lead> => {
+    const response = await api.get(`/api/leads/${id}`);
+    return toLead(response.data);
+  },
+};
+
+// El backend no recibe el id en el cuerpo: va en la URL
+type PriorityRuleRequest = Omit<PriorityRule, 'id'>;
+
+export const priorityRulesApi = {
+  list: async (): Promise<PriorityRule[]> => {
+    const response = await api.get('/api/admin/priority-rules');
+    return response.data;
+  },
+
+  create: async (request: PriorityRuleRequest): Promise<PriorityRule> => {
+    const response = await api.post('/api/admin/priority-rules', request);
+    return response.data;
+  },
+
+  update: async (id: string, request: PriorityRuleRequest): Promise<PriorityRule> => {
+    const response = await api.put(`/api/admin/priority-rules/${id}`, request);
+    return response.data;
+  },
+
+  remove: async (id: string): Promise<void> => {
+    await api.delete(`/api/admin/priority-rules/${id}`);
+  },
 };
 
 export default api;
\ No newline at end of file
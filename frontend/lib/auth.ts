@@ -8,6 +8,9 @@ export interface User {
 export interface AuthResponse {
   token: string;
   role: string;
+  refreshToken: string;
+  // Segundos de vida del access token
+  expiresIn: number;
 }
 
 export interface AuthRequest {
@@ -27,7 +30,13 @@ export const authApi = {
   },
 
   logout: () => {
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (refreshToken) {
+      // Revoca la sesión en el backend; si falla, el refresh token vence solo
+      api.post('/api/auth/logout', { refreshToken }).catch(() => undefined);
+    }
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('user');
   },
 
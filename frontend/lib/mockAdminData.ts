@@ -1,4 +1,4 @@
-import { EmployeeMetrics, EmployeeLog, QualityMetrics, PriorityRule } from './adminTypes';
+import { EmployeeMetrics, EmployeeLog, QualityMetrics } from './adminTypes';
 
 export const MOCK_EMPLOYEE_METRICS: EmployeeMetrics[] = [
   {
@@ -152,51 +152,3 @@ export const MOCK_EMPLOYEE_LOGS: EmployeeLog[] = [
   }
 ];
 
-export const MOCK_PRIORITY_RULES: PriorityRule[] = [
-  {
-    id: '1',
-    nombre: 'Cliente Premium',
-    condicion: 'ingresos_anuales > 15000000',
-    prioridad: 'ALTA',
-    puntaje: 100,
-    activa: true,
-    descripcion: 'Clientes con ingresos superiores a $15M anuales'
-  },
-  {
-    id: '2',
-    nombre: 'Vehículo Alto Valor',
-    condicion: 'precio_vehiculo > 30000000',
-    prioridad: 'ALTA',
-    puntaje: 90,
-    activa: true,
-    descripcion: 'Vehículos con precio superior a $30M'
-  },
-  {
-    id: '3',
-    nombre: 'Lead Antiguo',
-    condicion: 'dias_desde_creacion > 7',
-    prioridad: 'MEDIA',
-    puntaje: 60,
-    activa: true,
-    descripcion: 'Leads con más de 7 días sin atención'
-  },
-  {
-    id: '4',
-    nombre: 'Retorno de Cliente',
-    condicion: 'tiene_credito_anterior = true',
-    prioridad: 'MEDIA',
-    puntaje: 70,
-    activa: false,
-    descripcion: 'Cliente que ya tuvo un crédito anterior'
-  },
-  {
-    id: '5',
-    nombre: 'Score Crediticio Alto',
-    condicion: 'score_crediticio > 750',
-    prioridad: 'ALTA',
-    puntaje: 85,
-    activa: true,
-    descripcion: 'Clientes con excelente historial crediticio'
-  }
-];
-
@@ -28,6 +28,7 @@ export const useAuthStore = create<AuthState>()(
           const user: User = { username, role: response.role as 'USER' | 'ADMIN' };
           
           localStorage.setItem('token', response.token);
+          localStorage.setItem('refreshToken', response.refreshToken);
           localStorage.setItem('user', JSON.stringify(user));
           
           set({
@@ -49,6 +50,7 @@ export const useAuthStore = create<AuthState>()(
           const user: User = { username, role: response.role as 'USER' | 'ADMIN' };
           
           localStorage.setItem('token', response.token);
+          localStorage.setItem('refreshToken', response.refreshToken);
           localStorage.setItem('user', JSON.stringify(user));
           
           set({